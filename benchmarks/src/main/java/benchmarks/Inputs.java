@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Resolves a benchmark's {@code input} parameter.
+ * <p>
+ * {@code example} loads the {@code example} resource next to the benchmark class; {@code synthetic:N} calls the
+ * benchmark's generator with size N and a random source with a fixed seed, so that every run sees the same input.
+ */
+public final class Inputs {
+    public static final String EXAMPLE = "example";
+    public static final String SYNTHETIC = "synthetic:";
+    static final long SEED = 20221201L;
+
+    private Inputs() {
+    }
+
+    @FunctionalInterface
+    public interface Generator {
+        List<String> generate(int size, Random random);
+    }
+
+    public static List<String> lines(Class<?> benchmark, String input, Generator generator) {
+        if (input.equals(EXAMPLE)) {
+            try (var reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(benchmark.getResourceAsStream(EXAMPLE))))) {
+                return reader.lines().toList();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (input.startsWith(SYNTHETIC)) {
+            return generator.generate(Integer.parseInt(input.substring(SYNTHETIC.length())), new Random(SEED));
+        }
+        throw new IllegalArgumentException("unknown input " + input);
+    }
+}
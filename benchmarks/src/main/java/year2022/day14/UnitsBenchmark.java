@@ -0,0 +1,89 @@
+package year2022.day14;
+
+import benchmarks.Inputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnitsBenchmark {
+    @Param({"example", "synthetic:60", "synthetic:170"})
+    String input;
+
+    Puzzle puzzle;
+
+    @Setup
+    public void setup() {
+        puzzle = new Puzzle(Inputs.lines(UnitsBenchmark.class, input, UnitsBenchmark::generate));
+    }
+
+    @Benchmark
+    public int abyss() {
+        return puzzle.units(false);
+    }
+
+    @Benchmark
+    public int floor() {
+        return puzzle.units(true);
+    }
+
+    @Benchmark
+    public int simulatedAbyss() {
+        return puzzle.simulator.units(false);
+    }
+
+    @Benchmark
+    public int simulatedFloor() {
+        return puzzle.simulator.units(true);
+    }
+
+    @Benchmark
+    public int filledFloor() {
+        return puzzle.simulator.fill();
+    }
+
+    /**
+     * Cave {@code size} deep: a bowl at the bottom that catches the sand, with about one ledge per two rows above it,
+     * some with walls going up at either end.
+     */
+    static List<String> generate(int size, Random random) {
+        List<String> lines = new ArrayList<>();
+        int left = 500 - size / 2;
+        int right = 500 + size / 2;
+        lines.add(left + "," + (size - size / 4) + " -> " + left + "," + size + " -> " + right + "," + size + " -> " + right + "," + (size - size / 4));
+        for (int i = 0; i < size / 2; i++) {
+            int y = 2 + random.nextInt(size - 2);
+            int from = 500 - y / 2 + random.nextInt(y + 1);
+            int to = from + 1 + random.nextInt(8);
+            int height = random.nextInt(Math.min(y, 5));
+            var path = new StringBuilder();
+            if (height > 0) {
+                path.append(from).append(',').append(y - height).append(" -> ");
+            }
+            path.append(from).append(',').append(y).append(" -> ").append(to).append(',').append(y);
+            if (height > 0 && random.nextBoolean()) {
+                path.append(" -> ").append(to).append(',').append(y - height);
+            }
+            lines.add(path.toString());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,100 @@
+package year2022.day16;
+
+import benchmarks.Inputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MaxPressureBenchmark {
+    @Param({"example", "synthetic:10", "synthetic:15"})
+    String input;
+
+    Puzzle puzzle;
+
+    @Setup
+    public void setup() {
+        puzzle = new Puzzle(Inputs.lines(MaxPressureBenchmark.class, input, MaxPressureBenchmark::generate));
+    }
+
+    @Benchmark
+    public int alone() {
+        return puzzle.max(30, false);
+    }
+
+    @Benchmark
+    public int withElephant() {
+        return puzzle.max(26, true);
+    }
+
+    @Benchmark
+    public int bitmaskAlone() {
+        return puzzle.solver.max(30, false);
+    }
+
+    @Benchmark
+    public int bitmaskWithElephant() {
+        return puzzle.solver.max(26, true);
+    }
+
+    static String name(int valve) {
+        return valve == 0 ? Puzzle.INITIAL_VALVE : "" + (char) ('B' + valve / 26) + (char) ('A' + valve % 26);
+    }
+
+    /**
+     * Sparse tunnel network with {@code size} working valves strung along corridors of twice as many broken ones, AA
+     * included, which is roughly the shape of the real inputs.
+     */
+    static List<String> generate(int size, Random random) {
+        int valves = 3 * size + 1;
+        List<Set<Integer>> tunnels = new ArrayList<>();
+        for (int v = 0; v < valves; v++) {
+            tunnels.add(new TreeSet<>());
+        }
+        for (int v = 1; v < valves; v++) {
+            connect(tunnels, v, random.nextInt(3) == 0 ? random.nextInt(v) : v - 1);
+        }
+        for (int i = 0; i < valves / 6; i++) {
+            int a = random.nextInt(valves);
+            int b = random.nextInt(valves);
+            if (a != b) {
+                connect(tunnels, a, b);
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        for (int v = 0; v < valves; v++) {
+            int flowRate = v % 3 == 1 ? 1 + random.nextInt(25) : 0;
+            var neighbours = tunnels.get(v);
+            lines.add("Valve " + name(v) + " has flow rate=" + flowRate + "; "
+                    + (neighbours.size() == 1 ? "tunnel leads to valve " : "tunnels lead to valves ")
+                    + neighbours.stream().map(MaxPressureBenchmark::name).collect(Collectors.joining(", ")));
+        }
+        return lines;
+    }
+
+    private static void connect(List<Set<Integer>> tunnels, int a, int b) {
+        tunnels.get(a).add(b);
+        tunnels.get(b).add(a);
+    }
+}
@@ -0,0 +1,74 @@
+package year2023.day14;
+
+import benchmarks.Inputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpinCycleBenchmark {
+    @Param({"example", "synthetic:100", "synthetic:1000"})
+    String input;
+
+    Platform platform;
+    BitPlatform bitPlatform;
+
+    @Setup
+    public void setup() {
+        var lines = Inputs.lines(SpinCycleBenchmark.class, input, SpinCycleBenchmark::generate);
+        platform = Platform.parse(lines.stream());
+        bitPlatform = BitPlatform.parse(lines);
+    }
+
+    @Benchmark
+    public int cycle() {
+        platform.cycle();
+        return platform.load();
+    }
+
+    @Benchmark
+    public long bitCycle() {
+        bitPlatform.cycle();
+        return bitPlatform.load();
+    }
+
+    @Benchmark
+    public long[] bitHash() {
+        return bitPlatform.hash();
+    }
+
+    /**
+     * Square platform {@code size} wide with about one cube rock in six cells and one round rock in five, like the
+     * real inputs.
+     */
+    static List<String> generate(int size, Random random) {
+        List<String> lines = new ArrayList<>();
+        for (int y = 0; y < size; y++) {
+            var line = new StringBuilder();
+            for (int x = 0; x < size; x++) {
+                int r = random.nextInt(30);
+                line.append(r < 5 ? '#' : r < 11 ? 'O' : '.');
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}
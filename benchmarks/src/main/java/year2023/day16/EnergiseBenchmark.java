@@ -0,0 +1,78 @@
+package year2023.day16;
+
+import benchmarks.Inputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnergiseBenchmark {
+    static final String TILES = "/\\|-";
+
+    @Param({"example", "synthetic:110", "synthetic:200"})
+    String input;
+
+    List<String> lines;
+    Grid grid;
+    BeamEngine engine;
+
+    @Setup
+    public void setup() {
+        lines = Inputs.lines(EnergiseBenchmark.class, input, EnergiseBenchmark::generate);
+        grid = Grid.parse(lines.stream());
+        engine = new BeamEngine(lines);
+    }
+
+    @Benchmark
+    public int maxIllumination() {
+        return grid.maxIllumination();
+    }
+
+    @Benchmark
+    public BeamEngine compile() {
+        return new BeamEngine(lines);
+    }
+
+    @Benchmark
+    public int maxEnergised() {
+        return engine.maxEnergised(1);
+    }
+
+    @Benchmark
+    public int parallelMaxEnergised() {
+        return engine.maxEnergised(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Square contraption {@code size} wide with a mirror or splitter in about one cell in ten, like the real inputs.
+     */
+    static List<String> generate(int size, Random random) {
+        List<String> lines = new ArrayList<>();
+        for (int y = 0; y < size; y++) {
+            var line = new StringBuilder();
+            for (int x = 0; x < size; x++) {
+                line.append(random.nextInt(10) == 0 ? TILES.charAt(random.nextInt(TILES.length())) : '.');
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}
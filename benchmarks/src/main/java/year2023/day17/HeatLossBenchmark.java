@@ -0,0 +1,74 @@
+package year2023.day17;
+
+import benchmarks.Inputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeatLossBenchmark {
+    @Param({"example", "synthetic:141", "synthetic:500"})
+    String input;
+
+    List<String> lines;
+    CrucibleRouter router;
+
+    @Setup
+    public void setup() {
+        lines = Inputs.lines(HeatLossBenchmark.class, input, HeatLossBenchmark::generate);
+        router = new CrucibleRouter(lines);
+    }
+
+    @Benchmark
+    public int crucible() {
+        return Grid.parse(lines.stream(), false).solve();
+    }
+
+    @Benchmark
+    public int ultraCrucible() {
+        return Grid.parse(lines.stream(), true).solve();
+    }
+
+    @Benchmark
+    public int routedCrucible() {
+        return router.minHeatLoss(1, 3);
+    }
+
+    @Benchmark
+    public int routedUltraCrucible() {
+        return router.minHeatLoss(4, 10);
+    }
+
+    /**
+     * Square city {@code size} blocks wide with random heat losses from 1 to 9.
+     */
+    static List<String> generate(int size, Random random) {
+        List<String> lines = new ArrayList<>();
+        for (int y = 0; y < size; y++) {
+            var line = new StringBuilder();
+            for (int x = 0; x < size; x++) {
+                line.append(1 + random.nextInt(9));
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}
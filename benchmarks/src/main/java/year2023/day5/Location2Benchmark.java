@@ -0,0 +1,86 @@
+package year2023.day5;
+
+import benchmarks.Inputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Location2Benchmark {
+    static final String[] CATEGORIES = {"seed", "soil", "fertilizer", "water", "light", "temperature", "humidity", "location"};
+    static final long LIMIT = 1L << 32;
+
+    @Param({"example", "synthetic:40", "synthetic:400"})
+    String input;
+
+    LocationFinder locationFinder;
+    PiecewiseMapping mapping;
+
+    @Setup
+    public void setup() {
+        locationFinder = new LocationFinder();
+        Inputs.lines(Location2Benchmark.class, input, Location2Benchmark::generate).forEach(locationFinder::parse);
+        locationFinder.fillHoles();
+        mapping = locationFinder.compile();
+    }
+
+    @Benchmark
+    public long location2() {
+        return locationFinder.location2(locationFinder.ranges());
+    }
+
+    @Benchmark
+    public PiecewiseMapping compile() {
+        return locationFinder.compile();
+    }
+
+    @Benchmark
+    public long compiledLocation2() {
+        return mapping.min(locationFinder.ranges());
+    }
+
+    /**
+     * {@code size} seed ranges and seven maps of {@code size} adjacent entries each, all within 32 bits.
+     */
+    static List<String> generate(int size, Random random) {
+        List<String> lines = new ArrayList<>();
+        var seeds = new StringBuilder("seeds:");
+        for (int i = 0; i < size; i++) {
+            seeds.append(' ').append(random.nextLong(LIMIT)).append(' ').append(1 + random.nextLong(1L << 24));
+        }
+        lines.add(seeds.toString());
+        for (int c = 0; c < CATEGORIES.length - 1; c++) {
+            lines.add("");
+            lines.add(CATEGORIES[c] + "-to-" + CATEGORIES[c + 1] + " map:");
+            var cuts = new TreeSet<Long>();
+            while (cuts.size() <= size) {
+                cuts.add(random.nextLong(LIMIT));
+            }
+            long from = cuts.pollFirst();
+            for (long to : cuts) {
+                lines.add(random.nextLong(LIMIT) + " " + from + " " + (to - from));
+                from = to;
+            }
+        }
+        return lines;
+    }
+}
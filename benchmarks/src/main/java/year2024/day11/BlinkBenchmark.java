@@ -0,0 +1,66 @@
+package year2024.day11;
+
+import benchmarks.Inputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlinkBenchmark {
+    @Param({"example", "synthetic:8", "synthetic:1000"})
+    String input;
+
+    @Param({"25", "75"})
+    int blinks;
+
+    Stones stones;
+    long[] initialStones;
+
+    @Setup
+    public void setup() {
+        var lines = Inputs.lines(BlinkBenchmark.class, input, BlinkBenchmark::generate);
+        stones = Stones.from(lines.stream());
+        initialStones = StoneCounter.parse(lines.stream());
+    }
+
+    @Benchmark
+    public long blink() {
+        return stones.blink(blinks).total();
+    }
+
+    @Benchmark
+    public long counter() {
+        return new StoneCounter(initialStones, false).blink(blinks).total();
+    }
+
+    @Benchmark
+    public long cachedCounter() {
+        return new StoneCounter(initialStones, true).blink(blinks).total();
+    }
+
+    /**
+     * One line of {@code size} stones of up to seven digits.
+     */
+    static List<String> generate(int size, Random random) {
+        return List.of(IntStream.range(0, size).mapToObj(i -> String.valueOf(random.nextInt(10_000_000))).collect(Collectors.joining(" ")));
+    }
+}
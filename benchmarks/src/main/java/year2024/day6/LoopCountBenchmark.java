@@ -0,0 +1,114 @@
+package year2024.day6;
+
+import benchmarks.Inputs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoopCountBenchmark {
+    @Param({"example", "synthetic:130", "synthetic:400"})
+    String input;
+
+    Grid grid;
+
+    @Setup
+    public void setup() {
+        grid = Grid.parse(Inputs.lines(LoopCountBenchmark.class, input, LoopCountBenchmark::generate).stream());
+        grid.walk(true);
+    }
+
+    @Benchmark
+    public int loopCount() {
+        return grid.loopCount();
+    }
+
+    @Benchmark
+    public int parallelLoopCount() {
+        return grid.parallelLoopCount(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Square map built around a guard walk of {@code size / 6} turns that leaves the map without looping, plus 1% of
+     * obstacles scattered off the path.
+     */
+    static List<String> generate(int size, Random random) {
+        var obstacles = new boolean[size * size];
+        var path = new boolean[size * size];
+        while (!walk(size, random, obstacles, path)) {
+            Arrays.fill(obstacles, false);
+            Arrays.fill(path, false);
+        }
+        for (int i = 0; i < size * size / 100; i++) {
+            int c = random.nextInt(size * size);
+            obstacles[c] |= !path[c];
+        }
+        List<String> lines = new ArrayList<>();
+        for (int y = 0; y < size; y++) {
+            var line = new StringBuilder();
+            for (int x = 0; x < size; x++) {
+                line.append(x == size / 2 && y == size / 2 ? '^' : obstacles[y * size + x] ? '#' : '.');
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private static boolean walk(int size, Random random, boolean[] obstacles, boolean[] path) {
+        int[] dx = {0, 1, 0, -1};
+        int[] dy = {-1, 0, 1, 0};
+        var seen = new byte[size * size];
+        int x = size / 2;
+        int y = size / 2;
+        int heading = 0;
+        int run = 0;
+        int target = 1 + random.nextInt(size / 3);
+        int turns = 0;
+        while (true) {
+            int c = y * size + x;
+            if ((seen[c] & 1 << heading) != 0) {
+                return false;
+            }
+            seen[c] |= (byte) (1 << heading);
+            path[c] = true;
+            int nx = x + dx[heading];
+            int ny = y + dy[heading];
+            if (nx < 0 || nx >= size || ny < 0 || ny >= size) {
+                return true;
+            }
+            int next = ny * size + nx;
+            if (!obstacles[next] && turns < size / 6 && run >= target && !path[next]) {
+                obstacles[next] = true;
+                ++turns;
+                target = 1 + random.nextInt(size / 3);
+            }
+            if (obstacles[next]) {
+                heading = (heading + 1) & 3;
+                run = 0;
+            } else {
+                x = nx;
+                y = ny;
+                ++run;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package common;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dense grid with one byte per cell, typically the input character itself.
+ */
+public final class ByteGrid extends DenseGrid {
+    private final byte[] cells;
+
+    public ByteGrid(int width, int height, int pad, byte fill) {
+        super(width, height, pad);
+        cells = new byte[size(width, height, pad)];
+        if (fill != 0) {
+            Arrays.fill(cells, fill);
+        }
+    }
+
+    private ByteGrid(ByteGrid other) {
+        super(other.width, other.height, other.pad);
+        cells = other.cells.clone();
+    }
+
+    /**
+     * Parses lines of equal length without a border; use {@link #neighbour(int, int)} to move around.
+     */
+    public static ByteGrid parse(List<String> lines) {
+        return parse(lines, 0, (byte) 0);
+    }
+
+    /**
+     * Parses lines of equal length into a grid surrounded by one cell of {@code border}.
+     */
+    public static ByteGrid padded(List<String> lines, byte border) {
+        return parse(lines, 1, border);
+    }
+
+    public static ByteGrid parse(List<String> lines, int pad, byte border) {
+        int width = lines.isEmpty() ? 0 : lines.get(0).length();
+        var grid = new ByteGrid(width, lines.size(), pad, border);
+        for (int y = 0; y < lines.size(); y++) {
+            var line = lines.get(y);
+            if (line.length() != width) {
+                throw new IllegalArgumentException("ragged grid at line " + y);
+            }
+            int i = grid.index(0, y);
+            for (int x = 0; x < width; x++) {
+                grid.cells[i + x] = (byte) line.charAt(x);
+            }
+        }
+        return grid;
+    }
+
+    public ByteGrid copy() {
+        return new ByteGrid(this);
+    }
+
+    public byte get(int x, int y) {
+        checkBounds(x, y);
+        return cells[index(x, y)];
+    }
+
+    public byte getOrDefault(int x, int y, byte outside) {
+        return contains(x, y) ? cells[index(x, y)] : outside;
+    }
+
+    public void set(int x, int y, byte value) {
+        checkBounds(x, y);
+        cells[index(x, y)] = value;
+    }
+
+    public byte at(int index) {
+        return cells[index];
+    }
+
+    public void put(int index, byte value) {
+        cells[index] = value;
+    }
+
+    /**
+     * Returns the index of the first real cell holding {@code value}, or -1.
+     */
+    public int indexOf(byte value) {
+        for (int y = 0; y < height; y++) {
+            int i = index(0, y);
+            for (int x = 0; x < width; x++, i++) {
+                if (cells[i] == value) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public int count(byte value) {
+        int n = 0;
+        for (int y = 0; y < height; y++) {
+            int i = index(0, y);
+            for (int x = 0; x < width; x++, i++) {
+                if (cells[i] == value) {
+                    ++n;
+                }
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,160 @@
+package common;
+
+/**
+ * Geometry shared by the primitive, row-major grids.
+ * <p>
+ * Cells are addressed by a single int index. A grid may be surrounded by a border of {@code pad} sentinel cells on
+ * every side, so that stepping from any real cell in any direction stays within the backing array and no bounds check
+ * is needed. Unpadded grids use {@link #neighbour(int, int)}, which checks bounds instead.
+ * <p>
+ * Directions are numbered clockwise starting at north, so that turning right is {@code (d + 2) & 7} and the four
+ * orthogonal directions are the even numbers.
+ */
+public abstract class DenseGrid {
+    public static final int NORTH = 0;
+    public static final int NORTHEAST = 1;
+    public static final int EAST = 2;
+    public static final int SOUTHEAST = 3;
+    public static final int SOUTH = 4;
+    public static final int SOUTHWEST = 5;
+    public static final int WEST = 6;
+    public static final int NORTHWEST = 7;
+
+    private static final int[] DX = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] DY = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    protected final int width;
+    protected final int height;
+    protected final int pad;
+    protected final int stride;
+    private final int[] offsets = new int[8];
+
+    protected DenseGrid(int width, int height, int pad) {
+        if (width < 0 || height < 0 || pad < 0) {
+            throw new IllegalArgumentException("negative grid dimension");
+        }
+        this.width = width;
+        this.height = height;
+        this.pad = pad;
+        this.stride = width + 2 * pad;
+        for (int d = 0; d < 8; d++) {
+            offsets[d] = DY[d] * stride + DX[d];
+        }
+    }
+
+    protected static int size(int width, int height, int pad) {
+        return Math.multiplyExact(width + 2 * pad, height + 2 * pad);
+    }
+
+    public static int dx(int direction) {
+        return DX[direction];
+    }
+
+    public static int dy(int direction) {
+        return DY[direction];
+    }
+
+    public static int right(int direction) {
+        return (direction + 2) & 7;
+    }
+
+    public static int left(int direction) {
+        return (direction + 6) & 7;
+    }
+
+    public static int opposite(int direction) {
+        return (direction + 4) & 7;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int pad() {
+        return pad;
+    }
+
+    public int stride() {
+        return stride;
+    }
+
+    public int size() {
+        return size(width, height, pad);
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean contains(int index) {
+        return index >= 0 && index < size() && contains(x(index), y(index));
+    }
+
+    public int index(int x, int y) {
+        return (y + pad) * stride + x + pad;
+    }
+
+    public int x(int index) {
+        return index % stride - pad;
+    }
+
+    public int y(int index) {
+        return index / stride - pad;
+    }
+
+    public int offset(int direction) {
+        return offsets[direction];
+    }
+
+    /**
+     * Unchecked step; only safe on padded grids, or when the caller knows the target is inside the grid.
+     */
+    public int step(int index, int direction) {
+        return index + offsets[direction];
+    }
+
+    /**
+     * Bounds-checked step; returns -1 when the neighbour lies outside the grid.
+     */
+    public int neighbour(int index, int direction) {
+        int x = x(index) + DX[direction];
+        int y = y(index) + DY[direction];
+        return contains(x, y) ? index + offsets[direction] : -1;
+    }
+
+    /**
+     * Stores the in-bounds orthogonal neighbours of a cell in {@code out} and returns how many there are.
+     */
+    public int neighbours(int index, int[] out) {
+        return neighbours(index, out, 2);
+    }
+
+    /**
+     * Stores the in-bounds orthogonal and diagonal neighbours of a cell in {@code out} and returns how many there are.
+     */
+    public int allNeighbours(int index, int[] out) {
+        return neighbours(index, out, 1);
+    }
+
+    private int neighbours(int index, int[] out, int increment) {
+        int x = x(index);
+        int y = y(index);
+        int n = 0;
+        for (int d = 0; d < 8; d += increment) {
+            if (contains(x + DX[d], y + DY[d])) {
+                out[n++] = index + offsets[d];
+            }
+        }
+        return n;
+    }
+
+    protected void checkBounds(int x, int y) {
+        if (!contains(x, y)) {
+            throw new IndexOutOfBoundsException("(" + x + "," + y + ") outside " + width + "x" + height + " grid");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package common;
+
+import java.util.Arrays;
+
+/**
+ * Dense grid with one int per cell, for heights, distances and the like.
+ */
+public final class IntGrid extends DenseGrid {
+    private final int[] cells;
+
+    public IntGrid(int width, int height, int pad, int fill) {
+        super(width, height, pad);
+        cells = new int[size(width, height, pad)];
+        if (fill != 0) {
+            Arrays.fill(cells, fill);
+        }
+    }
+
+    private IntGrid(IntGrid other) {
+        super(other.width, other.height, other.pad);
+        cells = other.cells.clone();
+    }
+
+    public IntGrid copy() {
+        return new IntGrid(this);
+    }
+
+    public int get(int x, int y) {
+        checkBounds(x, y);
+        return cells[index(x, y)];
+    }
+
+    public int getOrDefault(int x, int y, int outside) {
+        return contains(x, y) ? cells[index(x, y)] : outside;
+    }
+
+    public void set(int x, int y, int value) {
+        checkBounds(x, y);
+        cells[index(x, y)] = value;
+    }
+
+    public int at(int index) {
+        return cells[index];
+    }
+
+    public void put(int index, int value) {
+        cells[index] = value;
+    }
+
+    public void fill(int value) {
+        Arrays.fill(cells, value);
+    }
+}
@@ -0,0 +1,66 @@
+package common;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of longs, typically two packed coordinates, without boxing.
+ */
+public final class LongSet {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private long[] table = new long[16];
+    private int size = 0;
+
+    public LongSet() {
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Packs two ints into one long, {@code x} in the high half.
+     */
+    public static long pack(int x, int y) {
+        return (long) x << 32 | y & 0xffffffffL;
+    }
+
+    private int slot(long value) {
+        int mask = table.length - 1;
+        int i = Long.hashCode(value * 0x9e3779b97f4a7c15L) & mask;
+        while (table[i] != EMPTY && table[i] != value) {
+            i = i + 1 & mask;
+        }
+        return i;
+    }
+
+    public boolean contains(long value) {
+        return table[slot(value)] == value;
+    }
+
+    /**
+     * Adds a value other than {@link Long#MIN_VALUE}; returns whether it was new.
+     */
+    public boolean add(long value) {
+        int i = slot(value);
+        if (table[i] == value) {
+            return false;
+        }
+        table[i] = value;
+        if (++size * 2 > table.length) {
+            var old = table;
+            table = new long[old.length * 2];
+            Arrays.fill(table, EMPTY);
+            for (long v : old) {
+                if (v != EMPTY) {
+                    table[slot(v)] = v;
+                }
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] values() {
+        return Arrays.stream(table).filter(v -> v != EMPTY).toArray();
+    }
+}
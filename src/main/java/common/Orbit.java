@@ -0,0 +1,105 @@
+package common;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Times at which an eventually periodic process is in a state of interest: absolute times before {@code tail}, and
+ * absolute times in the first cycle, which repeat every {@code period}. Both arrays are sorted.
+ */
+public record Orbit(long tail, long period, long[] tailHits, long[] cycleHits) {
+    /**
+     * Orbit of a process whose states repeat from {@code tail} on with the given period, hit at the sorted times
+     * {@code hits}, all before {@code tail + period}.
+     */
+    public static Orbit of(long tail, long period, long[] hits) {
+        int split = 0;
+        while (split < hits.length && hits[split] < tail) {
+            ++split;
+        }
+        return new Orbit(tail, period, Arrays.copyOf(hits, split), Arrays.copyOfRange(hits, split, hits.length));
+    }
+
+    public boolean isHit(long time) {
+        if (time < tail) {
+            return Arrays.binarySearch(tailHits, time) >= 0;
+        }
+        return Arrays.binarySearch(cycleHits, tail + (time - tail) % period) >= 0;
+    }
+
+    public boolean isEmpty() {
+        return tailHits.length == 0 && cycleHits.length == 0;
+    }
+
+    long[] hitsBefore(long bound) {
+        var times = LongStream.of(tailHits).filter(t -> t < bound);
+        if (cycleHits.length > 0) {
+            times = LongStream.concat(times, LongStream.iterate(0, c -> tail + c * period < bound, c -> c + 1)
+                    .flatMap(c -> LongStream.of(cycleHits).map(h -> h + c * period))
+                    .filter(t -> t < bound));
+        }
+        return times.toArray();
+    }
+
+    List<Residue> residues() {
+        var modulus = BigInteger.valueOf(period);
+        return LongStream.of(cycleHits).mapToObj(h -> new Residue(BigInteger.valueOf(h).mod(modulus), modulus)).toList();
+    }
+
+    /**
+     * First time at which every orbit is hit at once, or null if there is none. Times before the longest tail are
+     * checked directly against the first orbit's hits; after it every orbit is periodic and the hit residues are merged
+     * with the generalised Chinese remainder theorem.
+     */
+    public static BigInteger firstCommonHit(List<Orbit> orbits) {
+        if (orbits.isEmpty() || orbits.stream().anyMatch(Orbit::isEmpty)) {
+            return null;
+        }
+        long bound = orbits.stream().mapToLong(Orbit::tail).max().orElseThrow();
+        var first = orbits.getFirst();
+        for (long time : first.hitsBefore(bound)) {
+            if (orbits.stream().allMatch(o -> o.isHit(time))) {
+                return BigInteger.valueOf(time);
+            }
+        }
+        var residues = first.residues();
+        for (var orbit : orbits.subList(1, orbits.size())) {
+            var merged = new ArrayList<Residue>();
+            for (var a : residues) {
+                for (var b : orbit.residues()) {
+                    var c = a.merge(b);
+                    if (c != null) {
+                        merged.add(c);
+                    }
+                }
+            }
+            residues = merged;
+        }
+        var from = BigInteger.valueOf(bound);
+        return residues.stream()
+                .map(r -> from.add(r.value().subtract(from).mod(r.modulus())))
+                .min(BigInteger::compareTo)
+                .orElse(null);
+    }
+
+    record Residue(BigInteger value, BigInteger modulus) {
+        /**
+         * The common solution of both congruences, or null if there is none.
+         */
+        Residue merge(Residue other) {
+            var g = modulus.gcd(other.modulus);
+            var difference = other.value.subtract(value);
+            if (difference.mod(g).signum() != 0) {
+                return null;
+            }
+            var m = modulus.divide(g);
+            var n = other.modulus.divide(g);
+            var k = n.equals(BigInteger.ONE) ? BigInteger.ZERO : difference.divide(g).multiply(m.modInverse(n)).mod(n);
+            var lcm = m.multiply(other.modulus);
+            return new Residue(value.add(modulus.multiply(k)).mod(lcm), lcm);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package common;
+
+import java.util.Arrays;
+
+/**
+ * Closed polygon with edges between lattice points, given by its vertices in order. Collinear vertices are fine, so a
+ * loop of unit steps can be passed as is. Area and point counts work for any edges; {@link #interiorCells()} needs
+ * rectilinear ones.
+ */
+public final class Polygon {
+    private final long[] xs;
+    private final long[] ys;
+
+    public Polygon(long[] xs, long[] ys) {
+        if (xs.length != ys.length || xs.length == 0) {
+            throw new IllegalArgumentException("need matching, non-empty coordinate arrays");
+        }
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Twice the enclosed area, by the shoelace formula. Vertices are taken relative to the first one to keep the
+     * products small, and overflow throws instead of wrapping.
+     */
+    public long doubleArea() {
+        long sum = 0;
+        for (int i = 0; i < xs.length; i++) {
+            int j = i + 1 == xs.length ? 0 : i + 1;
+            long x1 = xs[i] - xs[0];
+            long y1 = ys[i] - ys[0];
+            long x2 = xs[j] - xs[0];
+            long y2 = ys[j] - ys[0];
+            sum = Math.addExact(sum, Math.subtractExact(Math.multiplyExact(x1, y2), Math.multiplyExact(y1, x2)));
+        }
+        return Math.abs(sum);
+    }
+
+    /**
+     * Lattice points on the edges.
+     */
+    public long boundary() {
+        long boundary = 0;
+        for (int i = 0; i < xs.length; i++) {
+            int j = i + 1 == xs.length ? 0 : i + 1;
+            boundary += gcd(Math.abs(xs[j] - xs[i]), Math.abs(ys[j] - ys[i]));
+        }
+        return boundary;
+    }
+
+    /**
+     * Lattice points strictly inside, by Pick's theorem: A = I + B / 2 - 1.
+     */
+    public long interior() {
+        return (doubleArea() - boundary()) / 2 + 1;
+    }
+
+    /**
+     * Lattice points inside or on the edges.
+     */
+    public long enclosed() {
+        return interior() + boundary();
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Cells of a bounding box as bits, one row of words per y.
+     */
+    public record Cells(long[] bits, long minX, long minY, int width, int height) {
+        int stride() {
+            return (width + 63) >> 6;
+        }
+
+        public boolean contains(long x, long y) {
+            if (x < minX || x >= minX + width || y < minY || y >= minY + height) {
+                return false;
+            }
+            int column = (int) (x - minX);
+            return (bits[(int) (y - minY) * stride() + (column >> 6)] & 1L << column) != 0;
+        }
+
+        public long count() {
+            return Arrays.stream(bits).map(Long::bitCount).sum();
+        }
+    }
+
+    /**
+     * Lattice points strictly inside, found by a parity scan of each row of the bounding box. Every edge must be
+     * rectilinear; a diagonal edge is rejected with an {@link IllegalArgumentException}. A boundary point toggles the
+     * parity of the points to its right when the boundary leaves it northwards, so a row is its toggles prefix-XORed a
+     * word at a time, minus the boundary.
+     */
+    public Cells interiorCells() {
+        long minX = Arrays.stream(xs).min().orElseThrow();
+        long minY = Arrays.stream(ys).min().orElseThrow();
+        long width = Arrays.stream(xs).max().orElseThrow() - minX + 1;
+        long height = Arrays.stream(ys).max().orElseThrow() - minY + 1;
+        if (width * height > Integer.MAX_VALUE) {
+            throw new IllegalStateException("polygon too large to fill");
+        }
+        int stride = (int) ((width + 63) >> 6);
+        var toggles = new long[(int) height * stride];
+        var edges = new long[toggles.length];
+        for (int i = 0; i < xs.length; i++) {
+            int j = i + 1 == xs.length ? 0 : i + 1;
+            int x1 = (int) (xs[i] - minX);
+            int y1 = (int) (ys[i] - minY);
+            int x2 = (int) (xs[j] - minX);
+            int y2 = (int) (ys[j] - minY);
+            if (x1 == x2) {
+                for (int y = Math.min(y1, y2); y <= Math.max(y1, y2); y++) {
+                    edges[y * stride + (x1 >> 6)] |= 1L << x1;
+                    if (y > Math.min(y1, y2)) {
+                        toggles[y * stride + (x1 >> 6)] ^= 1L << x1;
+                    }
+                }
+            } else if (y1 == y2) {
+                for (int x = Math.min(x1, x2); x <= Math.max(x1, x2); x++) {
+                    edges[y1 * stride + (x >> 6)] |= 1L << x;
+                }
+            } else {
+                throw new IllegalArgumentException("interiorCells needs rectilinear edges, got (" + xs[i] + ","
+                        + ys[i] + ")-(" + xs[j] + "," + ys[j] + ")");
+            }
+        }
+        var inside = new long[toggles.length];
+        for (int y = 0; y < height; y++) {
+            long carry = 0;
+            for (int w = 0; w < stride; w++) {
+                int i = y * stride + w;
+                long parity = toggles[i];
+                for (int shift = 1; shift < 64; shift <<= 1) {
+                    parity ^= parity << shift;
+                }
+                parity ^= carry;
+                carry = parity >> 63;
+                inside[i] = parity & ~edges[i];
+            }
+        }
+        return new Cells(inside, minX, minY, (int) width, (int) height);
+    }
+}
@@ -0,0 +1,277 @@
+package common;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs every year/day it can find and writes a JSON timing report.
+ * <p>
+ * Days are looked up by convention as {@code yearNNNN.dayN.Puzzle} or {@code yearNNNN.dayN.DayN}, whichever
+ * implements {@link Solver}. Input parsing and each part are timed separately.
+ * <p>
+ * Usage: {@code Runner [-w warmup] [-i iterations] [-o report.json] [year[/day]...]}
+ */
+public class Runner {
+    static final int FIRST_YEAR = 2015;
+    static final int LAST_YEAR = 2030;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final int warmup;
+    private final int iterations;
+
+    Runner(int warmup, int iterations) {
+        this.warmup = warmup;
+        this.iterations = iterations;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int warmup = 1;
+        int iterations = 3;
+        Path report = Path.of("timings.json");
+        List<String> filters = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-w" -> warmup = Integer.parseInt(args[++i]);
+                case "-i" -> iterations = Integer.parseInt(args[++i]);
+                case "-o" -> report = Path.of(args[++i]);
+                default -> filters.add(args[i]);
+            }
+        }
+        if (warmup < 0 || iterations < 1) {
+            throw new IllegalArgumentException("need warmup >= 0 and iterations >= 1");
+        }
+        var runner = new Runner(warmup, iterations);
+        var results = new ArrayList<DayResult>();
+        for (var day : Day.discover(filters)) {
+            var result = runner.run(day);
+            System.out.println(result.summary());
+            results.add(result);
+        }
+        Files.writeString(report, json(warmup, iterations, results));
+        System.out.println("wrote " + report);
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+    static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    DayResult run(Day day) {
+        var parse = new Stats("parse");
+        var parts = new ArrayList<Stats>();
+        try {
+            for (int i = 0; i < warmup + iterations; i++) {
+                boolean measured = i >= warmup;
+                var solver = measure(measured ? parse : null, day::instantiate);
+                var answers = day.parts(solver);
+                for (int p = 0; p < answers.size(); p++) {
+                    if (parts.size() == p) {
+                        parts.add(new Stats("part" + (p + 1)));
+                    }
+                    measure(measured ? parts.get(p) : null, answers.get(p));
+                }
+            }
+            return new DayResult(day, parse, parts, null);
+        } catch (Exception e) {
+            var cause = e instanceof InvocationTargetException ite && ite.getCause() != null ? ite.getCause() : e;
+            return new DayResult(day, parse, parts, cause.toString());
+        }
+    }
+
+    private static <T> T measure(Stats stats, Callable<T> task) throws Exception {
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        T result = task.call();
+        long elapsed = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        if (stats != null) {
+            stats.add(elapsed, allocated, result);
+        }
+        return result;
+    }
+
+    static String hash(Object result) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(String.valueOf(result).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String json(int warmup, int iterations, List<DayResult> results) {
+        var sb = new StringBuilder();
+        sb.append("{\n  \"warmup\": ").append(warmup)
+                .append(",\n  \"iterations\": ").append(iterations)
+                .append(",\n  \"days\": [");
+        for (int i = 0; i < results.size(); i++) {
+            sb.append(i == 0 ? "\n" : ",\n");
+            results.get(i).json(sb);
+        }
+        sb.append("\n  ]\n}\n");
+        return sb.toString();
+    }
+
+    static String quote(String s) {
+        var sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    record Day(int year, int day, Class<?> type) {
+        static List<Day> discover(List<String> filters) {
+            List<Day> days = new ArrayList<>();
+            for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+                for (int day = 1; day <= 25; day++) {
+                    if (selected(filters, year, day)) {
+                        find(year, day, days);
+                    }
+                }
+            }
+            return days;
+        }
+
+        private static boolean selected(List<String> filters, int year, int day) {
+            return filters.isEmpty() || filters.contains(String.valueOf(year)) || filters.contains(year + "/" + day);
+        }
+
+        private static void find(int year, int day, List<Day> days) {
+            var prefix = "year" + year + ".day" + day + ".";
+            for (var name : List.of("Puzzle", "Day" + day)) {
+                try {
+                    var type = Class.forName(prefix + name, false, Runner.class.getClassLoader());
+                    if (Solver.class.isAssignableFrom(type) && !Modifier.isAbstract(type.getModifiers())) {
+                        days.add(new Day(year, day, type));
+                        return;
+                    }
+                } catch (ClassNotFoundException e) {
+                    // not this name
+                }
+            }
+        }
+
+        Solver instantiate() throws ReflectiveOperationException {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return (Solver) constructor.newInstance();
+        }
+
+        List<Callable<Object>> parts(Solver solver) {
+            return List.of(solver::part1, solver::part2);
+        }
+    }
+
+    static final class Stats {
+        final String name;
+        final List<Long> nanos = new ArrayList<>();
+        final List<Long> bytes = new ArrayList<>();
+        String hash;
+        boolean stable = true;
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        void add(long elapsed, long allocated, Object result) {
+            nanos.add(elapsed);
+            bytes.add(allocated);
+            var h = hash(result);
+            if (hash != null && !hash.equals(h)) {
+                stable = false;
+            }
+            hash = h;
+        }
+
+        long min() {
+            return nanos.stream().mapToLong(l -> l).min().orElse(0);
+        }
+
+        long mean() {
+            return (long) nanos.stream().mapToLong(l -> l).average().orElse(0);
+        }
+
+        long meanBytes() {
+            return (long) bytes.stream().mapToLong(l -> l).average().orElse(0);
+        }
+
+        void json(StringBuilder sb, String indent, boolean withHash) {
+            sb.append(indent).append("{\"name\": ").append(quote(name))
+                    .append(", \"minNanos\": ").append(min())
+                    .append(", \"meanNanos\": ").append(mean())
+                    .append(", \"meanAllocatedBytes\": ").append(meanBytes());
+            if (withHash) {
+                sb.append(", \"hash\": ").append(hash == null ? "null" : quote(hash))
+                        .append(", \"stable\": ").append(stable);
+            }
+            sb.append('}');
+        }
+    }
+
+    record DayResult(Day day, Stats parse, List<Stats> parts, String error) {
+        String summary() {
+            var sb = new StringBuilder(String.format(Locale.ROOT, "%d/%-2d", day.year(), day.day()));
+            if (error != null) {
+                return sb.append(" error: ").append(error).toString();
+            }
+            sb.append(String.format(Locale.ROOT, " parse %9.3f ms", parse.mean() / 1e6));
+            for (var part : parts) {
+                sb.append(String.format(Locale.ROOT, " %s %9.3f ms %s", part.name, part.mean() / 1e6, part.hash));
+            }
+            return sb.toString();
+        }
+
+        void json(StringBuilder sb) {
+            sb.append("    {\"year\": ").append(day.year())
+                    .append(", \"day\": ").append(day.day())
+                    .append(", \"class\": ").append(quote(day.type().getName()));
+            if (error != null) {
+                sb.append(", \"error\": ").append(quote(error));
+            }
+            sb.append(",\n      \"parse\": ");
+            parse.json(sb, "", false);
+            sb.append(",\n      \"parts\": [");
+            for (int i = 0; i < parts.size(); i++) {
+                sb.append(i == 0 ? "\n" : ",\n");
+                parts.get(i).json(sb, "        ", true);
+            }
+            sb.append("\n      ]}");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package common;
+
+/**
+ * A day's puzzle, constructed with its input already loaded.
+ * <p>
+ * {@link #part2()} is always called after {@link #part1()} on the same instance, so a solver may reuse state that the
+ * first part left behind. The runner constructs a fresh instance for every iteration. A day without a second answer
+ * returns null from {@link #part2()}, which {@link #solve()} then leaves out.
+ */
+public interface Solver {
+    Object part1();
+
+    Object part2();
+
+    default void solve() {
+        System.out.println(part1());
+        var second = part2();
+        if (second != null) {
+            System.out.println(second);
+        }
+    }
+}
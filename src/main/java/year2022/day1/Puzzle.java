@@ -1,5 +1,7 @@
 package year2022.day1;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -7,7 +9,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     private final List<List<Integer>> calories;
 
@@ -20,9 +22,14 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(maxCalories(1));
-        System.out.println(maxCalories(3));
+    @Override
+    public Object part1() {
+        return maxCalories(1);
+    }
+
+    @Override
+    public Object part2() {
+        return maxCalories(3);
     }
 
     int maxCalories(long n) {
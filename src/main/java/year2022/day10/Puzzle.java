@@ -1,11 +1,13 @@
 package year2022.day10;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.List;
 import java.util.Objects;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final List<String> instructions;
 
     Puzzle() throws Exception {
@@ -18,11 +20,20 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
+    Computer run() {
         var computer = new Computer();
         instructions.forEach(computer::execute);
-        System.out.println(computer.totalSignalStrength);
-        System.out.println(computer.display());
+        return computer;
+    }
+
+    @Override
+    public Object part1() {
+        return run().totalSignalStrength;
+    }
+
+    @Override
+    public Object part2() {
+        return run().display();
     }
 }
 
@@ -1,5 +1,7 @@
 package year2022.day11;
 
+import common.Solver;
+
 import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -15,7 +17,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     final List<String> blocks;
 
     Puzzle() throws Exception {
@@ -27,9 +29,14 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(Monkeys.from(blocks, false).business());
-        System.out.println(Monkeys.from(blocks, true).business());
+    @Override
+    public Object part1() {
+        return Monkeys.from(blocks, false).business();
+    }
+
+    @Override
+    public Object part2() {
+        return Monkeys.from(blocks, true).business();
     }
 }
 
@@ -1,138 +1,82 @@
 package year2022.day12;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.IntGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
-import java.util.PriorityQueue;
-import java.util.Set;
-import java.util.function.Function;
 
-public class Puzzle {
-    final Coordinate start;
-    final Coordinate end;
-    final Map<Coordinate, Integer> grid = new HashMap<>();
+public class Puzzle implements Solver {
+    static final byte BORDER = Byte.MIN_VALUE;
+
+    final int start;
+    final int end;
+    final ByteGrid grid;
 
     Puzzle() throws Exception {
-        Coordinate start = null;
-        Coordinate end = null;
         try (var reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day12_input"))))) {
-            int y = 0;
-            for (String line : reader.lines().toList()) {
-                for (int x = 0; x < line.length(); x++) {
-                    final var c = line.charAt(x);
-                    final int height;
-                    var coordinate = new Coordinate(x, y);
-                    if (c == 'S') {
-                        start = coordinate;
-                        height = 0;
-                    } else if (c == 'E') {
-                        end = coordinate;
-                        height = 'z' - 'a';
-                    } else {
-                        height = c - 'a';
-                    }
-                    grid.put(coordinate, height);
-                }
-                ++y;
+            grid = ByteGrid.padded(reader.lines().toList(), BORDER);
+        }
+        start = grid.indexOf((byte) 'S');
+        end = grid.indexOf((byte) 'E');
+        if (start == -1 || end == -1) {
+            throw new IllegalStateException("missing start or end");
+        }
+        for (int y = 0; y < grid.height(); y++) {
+            for (int i = grid.index(0, y), x = 0; x < grid.width(); x++, i++) {
+                grid.put(i, (byte) switch (grid.at(i)) {
+                    case 'S' -> 0;
+                    case 'E' -> 'z' - 'a';
+                    default -> grid.at(i) - 'a';
+                });
             }
         }
-        this.start = Objects.requireNonNull(start);
-        this.end = Objects.requireNonNull(end);
     }
 
     public static void main(String[] args) throws Exception {
         new Puzzle().solve();
     }
 
-    void solve() {
-        var distanceMap = distanceMap();
-        System.out.println(distanceMap.get(start));
-        System.out.println(distanceMap.values().stream().mapToInt(i -> i).min().orElseThrow());
+    @Override
+    public Object part1() {
+        return distanceMap().at(start);
     }
 
-    Map<Coordinate, Integer> distanceMap() {
-        Map<Coordinate, Integer> distanceMap = new HashMap<>();
-        var queue = new PriorityQueue<ND>();
-        Set<CH> visited = new HashSet<>();
-        queue.add(new ND(new CH(end, null), 0));
-        while (!queue.isEmpty()) {
-            var current = queue.remove();
-            var currentPos = current.ch().coordinate();
-            if (grid.get(currentPos) == 0) {
-                if (!distanceMap.containsKey(currentPos)) {
-                    distanceMap.put(currentPos, current.distance());
+    @Override
+    public Object part2() {
+        var distanceMap = distanceMap();
+        int min = Integer.MAX_VALUE;
+        for (int y = 0; y < grid.height(); y++) {
+            for (int i = grid.index(0, y), x = 0; x < grid.width(); x++, i++) {
+                if (grid.at(i) == 0 && distanceMap.at(i) != -1) {
+                    min = Math.min(min, distanceMap.at(i));
                 }
             }
-            var currentHeight = grid.get(currentPos);
-            for (var heading : Heading.values()) {
-                var nextPos = currentPos.move(heading);
-                var nextHeight = grid.get(nextPos);
-                if (nextHeight != null && nextHeight >= currentHeight - 1) {
-                    var ch = new CH(nextPos, heading);
-                    if (!visited.contains(ch)) {
-                        visited.add(ch);
-                        queue.add(new ND(ch, current.distance() + 1));
-                    }
+        }
+        return min;
+    }
+
+    IntGrid distanceMap() {
+        var distanceMap = new IntGrid(grid.width(), grid.height(), grid.pad(), -1);
+        var queue = new int[grid.width() * grid.height()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = end;
+        distanceMap.put(end, 0);
+        while (head < tail) {
+            var current = queue[head++];
+            var currentHeight = grid.at(current);
+            for (int heading = DenseGrid.NORTH; heading < 8; heading += 2) {
+                var next = grid.step(current, heading);
+                if (grid.at(next) >= currentHeight - 1 && distanceMap.at(next) == -1) {
+                    distanceMap.put(next, distanceMap.at(current) + 1);
+                    queue[tail++] = next;
                 }
             }
-
         }
         return distanceMap;
     }
 }
-
-record ND(CH ch, int distance) implements Comparable<ND> {
-    @Override
-    public int compareTo(ND o) {
-        return distance == o.distance ? ch.compareTo(o.ch) : Integer.compare(distance, o.distance);
-    }
-}
-
-enum Heading {
-    NORTH(Coordinate::north), SOUTH(Coordinate::south), WEST(Coordinate::west), EAST(Coordinate::east);
-
-    final Function<Coordinate, Coordinate> mover;
-
-    Heading(Function<Coordinate, Coordinate> mover) {
-        this.mover = mover;
-    }
-}
-
-record CH(Coordinate coordinate, Heading heading) implements Comparable<CH> {
-
-    @Override
-    public int compareTo(CH o) {
-        var comparison = coordinate.compareTo(o.coordinate);
-        return comparison == 0 ? heading.compareTo(o.heading) : comparison;
-    }
-}
-
-record Coordinate(int x, int y) implements Comparable<Coordinate> {
-    Coordinate north() {
-        return new Coordinate(x, y - 1);
-    }
-
-    Coordinate south() {
-        return new Coordinate(x, y + 1);
-    }
-
-    Coordinate west() {
-        return new Coordinate(x - 1, y);
-    }
-
-    Coordinate east() {
-        return new Coordinate(x + 1, y);
-    }
-
-    Coordinate move(Heading heading) {
-        return heading.mover.apply(this);
-    }
-
-    @Override
-    public int compareTo(Coordinate o) {
-        return y == o.y ? Integer.compare(x, o.x) : Integer.compare(y, o.y);
-    }
-}
@@ -1,5 +1,7 @@
 package year2022.day13;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -9,7 +11,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     final List<Pair> pairs;
 
     Puzzle() throws Exception {
@@ -21,12 +23,8 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    int part1() {
+    @Override
+    public Object part1() {
         int total = 0;
         for (int i = 0; i < pairs.size(); i++) {
             if (pairs.get(i).isSorted()) {
@@ -36,7 +34,8 @@ public class Puzzle {
         return total;
     }
 
-    int part2() {
+    @Override
+    public Object part2() {
         final Pair divider = Pair.from("""
                 [[2]]
                 [[6]]
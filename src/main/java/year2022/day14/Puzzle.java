@@ -1,5 +1,7 @@
 package year2022.day14;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.Collection;
@@ -10,28 +12,45 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
+    static final int SOURCE_X = 500;
+
     final Set<Coordinate> walls = new HashSet<>();
     final int maxY;
+    final SandSimulator simulator;
 
     Puzzle() throws Exception {
-        try (var reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day14_input"))))) {
-            walls.addAll(reader.lines().flatMap(l -> Coordinate.wall(l).stream()).collect(Collectors.toSet()));
-        }
+        this(input());
+    }
+
+    Puzzle(List<String> lines) {
+        walls.addAll(lines.stream().flatMap(l -> Coordinate.wall(l).stream()).collect(Collectors.toSet()));
         maxY = walls.stream().mapToInt(Coordinate::y).max().orElseThrow();
+        simulator = new SandSimulator(walls, maxY);
+    }
+
+    static List<String> input() throws Exception {
+        try (var reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(Puzzle.class.getResourceAsStream("day14_input"))))) {
+            return reader.lines().toList();
+        }
     }
 
     public static void main(String[] args) throws Exception {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(units(false));
-        System.out.println(units(true));
+    @Override
+    public Object part1() {
+        return simulator.units(false);
+    }
+
+    @Override
+    public Object part2() {
+        return simulator.fill();
     }
 
     boolean drop(Set<Coordinate> sand, boolean floor) {
-        var unit = new Coordinate(500, 0);
+        var unit = new Coordinate(SOURCE_X, 0);
         if (sand.contains(unit)) {
             return false;
         }
@@ -65,6 +84,95 @@ public class Puzzle {
     }
 }
 
+/**
+ * Cave as a bitset, one row of words per y, wide enough for everything the sand can reach above the floor. Grains
+ * are dropped along a stack holding the previous grain's path, so each one starts where the last one came to rest.
+ */
+class SandSimulator {
+    private final int maxY;
+    private final int left;
+    private final int words;
+    private final long[] walls;
+
+    SandSimulator(Set<Coordinate> walls, int maxY) {
+        this.maxY = maxY;
+        left = Puzzle.SOURCE_X - maxY - 3;
+        words = (2 * maxY + 7 + 63) / 64;
+        this.walls = new long[(maxY + 2) * words];
+        walls.forEach(wall -> {
+            int x = wall.x() - left;
+            if (x >= 0 && x < words * 64) {
+                this.walls[wall.y() * words + (x >> 6)] |= 1L << x;
+            }
+        });
+    }
+
+    private boolean blocked(long[] cave, int x, int y) {
+        return (cave[y * words + (x >> 6)] & 1L << x) != 0;
+    }
+
+    /**
+     * Units of sand that come to rest, either before the first one falls into the abyss or until the source is
+     * blocked.
+     */
+    int units(boolean floor) {
+        var cave = walls.clone();
+        var stack = new int[2 * (maxY + 2)];
+        int depth = 0;
+        int units = 0;
+        stack[depth++] = Puzzle.SOURCE_X - left;
+        stack[depth++] = 0;
+        while (depth > 0) {
+            int x = stack[depth - 2];
+            int y = stack[depth - 1];
+            if (!floor && y == maxY) {
+                break;
+            }
+            if (y <= maxY) {
+                int next = !blocked(cave, x, y + 1) ? x : !blocked(cave, x - 1, y + 1) ? x - 1 : !blocked(cave, x + 1, y + 1) ? x + 1 : -1;
+                if (next != -1) {
+                    stack[depth++] = next;
+                    stack[depth++] = y + 1;
+                    continue;
+                }
+            }
+            cave[y * words + (x >> 6)] |= 1L << x;
+            depth -= 2;
+            ++units;
+        }
+        return units;
+    }
+
+    /**
+     * Units of sand with a floor, counted row by row: a cell fills when it is not a wall and one of the three cells
+     * above it is filled.
+     */
+    int fill() {
+        var row = new long[words];
+        var next = new long[words];
+        int x = Puzzle.SOURCE_X - left;
+        row[x >> 6] = 1L << x;
+        int units = 1;
+        for (int y = 1; y <= maxY + 1; y++) {
+            for (int i = 0; i < words; i++) {
+                long spread = row[i] | row[i] << 1 | row[i] >>> 1;
+                if (i > 0) {
+                    spread |= row[i - 1] >>> 63;
+                }
+                if (i + 1 < words) {
+                    spread |= row[i + 1] << 63;
+                }
+                next[i] = spread & ~walls[y * words + i];
+                units += Long.bitCount(next[i]);
+            }
+            var swap = row;
+            row = next;
+            next = swap;
+        }
+        return units;
+    }
+}
+
 record Coordinate(int x, int y) {
     @Override
     public String toString() {
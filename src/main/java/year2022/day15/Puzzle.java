@@ -1,20 +1,30 @@
 package year2022.day15;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
-import java.util.function.Predicate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private static final Pattern PATTERN = Pattern.compile("Sensor at (.*): closest beacon is at (.*)");
+    static final int ROW = 2000000;
+    static final int LIMIT = 4000000;
     final Set<Coordinate> beacons = new HashSet<>();
     final Set<Sensor> sensors = new HashSet<>();
+    final CoverageSweep sweep;
 
     Puzzle() throws Exception {
         try (var reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day15_input"))))) {
@@ -29,97 +39,241 @@ public class Puzzle {
                 sensors.add(sensor);
             });
         }
+        sweep = new CoverageSweep(sensors);
     }
 
     public static void main(String[] args) throws Exception {
         new Puzzle().solve();
     }
 
-    SortedSet<ClosedInterval> coverage(int y) {
-        return sensors.stream()
-                .map(s -> s.coverage(y))
-                .filter(Objects::nonNull)
-                .<SortedSet<ClosedInterval>>collect(TreeSet::new, ClosedInterval::combine, ClosedInterval::combine);
-    }
-
-    int beaconNotPresent(@SuppressWarnings("SameParameterValue") int y) {
-        return coverage(y)
-                .stream()
-                .mapToInt(ClosedInterval::count)
-                .sum() - (int) beacons.stream().filter(b -> b.y() == y).count();
+    int beaconNotPresent(int y) {
+        return (int) (sweep.covered(y) - beacons.stream().filter(b -> b.y() == y).count());
     }
 
-    long tuningFrequency() {
-        var diagonals = sensors.stream()
-                .flatMap(s1 -> sensors.stream()
-                        .filter(s2 -> s2.position().y() > s1.position().y())
-                        .filter(s2 -> s2.touches(s1))
-                        .map(s2 -> {
-                            var p1 = s1.position();
-                            var p2 = s2.position();
-                            return p2.x() > p1.x() ? new Diagonal(p1.y() + p1.x() + s1.beaconDistance() + 1, false)
-                                    : new Diagonal(p1.y() - p1.x() + s1.beaconDistance() + 1, true);
-                        })
-                ).collect(Collectors.toSet());
-        var intersections = diagonals.stream()
-                .filter(Predicate.not(Diagonal::inverted))
-                .flatMap(d1 -> diagonals.stream()
-                        .filter(Diagonal::inverted)
-                        .filter(d2 -> (d1.total() + d2.total()) % 2 == 0)
-                        .map(d2 -> new Coordinate((d1.total() - d2.total()) / 2, (d1.total() + d2.total()) / 2))
-                ).collect(Collectors.toSet());
-        var missingBeacons = intersections.stream()
-                .filter(c -> c.x() >= 0 && c.x() <= 4000000 && c.y() >= 0 && c.y() <= 4000000)
-                .filter(c -> sensors.stream().allMatch(s -> c.distance(s.position()) > s.beaconDistance()))
-                .collect(Collectors.toSet());
+    /**
+     * The one cell in the square that no sensor covers. Away from the square's border it lies in the gaps between
+     * sensors; only when there is none does the sweep look for it, stopping as soon as a second cell shows up.
+     */
+    long tuningFrequency(int limit) {
+        var missingBeacons = sweep.gaps(0, limit, 0, limit);
+        if (missingBeacons.isEmpty()) {
+            missingBeacons = sweep.uncovered(0, limit, 0, limit, 2, Runtime.getRuntime().availableProcessors());
+        }
         if (missingBeacons.size() != 1) {
-            throw new IllegalStateException("expected exactly one missing beacon, got + " + missingBeacons.size());
+            throw new IllegalStateException("expected exactly one missing beacon, got " + missingBeacons.size());
         }
-        return missingBeacons.iterator().next().tuningFrequency();
+        return missingBeacons.getFirst().tuningFrequency();
+    }
+
+    @Override
+    public Object part1() {
+        return beaconNotPresent(ROW);
     }
 
-    void solve() {
-        System.out.println(beaconNotPresent(2000000));
-        System.out.println(tuningFrequency());
+    @Override
+    public Object part2() {
+        return tuningFrequency(LIMIT);
     }
 }
 
-record Diagonal(int total, boolean inverted) {
-}
+/**
+ * Merged sensor coverage per row. Sensors are kept in an order sorted by where their coverage starts; from one row to
+ * the next each start moves by one, so an insertion sort of the previous order is close to linear. Every endpoint
+ * moves by at most one per row as well, so a row whose coverage overlaps with room to spare lets the sweep skip the
+ * rows that are sure to be covered too.
+ */
+class CoverageSweep {
+    private static final int BLOCK = 4096;
+    private final int[] x;
+    private final int[] y;
+    private final int[] reach;
 
-record ClosedInterval(int from, int to) implements Comparable<ClosedInterval> {
-    boolean overlaps(ClosedInterval other) {
-        return to >= other.from && from <= other.to;
+    CoverageSweep(Collection<Sensor> sensors) {
+        x = sensors.stream().mapToInt(s -> s.position().x()).toArray();
+        y = sensors.stream().mapToInt(s -> s.position().y()).toArray();
+        reach = sensors.stream().mapToInt(Sensor::beaconDistance).toArray();
     }
 
-    int count() {
-        return to - from + 1;
+    /**
+     * Buffers for one row at a time: the merged closed intervals in {@code from} and {@code to}, and for each the
+     * smallest overlap between the sensors that make it up.
+     */
+    class Row {
+        final int[] from = new int[x.length];
+        final int[] to = new int[x.length];
+        final int[] slack = new int[x.length];
+        final int[] order = new int[x.length];
+        int size;
+
+        Row() {
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+        }
+
+        private int start(int sensor, int row) {
+            return x[sensor] - reach[sensor] + Math.abs(row - y[sensor]);
+        }
+
+        void sweep(int row) {
+            for (int i = 1; i < order.length; i++) {
+                int sensor = order[i];
+                int start = start(sensor, row);
+                int j = i;
+                for (; j > 0 && start(order[j - 1], row) > start; j--) {
+                    order[j] = order[j - 1];
+                }
+                order[j] = sensor;
+            }
+            size = 0;
+            for (int sensor : order) {
+                int width = reach[sensor] - Math.abs(row - y[sensor]);
+                if (width >= 0) {
+                    int start = x[sensor] - width;
+                    int end = x[sensor] + width;
+                    if (size > 0 && start <= to[size - 1] + 1) {
+                        if (end > to[size - 1]) {
+                            slack[size - 1] = Math.min(slack[size - 1], to[size - 1] + 1 - start);
+                            to[size - 1] = end;
+                        }
+                    } else {
+                        from[size] = start;
+                        to[size] = end;
+                        slack[size++] = Integer.MAX_VALUE;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Number of rows after the last swept one that are certain to cover {@code [minX, maxX]} as well.
+         */
+        int covering(int minX, int maxX) {
+            for (int i = 0; i < size && from[i] <= minX; i++) {
+                if (to[i] >= maxX) {
+                    return Math.min(slack[i] / 2, Math.min(minX - from[i], to[i] - maxX));
+                }
+            }
+            return -1;
+        }
     }
 
-    ClosedInterval combine(ClosedInterval other) {
-        return new ClosedInterval(Math.min(from, other.from), Math.max(to, other.to));
+    long covered(int row) {
+        var buffers = new Row();
+        buffers.sweep(row);
+        long covered = 0;
+        for (int i = 0; i < buffers.size; i++) {
+            covered += buffers.to[i] - buffers.from[i] + 1;
+        }
+        return covered;
     }
 
-    static void combine(SortedSet<ClosedInterval> combined, SortedSet<ClosedInterval> additional) {
-        additional.forEach(c -> combine(combined, c));
+    private List<Coordinate> uncovered(int minX, int maxX, int minY, int maxY, int max, AtomicInteger next,
+                                       AtomicInteger found) {
+        List<Coordinate> uncovered = new ArrayList<>();
+        var buffers = new Row();
+        for (long from = minY + (long) next.getAndAdd(BLOCK); from <= maxY && found.get() < max;
+             from = minY + (long) next.getAndAdd(BLOCK)) {
+            for (int row = (int) from; row <= Math.min(from + BLOCK - 1, maxY) && found.get() < max; row++) {
+                buffers.sweep(row);
+                int covering = buffers.covering(minX, maxX);
+                if (covering >= 0) {
+                    row += covering;
+                    continue;
+                }
+                int column = minX;
+                for (int i = 0; i <= buffers.size && column <= maxX; i++) {
+                    int end = i < buffers.size ? Math.min(buffers.from[i] - 1, maxX) : maxX;
+                    for (; column <= end; column++) {
+                        if (found.getAndIncrement() >= max) {
+                            return uncovered;
+                        }
+                        uncovered.add(new Coordinate(column, row));
+                    }
+                    if (i < buffers.size) {
+                        column = Math.max(column, buffers.to[i] + 1);
+                    }
+                }
+            }
+        }
+        return uncovered;
     }
 
-    static void combine(SortedSet<ClosedInterval> combined, ClosedInterval additional) {
-        var it = combined.iterator();
-        ClosedInterval replacement = additional;
-        while (it.hasNext()) {
-            var other = it.next();
-            if (replacement.overlaps(other)) {
-                it.remove();
-                replacement = replacement.combine(other);
+    /**
+     * Cells in the rectangle no sensor covers, ordered by row and column, at most {@code max} of them. Rows are handed
+     * out to the threads in blocks, and every thread stops once {@code max} cells have been found in total, so with
+     * more than one thread the cells returned need not be the first ones.
+     */
+    List<Coordinate> uncovered(int minX, int maxX, int minY, int maxY, int max, int parallelism) {
+        var next = new AtomicInteger();
+        var found = new AtomicInteger();
+        List<Callable<List<Coordinate>>> workers = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(() -> uncovered(minX, maxX, minY, maxY, max, next, found));
+        }
+        try (var pool = new ForkJoinPool(parallelism)) {
+            List<Coordinate> uncovered = new ArrayList<>();
+            for (var result : pool.invokeAll(workers)) {
+                uncovered.addAll(result.get());
             }
+            uncovered.sort(Comparator.comparingInt(Coordinate::y).thenComparingInt(Coordinate::x));
+            return uncovered.size() > max ? List.copyOf(uncovered.subList(0, max)) : uncovered;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
         }
-        combined.add(replacement);
     }
 
-    @Override
-    public int compareTo(ClosedInterval o) {
-        return from == o.from ? Integer.compare(to, o.to) : Integer.compare(from, o.from);
+    /**
+     * Uncovered cells in the rectangle that lie just outside the edges of sensors: where a one cell wide gap between
+     * two sensors running one way crosses such a gap running the other way. Gaps run along {@code x + y} or
+     * {@code y - x} being constant, so both kinds are kept as sorted arrays of those constants. This takes time and
+     * memory in the number of sensor pairs, whatever the size of the rectangle, but misses cells on its border.
+     */
+    List<Coordinate> gaps(int minX, int maxX, int minY, int maxY) {
+        var sums = new long[x.length * x.length];
+        var differences = new long[sums.length];
+        int sumCount = 0;
+        int differenceCount = 0;
+        for (int i = 0; i < x.length; i++) {
+            for (int j = 0; j < x.length; j++) {
+                if (y[j] > y[i] && Math.abs(x[j] - x[i]) + y[j] - y[i] == reach[i] + reach[j] + 2) {
+                    if (x[j] > x[i]) {
+                        sums[sumCount++] = (long) y[i] + x[i] + reach[i] + 1;
+                    } else {
+                        differences[differenceCount++] = (long) y[i] - x[i] + reach[i] + 1;
+                    }
+                }
+            }
+        }
+        sums = LongStream.of(sums).limit(sumCount).sorted().distinct().toArray();
+        differences = LongStream.of(differences).limit(differenceCount).sorted().distinct().toArray();
+        List<Coordinate> gaps = new ArrayList<>();
+        for (long sum : sums) {
+            for (long difference : differences) {
+                if (((sum + difference) & 1) != 0) {
+                    continue;
+                }
+                long cx = (sum - difference) / 2;
+                long cy = (sum + difference) / 2;
+                if (cx >= minX && cx <= maxX && cy >= minY && cy <= maxY && !covers(cx, cy)) {
+                    gaps.add(new Coordinate((int) cx, (int) cy));
+                }
+            }
+        }
+        gaps.sort(Comparator.comparingInt(Coordinate::y).thenComparingInt(Coordinate::x));
+        return gaps;
+    }
+
+    private boolean covers(long cx, long cy) {
+        for (int i = 0; i < x.length; i++) {
+            if (Math.abs(cx - x[i]) + Math.abs(cy - y[i]) <= reach[i]) {
+                return true;
+            }
+        }
+        return false;
     }
 }
 
@@ -144,15 +298,6 @@ record Coordinate(int x, int y) {
 }
 
 record Sensor(Coordinate position, int beaconDistance) {
-    ClosedInterval coverage(int y) {
-        int width = beaconDistance - Math.abs(y - position.y());
-        return width < 0 ? null : new ClosedInterval(position.x() - width, position.x() + width);
-    }
-
-    boolean touches(Sensor other) {
-        return position.distance(other.position) == beaconDistance + other.beaconDistance + 2;
-    }
-
     static Sensor from(Coordinate position, Coordinate beacon) {
         return new Sensor(position, position.distance(beacon));
     }
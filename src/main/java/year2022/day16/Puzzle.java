@@ -1,5 +1,7 @@
 package year2022.day16;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayDeque;
@@ -7,6 +9,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.PriorityQueue;
@@ -15,7 +18,7 @@ import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private static final Pattern PATTERN = Pattern.compile("Valve (.+) has flow rate=(\\d+); tunnels? leads? to valves? (.+)");
     public static final String INITIAL_VALVE = "AA";
 
@@ -23,18 +26,21 @@ public class Puzzle {
     final Map<String, Collection<String>> neighbourMap = new HashMap<>();
     final Map<String, Map<String, Integer>> valveDistances = new HashMap<>();
     final Map<String, Long> valveBits = new HashMap<>();
+    final ValveSolver solver;
 
     Puzzle() throws Exception {
-        try (var reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day16_input"))))) {
-            for (String line : reader.lines().toList()) {
-                final var matcher = PATTERN.matcher(line);
-                if (!matcher.matches()) {
-                    throw new IllegalArgumentException(line);
-                }
-                final var name = matcher.group(1);
-                valveMap.put(name, Integer.parseInt(matcher.group(2)));
-                neighbourMap.put(name, Arrays.stream(matcher.group(3).split(", ")).collect(Collectors.toSet()));
+        this(input());
+    }
+
+    Puzzle(List<String> lines) {
+        for (String line : lines) {
+            final var matcher = PATTERN.matcher(line);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException(line);
             }
+            final var name = matcher.group(1);
+            valveMap.put(name, Integer.parseInt(matcher.group(2)));
+            neighbourMap.put(name, Arrays.stream(matcher.group(3).split(", ")).collect(Collectors.toSet()));
         }
         valveDistances.put(INITIAL_VALVE, distanceMap(INITIAL_VALVE));
         final var bit = new Bit();
@@ -45,15 +51,27 @@ public class Puzzle {
                 bit.shift();
             }
         });
+        solver = new ValveSolver(valveMap, neighbourMap);
+    }
+
+    static List<String> input() throws Exception {
+        try (var reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(Puzzle.class.getResourceAsStream("day16_input"))))) {
+            return reader.lines().toList();
+        }
     }
 
     public static void main(String[] args) throws Exception {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(max(30, false));
-        System.out.println(max(26, true));
+    @Override
+    public Object part1() {
+        return solver.max(30, false);
+    }
+
+    @Override
+    public Object part2() {
+        return solver.max(26, true);
     }
 
     Map<String, Integer> distanceMap(String origin) {
@@ -119,6 +137,168 @@ public class Puzzle {
     }
 }
 
+/**
+ * Valves interned to ints, with a distance matrix between the working ones. The best pressure for every set of opened
+ * valves is found by a search that keeps only the best pressure per (valve, opened set, minute); the elephant's and
+ * my sets are then combined with a subset-max transform instead of trying every pair.
+ */
+class ValveSolver {
+    private final int[] flow;
+    private final int[][] distance;
+    private final int start;
+
+    ValveSolver(Map<String, Integer> valveMap, Map<String, Collection<String>> neighbourMap) {
+        Map<String, Integer> ids = new HashMap<>();
+        valveMap.keySet().stream().sorted().forEach(name -> ids.put(name, ids.size()));
+        var neighbours = new int[ids.size()][];
+        ids.forEach((name, id) -> neighbours[id] = neighbourMap.get(name).stream().mapToInt(ids::get).toArray());
+        var working = valveMap.keySet().stream().filter(name -> valveMap.get(name) > 0).sorted().mapToInt(ids::get).toArray();
+        if (working.length > 30) {
+            throw new IllegalArgumentException("too many working valves: " + working.length);
+        }
+        int k = working.length;
+        flow = new int[k];
+        var names = new String[ids.size()];
+        ids.forEach((name, id) -> names[id] = name);
+        for (int i = 0; i < k; i++) {
+            flow[i] = valveMap.get(names[working[i]]);
+        }
+        start = k;
+        distance = new int[k + 1][];
+        for (int i = 0; i <= k; i++) {
+            var steps = steps(i == k ? ids.get(Puzzle.INITIAL_VALVE) : working[i], neighbours);
+            distance[i] = new int[k];
+            for (int j = 0; j < k; j++) {
+                // Add one for turning on the valve
+                distance[i][j] = steps[working[j]] == -1 ? Integer.MAX_VALUE / 2 : steps[working[j]] + 1;
+            }
+        }
+    }
+
+    private static int[] steps(int origin, int[][] neighbours) {
+        var steps = new int[neighbours.length];
+        Arrays.fill(steps, -1);
+        var queue = new int[neighbours.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = origin;
+        steps[origin] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int next : neighbours[current]) {
+                if (steps[next] == -1) {
+                    steps[next] = steps[current] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Best total pressure for each set of valves opened, indexed by bitmask.
+     */
+    int[] best(int minutes) {
+        var best = new int[1 << flow.length];
+        search(start, 0, 0, 0, minutes, best, new StateMemo());
+        return best;
+    }
+
+    private void search(int valve, int opened, int minute, int pressure, int minutes, int[] best, StateMemo memo) {
+        if (pressure > best[opened]) {
+            best[opened] = pressure;
+        }
+        for (int next = 0; next < flow.length; next++) {
+            int bit = 1 << next;
+            int at = minute + distance[valve][next];
+            if ((opened & bit) == 0 && at < minutes) {
+                int total = pressure + flow[next] * (minutes - at);
+                if (memo.improve(next, opened | bit, at, total)) {
+                    search(next, opened | bit, at, total, minutes, best, memo);
+                }
+            }
+        }
+    }
+
+    int max(int minutes, boolean elephant) {
+        var best = best(minutes);
+        if (!elephant) {
+            return Arrays.stream(best).max().orElseThrow();
+        }
+        int all = best.length - 1;
+        for (int bit = 1; bit <= all; bit <<= 1) {
+            for (int mask = 0; mask <= all; mask++) {
+                if ((mask & bit) != 0 && best[mask ^ bit] > best[mask]) {
+                    best[mask] = best[mask ^ bit];
+                }
+            }
+        }
+        int max = 0;
+        for (int mask = 0; mask <= all; mask++) {
+            max = Math.max(max, best[mask] + best[all ^ mask]);
+        }
+        return max;
+    }
+}
+
+/**
+ * Open-addressing map from (valve, opened set, minute) to the best pressure seen there.
+ */
+class StateMemo {
+    private long[] keys = new long[1 << 12];
+    private int[] values = new int[1 << 12];
+    private int size;
+
+    private static long key(int valve, int opened, int minute) {
+        return (long) opened << 16 | (long) valve << 8 | minute | 1L << 63;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int mask = keys.length - 1;
+        int i = (int) (h ^ (h >>> 32)) & mask;
+        while (keys[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Records the pressure if it beats what was seen before in this state, and reports whether it did.
+     */
+    boolean improve(int valve, int opened, int minute, int pressure) {
+        long key = key(valve, opened, minute);
+        int i = slot(key);
+        if (keys[i] == 0) {
+            keys[i] = key;
+            values[i] = pressure;
+            if (++size > keys.length >> 1) {
+                grow();
+            }
+            return true;
+        }
+        if (pressure > values[i]) {
+            values[i] = pressure;
+            return true;
+        }
+        return false;
+    }
+
+    private void grow() {
+        var oldKeys = keys;
+        var oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
+
 class Bit {
     long value = 1L;
 
@@ -1,5 +1,7 @@
 package year2022.day2;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -74,7 +76,7 @@ record Tournament(List<Round> rounds) {
     }
 }
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final List<String> input;
 
     Puzzle() throws Exception {
@@ -85,16 +87,13 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    int part1() {
+    @Override
+    public Object part1() {
         return Tournament.guess(input).score();
     }
 
-    int part2() {
+    @Override
+    public Object part2() {
         return Tournament.withStrategy(input).score();
     }
 }
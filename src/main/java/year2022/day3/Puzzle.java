@@ -1,5 +1,7 @@
 package year2022.day3;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -10,7 +12,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final List<String> input;
 
     Puzzle() throws Exception {
@@ -21,16 +23,13 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    int part1() {
+    @Override
+    public Object part1() {
         return input.stream().mapToInt(this::priority).sum();
     }
 
-    int part2() {
+    @Override
+    public Object part2() {
         return IntStream.range(0, input.size() / 3).map(i -> priority(input.subList(3 * i, 3 * (i + 1)))).sum();
     }
 
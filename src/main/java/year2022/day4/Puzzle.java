@@ -1,11 +1,13 @@
 package year2022.day4;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.List;
 import java.util.Objects;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final List<Pair> pairs;
 
     Puzzle() throws Exception {
@@ -18,16 +20,13 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    long part1() {
+    @Override
+    public Object part1() {
         return pairs.stream().filter(Pair::contained).count();
     }
 
-    long part2() {
+    @Override
+    public Object part2() {
         return pairs.stream().filter(Pair::overlapped).count();
     }
 }
@@ -1,5 +1,7 @@
 package year2022.day5;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -10,7 +12,7 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     final Supplies initialSupplies;
     final Instructions instructions;
 
@@ -24,9 +26,14 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(moveCrates(true));
-        System.out.println(moveCrates(false));
+    @Override
+    public Object part1() {
+        return moveCrates(true);
+    }
+
+    @Override
+    public Object part2() {
+        return moveCrates(false);
     }
 
     String moveCrates(boolean reverse) {
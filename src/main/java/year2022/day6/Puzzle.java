@@ -1,5 +1,7 @@
 package year2022.day6;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -7,7 +9,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final String data;
 
     Puzzle() throws Exception {
@@ -18,9 +20,14 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(startPosition(4));
-        System.out.println(startPosition(14));
+    @Override
+    public Object part1() {
+        return startPosition(4);
+    }
+
+    @Override
+    public Object part2() {
+        return startPosition(14);
     }
 
     int startPosition(final int n) {
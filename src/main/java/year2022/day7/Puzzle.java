@@ -1,5 +1,7 @@
 package year2022.day7;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -8,7 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final FileSystem fileSystem = new FileSystem();
     private final Map<String, Long> sizes = new HashMap<>();
 
@@ -46,17 +48,14 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    long part1() {
+    @Override
+    public Object part1() {
         fileSystem.directories().forEach((k, v) -> sizes.put(k, fileSystem.size(k)));
         return sizes.values().stream().filter(l -> l <= 100000).mapToLong(l -> l).sum();
     }
 
-    long part2() {
+    @Override
+    public Object part2() {
         long total = sizes.get("/");
         return sizes.values().stream().filter(l -> total - l <= 40000000).mapToLong(l -> l).min().orElseThrow();
     }
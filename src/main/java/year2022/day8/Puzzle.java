@@ -1,18 +1,15 @@
 package year2022.day8;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Stream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final Grid grid;
 
     Puzzle() throws Exception {
@@ -25,82 +22,28 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(grid.visibleTrees());
-        System.out.println(grid.maxScenicScore());
-    }
-
-}
-
-enum Heading {
-    NORTH(Coordinate::north), SOUTH(Coordinate::south), WEST(Coordinate::west), EAST(Coordinate::east);
-
-    final Function<Coordinate, Coordinate> mover;
-
-    Heading(Function<Coordinate, Coordinate> mover) {
-        this.mover = mover;
-    }
-}
-
-record Coordinate(int x, int y) {
-    Coordinate north() {
-        return new Coordinate(x, y - 1);
-    }
-
-    Coordinate south() {
-        return new Coordinate(x, y + 1);
-    }
-
-    Coordinate west() {
-        return new Coordinate(x - 1, y);
+    @Override
+    public Object part1() {
+        return grid.visibleTrees();
     }
 
-    Coordinate east() {
-        return new Coordinate(x + 1, y);
-    }
-}
-
-record Viewpoint(Coordinate position, Heading heading) {
-    static Collection<Viewpoint> viewpoints(int width, int height) {
-        Collection<Viewpoint> viewpoints = new ArrayList<>();
-        for (int x = 0; x < width; x++) {
-            viewpoints.add(new Viewpoint(new Coordinate(x, 0), Heading.SOUTH));
-            viewpoints.add(new Viewpoint(new Coordinate(x, width - 1), Heading.NORTH));
-        }
-        for (int y = 0; y < height; y++) {
-            viewpoints.add(new Viewpoint(new Coordinate(0, y), Heading.EAST));
-            viewpoints.add(new Viewpoint(new Coordinate(height - 1, y), Heading.WEST));
-        }
-        return viewpoints;
+    @Override
+    public Object part2() {
+        return grid.maxScenicScore();
     }
 
-    Viewpoint move() {
-        return new Viewpoint(heading.mover.apply(position), heading);
-    }
 }
 
-record Grid(Map<Coordinate, Integer> trees, Collection<Viewpoint> viewpoints, int gridWidth, int gridHeight) {
+record Grid(ByteGrid trees) {
     static Grid from(Stream<String> lines) {
-        Map<Coordinate, Integer> trees = new HashMap<>();
-        int width = 0;
-        int y = 0;
-        for (String line : lines.toList()) {
-            if (line.length() > width) {
-                width = line.length();
-            }
-            for (int x = 0; x < line.length(); x++) {
-                trees.put(new Coordinate(x, y), line.charAt(x) - '0');
-            }
-            ++y;
-        }
-        return new Grid(trees, Viewpoint.viewpoints(width, y), width, y);
+        return new Grid(ByteGrid.parse(lines.toList()));
     }
 
     int maxScenicScore() {
         int maxScenicScore = 0;
-        for (int y = 1; y < gridHeight - 1; y++) {
-            for (int x = 1; x < gridWidth - 1; x++) {
-                var scenicScore = scenicScore(x, y);
+        for (int y = 1; y < trees.height() - 1; y++) {
+            for (int x = 1; x < trees.width() - 1; x++) {
+                var scenicScore = scenicScore(trees.index(x, y));
                 if (scenicScore > maxScenicScore) {
                     maxScenicScore = scenicScore;
                 }
@@ -109,37 +52,51 @@ record Grid(Map<Coordinate, Integer> trees, Collection<Viewpoint> viewpoints, in
         return maxScenicScore;
     }
 
-    private int scenicScore(int x, int y) {
-        var tree = new Coordinate(x, y);
-        var height = trees.get(tree);
-        var viewingDistances = new int[4];
-        for (var heading : Heading.values()) {
+    private int scenicScore(int tree) {
+        var height = trees.at(tree);
+        int scenicScore = 1;
+        for (int heading = DenseGrid.NORTH; heading < 8; heading += 2) {
             int visible = 0;
-            var pos = heading.mover.apply(tree);
-            do {
+            for (int pos = trees.neighbour(tree, heading); pos != -1; pos = trees.neighbour(pos, heading)) {
                 ++visible;
-                if (trees.get(pos) >= height) {
+                if (trees.at(pos) >= height) {
                     break;
                 }
-                pos = heading.mover.apply(pos);
-            } while (trees.containsKey(pos));
-            viewingDistances[heading.ordinal()] = visible;
+            }
+            scenicScore *= visible;
         }
-        return viewingDistances[0] * viewingDistances[1] * viewingDistances[2] * viewingDistances[3];
+        return scenicScore;
     }
 
     int visibleTrees() {
-        Set<Coordinate> visibleTrees = new HashSet<>();
-        viewpoints.forEach(viewpoint -> {
-            int max = -1;
-            for (var v = viewpoint; trees.containsKey(v.position()); v = v.move()) {
-                int treeHeight = trees.get(v.position());
-                if (treeHeight > max) {
-                    max = treeHeight;
-                    visibleTrees.add(v.position());
-                }
+        var visible = new boolean[trees.size()];
+        int width = trees.width();
+        int height = trees.height();
+        for (int x = 0; x < width; x++) {
+            scan(trees.index(x, 0), DenseGrid.SOUTH, visible);
+            scan(trees.index(x, height - 1), DenseGrid.NORTH, visible);
+        }
+        for (int y = 0; y < height; y++) {
+            scan(trees.index(0, y), DenseGrid.EAST, visible);
+            scan(trees.index(width - 1, y), DenseGrid.WEST, visible);
+        }
+        int n = 0;
+        for (boolean v : visible) {
+            if (v) {
+                ++n;
             }
-        });
-        return visibleTrees.size();
+        }
+        return n;
+    }
+
+    private void scan(int start, int heading, boolean[] visible) {
+        int max = -1;
+        for (int pos = start; pos != -1 && max < '9'; pos = trees.neighbour(pos, heading)) {
+            int treeHeight = trees.at(pos);
+            if (treeHeight > max) {
+                max = treeHeight;
+                visible[pos] = true;
+            }
+        }
     }
 }
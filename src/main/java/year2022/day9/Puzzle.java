@@ -1,16 +1,16 @@
 package year2022.day9;
 
+import common.DenseGrid;
+import common.LongSet;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.function.Function;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final List<Instruction> instructions;
 
     Puzzle() throws Exception {
@@ -23,68 +23,39 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(withKnots(2));
-        System.out.println(withKnots(10));
+    @Override
+    public Object part1() {
+        return withKnots(2);
+    }
+
+    @Override
+    public Object part2() {
+        return withKnots(10);
     }
 
     int withKnots(int n) {
-        Set<Coordinate> visited = new HashSet<>();
+        var visited = new LongSet();
         var rope = Rope.withKnots(n);
-        visited.add(rope.tail());
+        visited.add(LongSet.pack(0, 0));
         for (var instruction : instructions) {
             for (int i = 0; i < instruction.steps(); i++) {
-                rope = rope.moveHead(instruction.heading());
-                visited.add(rope.tail());
+                rope.moveHead(instruction.heading());
+                visited.add(LongSet.pack(rope.tailX(), rope.tailY()));
             }
         }
         return visited.size();
     }
 }
 
-record Coordinate(int x, int y) {
-    static final Coordinate START = new Coordinate(0, 0);
-
-    Coordinate north() {
-        return new Coordinate(x, y - 1);
-    }
-
-    Coordinate south() {
-        return new Coordinate(x, y + 1);
-    }
-
-    Coordinate west() {
-        return new Coordinate(x - 1, y);
-    }
-
-    Coordinate east() {
-        return new Coordinate(x + 1, y);
-    }
-
-    Coordinate move(Heading heading) {
-        return heading.mover.apply(this);
-    }
-
-    Coordinate closest(Coordinate other) {
-        return Math.abs(x - other.x) == 2
-                ? Math.abs(y - other.y) == 2
-                ? new Coordinate((x + other.x) / 2, (y + other.y) / 2)
-                : new Coordinate((x + other.x) / 2, y)
-                : Math.abs(y - other.y) == 2
-                ? new Coordinate(x, (y + other.y) / 2)
-                : other;
-    }
-}
-
 enum Heading {
-    NORTH('U', Coordinate::north), SOUTH('D', Coordinate::south), WEST('L', Coordinate::west), EAST('R', Coordinate::east);
+    NORTH('U', DenseGrid.NORTH), SOUTH('D', DenseGrid.SOUTH), WEST('L', DenseGrid.WEST), EAST('R', DenseGrid.EAST);
 
     final char label;
-    final Function<Coordinate, Coordinate> mover;
+    final int direction;
 
-    Heading(char label, Function<Coordinate, Coordinate> mover) {
+    Heading(char label, int direction) {
         this.label = label;
-        this.mover = mover;
+        this.direction = direction;
     }
 
     static Heading from(char label) {
@@ -98,25 +69,32 @@ record Instruction(Heading heading, int steps) {
     }
 }
 
-record Rope(List<Coordinate> knots) {
+/**
+ * The knots' positions relative to the start, head first, moved in place.
+ */
+record Rope(int[] x, int[] y) {
     static Rope withKnots(int n) {
-        List<Coordinate> knots = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            knots.add(Coordinate.START);
+        return new Rope(new int[n], new int[n]);
+    }
+
+    void moveHead(Heading heading) {
+        x[0] += DenseGrid.dx(heading.direction);
+        y[0] += DenseGrid.dy(heading.direction);
+        for (int i = 1; i < x.length; i++) {
+            int dx = x[i - 1] - x[i];
+            int dy = y[i - 1] - y[i];
+            if (Math.abs(dx) == 2 || Math.abs(dy) == 2) {
+                x[i] += Integer.signum(dx);
+                y[i] += Integer.signum(dy);
+            }
         }
-        return new Rope(knots);
     }
 
-    Rope moveHead(Heading heading) {
-        List<Coordinate> newKnots = new ArrayList<>();
-        newKnots.add(knots.get(0).move(heading));
-        for (int i = 1; i < knots.size(); i++) {
-            newKnots.add(newKnots.get(i - 1).closest(knots.get(i)));
-        }
-        return new Rope(newKnots);
+    int tailX() {
+        return x[x.length - 1];
     }
 
-    Coordinate tail() {
-        return knots.get(knots.size() - 1);
+    int tailY() {
+        return y[y.length - 1];
     }
 }
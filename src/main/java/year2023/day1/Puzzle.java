@@ -1,5 +1,7 @@
 package year2023.day1;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.Arrays;
@@ -9,7 +11,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.stream.IntStream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final String words = "one|two|three|four|five|six|seven|eight|nine";
     private final String reversedWords = reverse(words);
     private final Map<String, Integer> digits = new HashMap<>();
@@ -35,9 +37,17 @@ public class Puzzle {
     }
 
     public static void main(String[] args) throws Exception {
-        var puzzle = new Puzzle();
-        System.out.println(puzzle.solveBadly());
-        System.out.println(puzzle.solveBetter());
+        new Puzzle().solve();
+    }
+
+    @Override
+    public Object part1() {
+        return solveBadly();
+    }
+
+    @Override
+    public Object part2() {
+        return solveBetter();
     }
 
     int digit(String digitString) {
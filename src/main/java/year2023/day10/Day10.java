@@ -1,201 +1,96 @@
 package year2023.day10;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Polygon;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Stream;
-
-enum Heading {
-    NORTH(Coordinate::north), EAST(Coordinate::east), SOUTH(Coordinate::south), WEST(Coordinate::west), NOWHERE(Function.identity());
-    final Function<Coordinate, Coordinate> head;
-
-    Heading(Function<Coordinate, Coordinate> head) {
-        this.head = head;
-    }
-}
-
-enum TileType {
-    NORTH_SOUTH('|', h -> switch (h) {
-        case SOUTH -> Heading.SOUTH;
-        case NORTH -> Heading.NORTH;
-        default -> Heading.NOWHERE;
-    }), EAST_WEST('-', h -> switch (h) {
-        case EAST -> Heading.EAST;
-        case WEST -> Heading.WEST;
-        default -> Heading.NOWHERE;
-    }), NORTH_EAST('L', h -> switch (h) {
-        case SOUTH -> Heading.EAST;
-        case WEST -> Heading.NORTH;
-        default -> Heading.NOWHERE;
-    }), NORTH_WEST('J', h -> switch (h) {
-        case SOUTH -> Heading.WEST;
-        case EAST -> Heading.NORTH;
-        default -> Heading.NOWHERE;
-    }), SOUTH_WEST('7', h -> switch (h) {
-        case NORTH -> Heading.WEST;
-        case EAST -> Heading.SOUTH;
-        default -> Heading.NOWHERE;
-    }), SOUTH_EAST('F', h -> switch (h) {
-        case NORTH -> Heading.EAST;
-        case WEST -> Heading.SOUTH;
-        default -> Heading.NOWHERE;
-    }), GROUND('.'), START('S');
-    final char character;
-    final Function<Heading, Heading> nextHeading;
-
-    TileType(char character, Function<Heading, Heading> nextHeading) {
-        this.character = character;
-        this.nextHeading = nextHeading;
-    }
-
-    TileType(char character) {
-        this.character = character;
-        nextHeading = h -> Heading.NOWHERE;
-    }
-
-    static TileType from(int character) {
-        return Arrays.stream(values()).filter(t -> t.character == character).findFirst().orElseThrow();
-    }
-}
-
-record Tile(Coordinate coordinate, TileType type) {
-    static Tile blank(Coordinate coordinate) {
-        return new Tile(coordinate, TileType.GROUND);
-    }
-
-    static Tile at(int x, int y, int character) {
-        return new Tile(new Coordinate(x, y), TileType.from(character));
-    }
-}
-
-record Coordinate(int x, int y) implements Comparable<Coordinate> {
-    Coordinate north() {
-        return new Coordinate(x, y - 1);
-    }
-
-    Coordinate south() {
-        return new Coordinate(x, y + 1);
-    }
-
-    Coordinate west() {
-        return new Coordinate(x - 1, y);
-    }
-
-    Coordinate east() {
-        return new Coordinate(x + 1, y);
-    }
-
-    @Override
-    public int compareTo(Coordinate o) {
-        return y == o.y ? Integer.compare(x, o.x) : Integer.compare(y, o.y);
-    }
-}
 
-record Grid(Map<Coordinate, Tile> tiles, Tile start) {
-    static void parse(Map<Coordinate, Tile> tiles, int y, String line) {
-        final AtomicInteger x = new AtomicInteger();
-        line.chars().mapToObj(c -> Tile.at(x.getAndIncrement(), y, c)).forEach(tile -> tiles.put(tile.coordinate(), tile));
-    }
-
-    static Grid parse(Stream<String> lines) {
-        final AtomicInteger y = new AtomicInteger();
-        Map<Coordinate, Tile> tiles = new TreeMap<>();
-        lines.forEach(line -> parse(tiles, y.getAndIncrement(), line));
-        return new Grid(tiles, findStart(tiles));
-    }
-
-    static Tile findStart(Map<Coordinate, Tile> tiles) {
-        List<Tile> startTiles = tiles.values().stream().filter(t -> t.type() == TileType.START).toList();
-        if (startTiles.size() != 1) {
-            throw new IllegalStateException();
-        }
-        return startTiles.get(0);
-    }
-
-    static boolean isInside(Coordinate t, List<Coordinate> path) {
-        if (path.isEmpty()) {
-            return false;
+/**
+ * The pipe maze as a grid of its characters, padded with ground. The loop is found by walking from the start in each
+ * orthogonal direction until a walk gets back there.
+ */
+record Maze(ByteGrid tiles, int start) {
+    static final byte GROUND = '.';
+    static final byte START = 'S';
+
+    static Maze parse(List<String> lines) {
+        var tiles = ByteGrid.padded(lines, GROUND);
+        int start = tiles.indexOf(START);
+        if (start < 0) {
+            throw new IllegalStateException("no start");
         }
-        if (path.contains(t)) {
-            return false;
-        }
-        List<Coordinate> loop = new ArrayList<>(path);
-        loop.add(path.get(0));
-        int index = 0;
-        for (int i = 0; i + 1 < loop.size(); i++) {
-            var p = loop.get(i);
-            var q = loop.get(i + 1);
-            var yFlag = p.y() >= t.y();
-            if (yFlag != (q.y() >= t.y())) {
-                var ySign = yFlag ? -1 : 1;
-                var xFlag = p.x() >= t.x();
-                if (xFlag == q.x() >= t.x()) {
-                    if (xFlag) {
-                        index += ySign;
-                    }
-                } else {
-                    throw new UnsupportedOperationException();
-                }
-            }
-        }
-        return index != 0;
-    }
-
-    List<Tile> walk(Heading heading) {
-        List<Tile> tiles = new ArrayList<>();
-        Tile tile = start;
+        return new Maze(tiles, start);
+    }
+
+    /**
+     * The directions a pipe connects to, as a bit per direction.
+     */
+    static int connections(byte pipe) {
+        return switch (pipe) {
+            case '|' -> 1 << DenseGrid.NORTH | 1 << DenseGrid.SOUTH;
+            case '-' -> 1 << DenseGrid.EAST | 1 << DenseGrid.WEST;
+            case 'L' -> 1 << DenseGrid.NORTH | 1 << DenseGrid.EAST;
+            case 'J' -> 1 << DenseGrid.NORTH | 1 << DenseGrid.WEST;
+            case '7' -> 1 << DenseGrid.SOUTH | 1 << DenseGrid.WEST;
+            case 'F' -> 1 << DenseGrid.SOUTH | 1 << DenseGrid.EAST;
+            default -> 0;
+        };
+    }
+
+    /**
+     * The heading out of a pipe entered while going {@code heading}, or -1 when the pipe does not connect back.
+     */
+    static int turn(byte pipe, int heading) {
+        int connections = connections(pipe);
+        int from = 1 << DenseGrid.opposite(heading);
+        return (connections & from) == 0 ? -1 : Integer.numberOfTrailingZeros(connections & ~from);
+    }
+
+    /**
+     * The cells of the loop in order starting at the start, or null when the walk leaves the pipes.
+     */
+    int[] walk(int heading) {
+        var path = new int[tiles.size()];
+        int n = 0;
+        int cell = start;
         do {
-            if (heading == Heading.NOWHERE) {
-                return Collections.emptyList();
-            }
-            tiles.add(tile);
-            tile = tile(heading.head.apply(tile.coordinate()));
-            if (tile == start) {
-                return tiles;
+            path[n++] = cell;
+            cell = tiles.step(cell, heading);
+            if (cell == start) {
+                return Arrays.copyOf(path, n);
             }
-            heading = tile.type().nextHeading.apply(heading);
-        } while (true);
+            heading = turn(tiles.at(cell), heading);
+        } while (heading >= 0);
+        return null;
     }
 
-    List<Coordinate> walkAllHeadings() {
-        List<Coordinate> path = Arrays.stream(Heading.values()).map(this::walk).filter(Predicate.not(List::isEmpty)).findFirst().orElseThrow().stream().map(Tile::coordinate).toList();
-        System.out.println("max distance: " + (path.size() >> 1));
-        return path;
-    }
-
-    void countInsidePoints(List<Coordinate> path) {
-        List<Coordinate> inside = tiles.values().stream().map(Tile::coordinate).filter(t -> isInside(t, path)).toList();
-        System.out.println("inside points: " + inside.size());
+    int[] loop() {
+        for (int d = DenseGrid.NORTH; d < 8; d += 2) {
+            var path = walk(d);
+            if (path != null) {
+                return path;
+            }
+        }
+        throw new IllegalStateException("no loop through the start");
     }
 
-    static int countInteriorPoints(List<Coordinate> path) {
-        List<Coordinate> loop = new ArrayList<>(path);
-        loop.add(path.get(0));
-        int doubleArea = 0;
-        for (int i = 0; i + 1 < loop.size(); i++) {
-            var a = loop.get(i);
-            var b = loop.get(i + 1);
-            doubleArea += a.x() * b.y() - a.y() * b.x();
-        }
-        return (Math.abs(doubleArea) - path.size()) / 2 + 1;
+    Polygon polygon(int[] path) {
+        return new Polygon(Arrays.stream(path).mapToLong(tiles::x).toArray(), Arrays.stream(path).mapToLong(tiles::y).toArray());
     }
 
-    void countInsidePointsAlternate(List<Coordinate> path) {
-        System.out.println("inside points (alternate method): " + countInteriorPoints(path));
+    long countInsidePoints(int[] path) {
+        return polygon(path).interiorCells().count();
     }
 
-    Tile tile(Coordinate coordinate) {
-        return tiles.computeIfAbsent(coordinate, Tile::blank);
+    long countInsidePointsAlternate(int[] path) {
+        return polygon(path).interior();
     }
 }
 
@@ -205,19 +100,32 @@ public class Day10 {
     }
 }
 
-// parse 40 ms
-// walkAllHeadings 16 ms
-// countInsidePoints 1027 ms
-// countInsidePointsAlternate 8 ms
+class Puzzle implements Solver {
+    private final Maze maze;
+    private final int[] path;
 
-class Puzzle {
-    void solve() throws IOException {
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day10/day10_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var grid = Grid.parse(reader.lines());
-            List<Coordinate> coordinates = grid.walkAllHeadings();
-            grid.countInsidePoints(coordinates);
-            grid.countInsidePointsAlternate(coordinates);
+            maze = Maze.parse(reader.lines().toList());
         }
+        path = maze.loop();
+    }
+
+    @Override
+    public Object part1() {
+        return path.length >> 1;
+    }
+
+    @Override
+    public Object part2() {
+        return maze.countInsidePoints(path);
+    }
+
+    @Override
+    public void solve() {
+        System.out.println("max distance: " + part1());
+        System.out.println("inside points: " + part2());
+        System.out.println("inside points (alternate method): " + maze.countInsidePointsAlternate(path));
     }
 }
@@ -1,16 +1,12 @@
 package year2023.day11;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public class Day11 {
     public static void main(String[] args) throws IOException {
@@ -18,58 +14,85 @@ public class Day11 {
     }
 }
 
-record Galaxy(int x, int y) implements Comparable<Galaxy> {
-    static Optional<Galaxy> at(int x, int y, int c) {
-        return c == '#' ? Optional.of(new Galaxy(x, y)) : Optional.empty();
-    }
+/**
+ * Sum of the distances between all pairs of galaxies, for any expansion factor. Along one axis the expanded coordinate
+ * of a galaxy is its coordinate plus {@code factor - 1} times the number of empty lines before it, and both terms are
+ * in the same order, so the pairwise sum of each is found once from the sorted coordinates; every factor then costs a
+ * multiplication.
+ */
+class GalaxyDistances {
+    private final long coordinateSum;
+    private final long emptySum;
 
-    @Override
-    public int compareTo(Galaxy o) {
-        return y == o.y ? Integer.compare(x, o.x) : Integer.compare(y, o.y);
-    }
-}
-
-record Universe(Set<Galaxy> galaxies, Set<Integer> horizontalNonExpansions, Set<Integer> verticalNonExpansions) {
-    static void parse(Set<Galaxy> galaxies, int y, String line) {
-        final AtomicInteger x = new AtomicInteger();
-        line.chars().mapToObj(c -> Galaxy.at(x.getAndIncrement(), y, c)).filter(Optional::isPresent).map(Optional::get).forEach(galaxies::add);
-    }
-
-    static Universe parse(Stream<String> lines) {
-        final AtomicInteger y = new AtomicInteger();
-        Set<Galaxy> galaxies = new TreeSet<>();
-        Set<Integer> h = new TreeSet<>();
-        Set<Integer> v = new TreeSet<>();
-        lines.forEach(line -> parse(galaxies, y.getAndIncrement(), line));
-        galaxies.stream().mapToInt(Galaxy::x).forEach(h::add);
-        galaxies.stream().mapToInt(Galaxy::y).forEach(v::add);
-        return new Universe(galaxies, h, v);
+    GalaxyDistances(List<String> lines) {
+        int width = lines.getFirst().length();
+        var columns = new int[width];
+        var rows = new int[lines.size()];
+        for (int y = 0; y < lines.size(); y++) {
+            var line = lines.get(y);
+            for (int x = 0; x < width; x++) {
+                if (line.charAt(x) == '#') {
+                    ++columns[x];
+                    ++rows[y];
+                }
+            }
+        }
+        var columnSums = pairwiseSums(columns);
+        var rowSums = pairwiseSums(rows);
+        coordinateSum = columnSums[0] + rowSums[0];
+        emptySum = columnSums[1] + rowSums[1];
     }
 
-    long distance(Galaxy from, Galaxy to, long factor) {
-        Set<Integer> xs = IntStream.rangeClosed(Integer.min(from.x(), to.x()), Integer.max(from.x(), to.x())).boxed().collect(Collectors.toSet());
-        Set<Integer> ys = IntStream.rangeClosed(Integer.min(from.y(), to.y()), Integer.max(from.y(), to.y())).boxed().collect(Collectors.toSet());
-        long dx = xs.size() - 1;
-        long dy = ys.size() - 1;
-        xs.removeAll(horizontalNonExpansions);
-        ys.removeAll(verticalNonExpansions);
-        dx += xs.size() * (factor - 1);
-        dy += ys.size() * (factor - 1);
-        return dx + dy;
+    /**
+     * Pairwise distance sums of the coordinates and of the empty lines before them, given how many galaxies there are
+     * at each coordinate. In sorted order the {@code i}th value is added {@code i} times and subtracted by every later
+     * one.
+     */
+    private static long[] pairwiseSums(int[] counts) {
+        long coordinateSum = 0;
+        long emptySum = 0;
+        long coordinatePrefix = 0;
+        long emptyPrefix = 0;
+        long seen = 0;
+        int empty = 0;
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] == 0) {
+                ++empty;
+                continue;
+            }
+            for (int k = 0; k < counts[c]; k++) {
+                coordinateSum += c * seen - coordinatePrefix;
+                emptySum += empty * seen - emptyPrefix;
+                coordinatePrefix += c;
+                emptyPrefix += empty;
+                ++seen;
+            }
+        }
+        return new long[]{coordinateSum, emptySum};
     }
 
     long sumDistances(long factor) {
-        return galaxies.stream().flatMap(a -> galaxies.stream().filter(b -> a.compareTo(b) < 0).map(b -> distance(a, b, factor))).mapToLong(i -> i).sum();
+        return coordinateSum + (factor - 1) * emptySum;
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    private final GalaxyDistances distances;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day11/day11_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var universe = Universe.parse(reader.lines());
-            System.out.println(universe.sumDistances(2));
-            System.out.println(universe.sumDistances(1000000));
+            distances = new GalaxyDistances(reader.lines().toList());
         }
     }
+
+    @Override
+    public Object part1() {
+        return distances.sumDistances(2);
+    }
+
+    @Override
+    public Object part2() {
+        return distances.sumDistances(1000000);
+    }
 }
@@ -1,139 +1,134 @@
 package year2023.day12;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
-
-enum Condition {
-    OPERATIONAL('.'), DAMAGED('#'), UNKNOWN('?');
-    final char symbol;
 
-    Condition(char symbol) {
-        this.symbol = symbol;
+/**
+ * Counts arrangements by placing the groups one after another over bitmasks of the operational and damaged springs.
+ * A group fits at a position when its span has no operational bit, which is tested a word of 64 springs at a time.
+ * One rolling row per group holds, for each prefix of the conditions, the number of ways to place the groups so far
+ * with every damaged spring in it covered. Counts that do not fit in a long throw rather than wrap.
+ */
+final class ArrangementCounter {
+    private static final byte OPERATIONAL = '.';
+    private static final byte DAMAGED = '#';
+
+    private ArrangementCounter() {
     }
 
-    static Condition from(int symbol) {
-        return Arrays.stream(values()).filter(c -> c.symbol == symbol).findFirst().orElseThrow();
-    }
-}
-
-record SpringConditions(List<Condition> conditions) {
-    static SpringConditions from(String line, int n) {
-        var dup = IntStream.range(0, n).mapToObj(z -> line).collect(Collectors.joining("?"));
-        return new SpringConditions(dup.chars().mapToObj(Condition::from).toList());
+    static long arrangements(String line, int unfold) {
+        var parts = line.split(" ");
+        var conditions = String.join("?", Collections.nCopies(unfold, parts[0])).getBytes(StandardCharsets.US_ASCII);
+        var groups = Arrays.stream(String.join(",", Collections.nCopies(unfold, parts[1])).split(",")).mapToInt(Integer::parseInt).toArray();
+        return arrangements(conditions, groups);
     }
 
-    boolean matches(int start, int end) {
-        int p = start;
-        if (p > 0 && conditions.get(p - 1) == Condition.DAMAGED) {
-            return false;
+    static long arrangements(byte[] conditions, int[] groups) {
+        int n = conditions.length;
+        var operational = mask(conditions, OPERATIONAL);
+        var damaged = mask(conditions, DAMAGED);
+        var row = new long[n + 1];
+        var next = new long[n + 1];
+        row[0] = 1;
+        for (int p = 1; p <= n && !isSet(damaged, p - 1); p++) {
+            row[p] = 1;
         }
-        while (p < end) {
-            if (conditions.get(p++) == Condition.OPERATIONAL) {
-                return false;
+        for (int group : groups) {
+            Arrays.fill(next, 0, Math.min(group, n + 1), 0);
+            for (int end = group; end <= n; end++) {
+                int start = end - group;
+                long placed = 0;
+                if (clear(operational, start, end)) {
+                    if (start == 0) {
+                        placed = row[0];
+                    } else if (!isSet(damaged, start - 1)) {
+                        placed = row[start - 1];
+                    }
+                }
+                next[end] = isSet(damaged, end - 1) ? placed : Math.addExact(placed, next[end - 1]);
             }
+            var swap = row;
+            row = next;
+            next = swap;
         }
-        return p >= conditions.size() || conditions.get(p) != Condition.DAMAGED;
+        return row[n];
     }
 
-    boolean matches() {
-        int p = 0;
-        while (p < conditions.size()) {
-            if (conditions.get(p++) == Condition.DAMAGED) {
-                return false;
+    private static long[] mask(byte[] conditions, byte condition) {
+        var mask = new long[(conditions.length + 63) >>> 6];
+        for (int p = 0; p < conditions.length; p++) {
+            if (conditions[p] == condition) {
+                mask[p >>> 6] |= 1L << p;
             }
         }
-        return true;
+        return mask;
     }
 
-    SpringConditions sub(int from, int to) {
-        return new SpringConditions(conditions.subList(from, to));
+    private static boolean isSet(long[] mask, int p) {
+        return (mask[p >>> 6] & 1L << p) != 0;
     }
-}
 
-record GroupSizesOfDamagedSprings(List<Integer> sizes) {
-    static GroupSizesOfDamagedSprings from(String line, int n) {
-        var dup = IntStream.range(0, n).mapToObj(z -> line).collect(Collectors.joining(","));
-        return new GroupSizesOfDamagedSprings(Arrays.stream(dup.split(",")).map(Integer::parseInt).toList());
-    }
-
-    GroupSizesOfDamagedSprings sub(int from, int to) {
-        return new GroupSizesOfDamagedSprings(sizes.subList(from, to));
-    }
-}
-
-record ConditionRecord(SpringConditions springConditions, GroupSizesOfDamagedSprings groupSizesOfDamagedSprings) {
-    private static final Map<ConditionRecord, Long> CACHE = new HashMap<>();
-
-    static ConditionRecord from(String line, int n) {
-        var parts = line.split(" ");
-        return new ConditionRecord(SpringConditions.from(parts[0], n), GroupSizesOfDamagedSprings.from(parts[1], n));
-    }
-
-    ConditionRecord sub(int fromSpring, int toSpring, int fromGroup, int toGroup) {
-        return new ConditionRecord(springConditions.sub(fromSpring, toSpring), groupSizesOfDamagedSprings.sub(fromGroup, toGroup));
-    }
-
-    long arrangements() {
-        Long cached = CACHE.get(this);
-        if (cached != null) {
-            return cached;
+    /**
+     * True when no bit in {@code [from, to)} is set.
+     */
+    private static boolean clear(long[] mask, int from, int to) {
+        if (from >= to) {
+            return true;
         }
-        int groups = groupSizesOfDamagedSprings.sizes().size();
-        int springs = springConditions.conditions().size();
-        long total;
-        if (groups == 0) {
-            total = springConditions.matches() ? 1L : 0L;
-        } else {
-            total = 0L;
-            int half = groups >> 1;
-            Integer halfSize = groupSizesOfDamagedSprings.sizes().get(half);
-            int leftMargin = groups > 1 ? IntStream.range(0, half).map(i -> groupSizesOfDamagedSprings.sizes().get(i) + 1).sum() : 0;
-            int rightMargin = IntStream.range(half + 1, groups).map(i -> groupSizesOfDamagedSprings.sizes().get(i) + 1).sum() - 1;
-            for (int i = leftMargin; i + halfSize < springs - rightMargin; i++) {
-                if (springConditions.matches(i, i + halfSize)) {
-                    long leftTotal = i - 1 > 0 ? sub(0, i - 1, 0, half).arrangements() : 1L;
-                    long rightTotal = i + halfSize + 1 < springs ? sub(i + halfSize + 1, springs, half + 1, groups).arrangements() : 1L;
-                    total = total + leftTotal * rightTotal;
-                }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long low = -1L << from;
+        long high = -1L >>> -to;
+        if (first == last) {
+            return (mask[first] & low & high) == 0;
+        }
+        if ((mask[first] & low) != 0 || (mask[last] & high) != 0) {
+            return false;
+        }
+        for (int w = first + 1; w < last; w++) {
+            if (mask[w] != 0) {
+                return false;
             }
         }
-        CACHE.put(this, total);
-        return total;
-    }
-}
-
-record Springs(List<ConditionRecord> conditionRecords) {
-    static Springs parse(Stream<String> lines, int n) {
-        return new Springs(lines.map(line -> ConditionRecord.from(line, n)).toList());
+        return true;
     }
 
-    long arrangements() {
-        return conditionRecords.stream().mapToLong(ConditionRecord::arrangements).sum();
+    static long arrangements(List<String> lines, int unfold) {
+        return lines.parallelStream().mapToLong(line -> arrangements(line, unfold)).reduce(0, Math::addExact);
     }
 }
 
-class Puzzle {
-    void solve(int n) throws IOException {
+class Puzzle implements Solver {
+    private final List<String> lines;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day12/day12_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var springs = Springs.parse(reader.lines(), n);
-            System.out.println(springs.arrangements());
+            lines = reader.lines().toList();
         }
     }
+
+    @Override
+    public Object part1() {
+        return ArrangementCounter.arrangements(lines, 1);
+    }
+
+    @Override
+    public Object part2() {
+        return ArrangementCounter.arrangements(lines, 5);
+    }
 }
 
 public class Day12 {
     public static void main(String[] args) throws IOException {
-        new Puzzle().solve(1);
-        new Puzzle().solve(5);
+        new Puzzle().solve();
     }
 }
@@ -1,17 +1,14 @@
 package year2023.day13;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public class Day13 {
     public static void main(String[] args) throws IOException {
@@ -19,101 +16,89 @@ public class Day13 {
     }
 }
 
-record Mirror(ArrayList<String> rows, Set<Long> solutions) {
-    static Mirror from(ArrayList<String> rows) {
-        return new Mirror(rows, new TreeSet<>());
-    }
-
-    private static boolean isReallyIt(final int i, List<String> strings) {
-        int l = i - 1;
-        int r = i;
-        final int s = strings.size();
-        while (l >= 0 && r < s) {
-            if (!strings.get(l).equals(strings.get(r))) {
-                return false;
+/**
+ * Pattern with each row and each column as a bitmask of its rocks. Two mirrored lines differ in as many cells as the
+ * popcount of their XOR, so an axis with exactly {@code smudges} smudges is one where those popcounts add up to
+ * {@code smudges}.
+ */
+record Mirror(long[] rows, long[] columns) {
+    static Mirror from(List<String> lines) {
+        int width = lines.getFirst().length();
+        if (width > Long.SIZE || lines.size() > Long.SIZE) {
+            throw new IllegalArgumentException("pattern too large");
+        }
+        var rows = new long[lines.size()];
+        var columns = new long[width];
+        for (int y = 0; y < lines.size(); y++) {
+            for (int x = 0; x < width; x++) {
+                if (lines.get(y).charAt(x) == '#') {
+                    rows[y] |= 1L << x;
+                    columns[x] |= 1L << y;
+                }
             }
-            --l;
-            ++r;
         }
-        return true;
-    }
-
-    private void findSolution() {
-        List<String> columns = IntStream.range(0, rows.get(0).length()).mapToObj(i -> rows.stream().map(row -> row.charAt(i)).map(String::valueOf).collect(Collectors.joining())).toList();
-        solutions.addAll(axes(columns, 1L));
-        solutions.addAll(axes(rows, 100L));
+        return new Mirror(rows, columns);
     }
 
-    long summary() {
-        findSolution();
-        return solutions.stream().findFirst().orElseThrow();
-    }
-
-    private Set<Long> axes(List<String> strings, long factor) {
-        return IntStream.range(1, strings.size()).filter(i -> strings.get(i - 1).equals(strings.get(i))).filter(i -> isReallyIt(i, strings)).mapToObj(i -> factor * i).collect(Collectors.toSet());
-    }
-
-    private char toggle(char c) {
-        return switch (c) {
-            case '.' -> '#';
-            case '#' -> '.';
-            default -> throw new IllegalArgumentException();
-        };
-    }
-
-    private Stream<String> smudge(String s) {
-        return IntStream.range(0, s.length()).mapToObj(i -> s.substring(0, i) + toggle(s.charAt(i)) + s.substring(i + 1));
-    }
-
-    long smudge() {
-        Long originalSolution = solutions.stream().findFirst().orElseThrow();
-        IntStream.range(0, rows.size()).boxed().forEach(i -> {
-            String save = rows.get(i);
-            smudge(save).forEach(s -> {
-                rows.set(i, s);
-                findSolution();
-            });
-            rows.set(i, save);
-        });
-        Set<Long> copy = new TreeSet<>(solutions);
-        copy.remove(originalSolution);
-        return copy.stream().findFirst().orElseThrow();
+    static List<Mirror> parse(List<String> lines) {
+        List<Mirror> mirrors = new ArrayList<>();
+        int from = 0;
+        for (int i = 0; i <= lines.size(); i++) {
+            if (i == lines.size() || lines.get(i).isEmpty()) {
+                if (i > from) {
+                    mirrors.add(from(lines.subList(from, i)));
+                }
+                from = i + 1;
+            }
+        }
+        return mirrors;
     }
-}
 
-record Mirrors(List<Mirror> mirrors) {
-    static Mirrors parse(Stream<String> lines) {
-        List<ArrayList<String>> blocks = new ArrayList<>();
-        AtomicInteger counter = new AtomicInteger();
-        lines.forEach(line -> {
-            if (line.isEmpty()) {
-                counter.incrementAndGet();
-            } else {
-                if (counter.get() == blocks.size()) {
-                    blocks.add(new ArrayList<>());
-                }
-                blocks.get(counter.get()).add(line);
+    /**
+     * Axes between line {@code i - 1} and line {@code i} where the mirrored lines differ in exactly {@code smudges}
+     * cells.
+     */
+    static IntStream axes(long[] lines, int smudges) {
+        return IntStream.range(1, lines.length).filter(i -> {
+            int differences = 0;
+            for (int l = i - 1, r = i; l >= 0 && r < lines.length && differences <= smudges; l--, r++) {
+                differences += Long.bitCount(lines[l] ^ lines[r]);
             }
+            return differences == smudges;
         });
-        return new Mirrors(blocks.stream().map(Mirror::from).toList());
     }
 
-    long summary() {
-        return mirrors.stream().mapToLong(Mirror::summary).sum();
+    long summary(int smudges) {
+        var column = axes(columns, smudges).findFirst();
+        var row = axes(rows, smudges).findFirst();
+        if (column.isPresent() && (row.isEmpty() || column.getAsInt() <= 100L * row.getAsInt())) {
+            return column.getAsInt();
+        }
+        return 100L * row.orElseThrow();
     }
 
-    public long smudge() {
-        return mirrors.stream().mapToLong(Mirror::smudge).sum();
+    static long summary(List<Mirror> mirrors, int smudges) {
+        return mirrors.parallelStream().mapToLong(mirror -> mirror.summary(smudges)).sum();
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    private final List<Mirror> mirrors;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day13/day13_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var mirrors = Mirrors.parse(reader.lines());
-            System.out.println(mirrors.summary());
-            System.out.println(mirrors.smudge());
+            mirrors = Mirror.parse(reader.lines().toList());
         }
     }
+
+    @Override
+    public Object part1() {
+        return Mirror.summary(mirrors, 0);
+    }
+
+    @Override
+    public Object part2() {
+        return Mirror.summary(mirrors, 1);
+    }
 }
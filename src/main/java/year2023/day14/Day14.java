@@ -1,11 +1,12 @@
 package year2023.day14;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -66,6 +67,10 @@ record Coordinate(int x, int y) implements Comparable<Coordinate> {
     }
 }
 
+/**
+ * The original map-based platform. The puzzle no longer uses it; it is kept as the baseline for
+ * {@code SpinCycleBenchmark} in the benchmarks module.
+ */
 record Platform(Map<Coordinate, Rock> rocks, int width, int height) {
     static Platform parse(Stream<String> lines) {
         Map<Coordinate, Rock> rocks = new TreeMap<>();
@@ -146,23 +151,334 @@ record Platform(Map<Coordinate, Rock> rocks, int width, int height) {
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+/**
+ * Platform as bitboards: round rocks one line of words per row while tilting west or east, and one line per column
+ * while tilting north or south, transposed between the two in 64 by 64 blocks. A tilt counts the rocks between two
+ * cube rocks and packs that many bits against one end.
+ */
+class BitPlatform {
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private final int width;
+    private final int height;
+    private final int rowStride;
+    private final int columnStride;
+    private final Segments rowSegments;
+    private final Segments columnSegments;
+    private long[] rows;
+    private final long[] columns;
+    private long[] rowScratch;
+    private final long[] columnScratch;
+
+    /**
+     * Stretches of lines between cube rocks: from bit {@code from[i]} up to {@code to[i]} of the line starting at word
+     * {@code base[i]}. Stretches within a single word also get their {@code mask}, which is zero otherwise.
+     */
+    private record Segments(int[] base, int[] from, int[] to, long[] mask) {
+        static Segments of(long[] cubes, int lines, int length, int stride) {
+            int size = 0;
+            var base = new int[16];
+            var from = new int[16];
+            var to = new int[16];
+            for (int l = 0; l < lines; l++) {
+                int start = 0;
+                for (int i = 0; i <= length; i++) {
+                    if (i == length || bit(cubes, l * stride, i)) {
+                        if (i > start) {
+                            if (size == base.length) {
+                                base = Arrays.copyOf(base, size * 2);
+                                from = Arrays.copyOf(from, size * 2);
+                                to = Arrays.copyOf(to, size * 2);
+                            }
+                            base[size] = l * stride;
+                            from[size] = start;
+                            to[size++] = i;
+                        }
+                        start = i + 1;
+                    }
+                }
+            }
+            var mask = new long[size];
+            for (int i = 0; i < size; i++) {
+                if (from[i] >> 6 == (to[i] - 1) >> 6) {
+                    mask[i] = wordMask(from[i] >> 6, from[i], to[i]);
+                }
+            }
+            return new Segments(Arrays.copyOf(base, size), Arrays.copyOf(from, size), Arrays.copyOf(to, size), mask);
+        }
+    }
+
+    private BitPlatform(int width, int height, long[] rows, long[] cubes) {
+        this.width = width;
+        this.height = height;
+        rowStride = (width + 63) >> 6;
+        columnStride = (height + 63) >> 6;
+        this.rows = rows;
+        columns = new long[(rowStride << 6) * columnStride];
+        rowScratch = new long[rows.length];
+        columnScratch = new long[columns.length];
+        var cubeColumns = new long[columns.length];
+        transpose(cubes, rowStride, cubeColumns, columnStride);
+        rowSegments = Segments.of(cubes, height, width, rowStride);
+        columnSegments = Segments.of(cubeColumns, width, height, columnStride);
+    }
+
+    static BitPlatform parse(List<String> lines) {
+        int width = lines.getFirst().length();
+        int height = lines.size();
+        int stride = (width + 63) >> 6;
+        var rows = new long[(((height + 63) >> 6) << 6) * stride];
+        var cubes = new long[rows.length];
+        for (int y = 0; y < height; y++) {
+            var line = lines.get(y);
+            if (line.length() != width) {
+                throw new IllegalArgumentException();
+            }
+            for (int x = 0; x < width; x++) {
+                switch (line.charAt(x)) {
+                    case 'O' -> rows[y * stride + (x >> 6)] |= 1L << x;
+                    case '#' -> cubes[y * stride + (x >> 6)] |= 1L << x;
+                    case '.' -> {
+                    }
+                    default -> throw new IllegalArgumentException(line);
+                }
+            }
+        }
+        return new BitPlatform(width, height, rows, cubes);
+    }
+
+    private static boolean bit(long[] bits, int base, int i) {
+        return (bits[base + (i >> 6)] & 1L << i) != 0;
+    }
+
+    /**
+     * Mask of bits {@code from} up to {@code to} within word {@code word} of a line.
+     */
+    private static long wordMask(int word, int from, int to) {
+        int low = Math.max(from - (word << 6), 0);
+        int high = Math.min(to - (word << 6), 64);
+        return high >= 64 ? -1L << low : (1L << high) - (1L << low);
+    }
+
+    private static int count(long[] bits, int base, int from, int to) {
+        int count = 0;
+        for (int w = from >> 6; w <= (to - 1) >> 6; w++) {
+            count += Long.bitCount(bits[base + w] & wordMask(w, from, to));
+        }
+        return count;
+    }
+
+    private static void fill(long[] bits, int base, int from, int to) {
+        for (int w = from >> 6; w <= (to - 1) >> 6; w++) {
+            bits[base + w] |= wordMask(w, from, to);
+        }
+    }
+
+    private static void transpose(long[] block) {
+        long m = 0x00000000FFFFFFFFL;
+        for (int j = 32; j != 0; j >>= 1, m ^= m << j) {
+            for (int k = 0; k < 64; k = ((k | j) + 1) & ~j) {
+                long t = (block[k] >>> j ^ block[k | j]) & m;
+                block[k] ^= t << j;
+                block[k | j] ^= t;
+            }
+        }
+    }
+
+    /**
+     * Transposes lines of {@code sourceStride} words into lines of {@code targetStride} words.
+     */
+    private static void transpose(long[] source, int sourceStride, long[] target, int targetStride) {
+        var block = new long[64];
+        for (int i = 0; i < targetStride; i++) {
+            for (int j = 0; j < sourceStride; j++) {
+                for (int k = 0; k < 64; k++) {
+                    block[k] = source[((i << 6) + k) * sourceStride + j];
+                }
+                transpose(block);
+                for (int k = 0; k < 64; k++) {
+                    target[((j << 6) + k) * targetStride + i] = block[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs the rocks of every segment against its low end, or its high end if {@code high} is set.
+     */
+    private static void tilt(long[] bits, long[] tilted, Segments segments, boolean high) {
+        Arrays.fill(tilted, 0);
+        for (int i = 0; i < segments.mask().length; i++) {
+            int base = segments.base()[i];
+            int from = segments.from()[i];
+            int to = segments.to()[i];
+            long mask = segments.mask()[i];
+            if (mask != 0) {
+                int word = base + (from >> 6);
+                int count = Long.bitCount(bits[word] & mask);
+                if (count > 0) {
+                    tilted[word] |= -1L >>> (64 - count) << (high ? ((to - 1) & 63) + 1 - count : from & 63);
+                }
+            } else {
+                int count = count(bits, base, from, to);
+                if (count > 0) {
+                    fill(tilted, base, high ? to - count : from, high ? to : from + count);
+                }
+            }
+        }
+    }
+
+    private void tiltColumns(boolean high) {
+        transpose(rows, rowStride, columns, columnStride);
+        tilt(columns, columnScratch, columnSegments, high);
+        transpose(columnScratch, columnStride, rows, rowStride);
+    }
+
+    private void tiltRows(boolean high) {
+        tilt(rows, rowScratch, rowSegments, high);
+        var swap = rows;
+        rows = rowScratch;
+        rowScratch = swap;
+    }
+
+    void tiltNorth() {
+        tiltColumns(false);
+    }
+
+    void tiltSouth() {
+        tiltColumns(true);
+    }
+
+    void tiltWest() {
+        tiltRows(false);
+    }
+
+    void tiltEast() {
+        tiltRows(true);
+    }
+
+    void cycle() {
+        tiltNorth();
+        tiltWest();
+        tiltSouth();
+        tiltEast();
+    }
+
+    long load() {
+        long load = 0;
+        for (int y = 0; y < height; y++) {
+            load += (long) count(rows, y * rowStride, 0, width) * (height - y);
+        }
+        return load;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Two independent 64-bit Zobrist hashes of the round rocks, with the key of every cell derived from its index.
+     */
+    long[] hash() {
+        long first = 0;
+        long second = 0;
+        for (int i = 0; i < rows.length; i++) {
+            for (long word = rows[i]; word != 0; word &= word - 1) {
+                long cell = ((long) i << 6) + Long.numberOfTrailingZeros(word);
+                first ^= mix(cell * GOLDEN);
+                second ^= mix(cell * GOLDEN + GOLDEN);
+            }
+        }
+        return new long[]{first, second};
+    }
+
+    /**
+     * Load after the given number of spin cycles, found by recording the state after each cycle until one repeats.
+     */
+    long loadAfter(long cycles) {
+        var seen = new StateTable();
+        List<Long> loads = new ArrayList<>();
+        for (int i = 0; i < cycles; i++) {
+            cycle();
+            var hash = hash();
+            int first = seen.putIfAbsent(hash[0], hash[1], i);
+            if (first >= 0) {
+                return loads.get((int) (first + (cycles - 1 - first) % (i - first)));
+            }
+            loads.add(load());
+        }
+        return load();
+    }
+}
+
+/**
+ * Open-addressing map from 128-bit state hashes to the cycle they were first seen in.
+ */
+class StateTable {
+    private long[] keys = new long[1 << 8];
+    private int[] values = new int[1 << 7];
+    private int size;
+
+    private int slot(long first, long second) {
+        int mask = values.length - 1;
+        int i = (int) (first ^ first >>> 32) & mask;
+        while (values[i] != 0 && (keys[2 * i] != first || keys[2 * i + 1] != second)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the value stored for the hash, or stores {@code value} and returns -1 if there was none.
+     */
+    int putIfAbsent(long first, long second, int value) {
+        int i = slot(first, second);
+        if (values[i] != 0) {
+            return values[i] - 1;
+        }
+        keys[2 * i] = first;
+        keys[2 * i + 1] = second;
+        values[i] = value + 1;
+        if (++size > values.length >> 1) {
+            var oldKeys = keys;
+            var oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            for (int j = 0; j < oldValues.length; j++) {
+                if (oldValues[j] != 0) {
+                    int k = slot(oldKeys[2 * j], oldKeys[2 * j + 1]);
+                    keys[2 * k] = oldKeys[2 * j];
+                    keys[2 * k + 1] = oldKeys[2 * j + 1];
+                    values[k] = oldValues[j];
+                }
+            }
+        }
+        return -1;
+    }
+}
+
+class Puzzle implements Solver {
+    static final long CYCLES = 1000000000;
+
+    private final List<String> lines;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day14/day14_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var platform = Platform.parse(reader.lines());
-            platform.tiltNorth();
-            System.out.println(platform.load());
-            List<String> l = new ArrayList<>();
-            List<Integer> l2 = new ArrayList<>();
-            do {
-                platform.cycle();
-                l.add(platform.toString());
-                l2.add(platform.load());
-            } while (l.size() == new HashSet<>(l).size());
-            int last = l.size() - 1;
-            int first = l.indexOf(l.get(last));
-            System.out.println(l2.get(first + (1000000000 - 1 - first) % (last - first)));
+            lines = reader.lines().toList();
         }
     }
+
+    @Override
+    public Object part1() {
+        var platform = BitPlatform.parse(lines);
+        platform.tiltNorth();
+        return platform.load();
+    }
+
+    @Override
+    public Object part2() {
+        return BitPlatform.parse(lines).loadAfter(CYCLES);
+    }
 }
@@ -1,128 +1,271 @@
 package year2023.day15;
 
-import java.io.BufferedReader;
+import common.Solver;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
-
-enum Action {REMOVE, INSERT}
 
 public class Day15 {
-    public static void main(String[] args) throws IOException {
+    public static void main(String[] args) throws IOException, URISyntaxException {
         new Puzzle().solve();
     }
 }
 
-record LavaProductionFacility(Map<Integer, Box> boxes) {
-    LavaProductionFacility() {
-        this(new HashMap<>());
-    }
+/**
+ * Lenses of one box in the order they were inserted. Removed lenses stay behind as tombstones until they outnumber
+ * the live ones, so a removal does not shift the others. An open-addressing index from label to slot finds a lens
+ * without scanning; it is rebuilt whenever the slots move.
+ */
+class LensBox {
+    private static final int TOMBSTONE = -1;
+    private long[] labels = new long[8];
+    private int[] focalLengths = new int[8];
+    private long[] indexLabels = new long[16];
+    private int[] indexSlots = new int[16];
+    private int size;
+    private int live;
 
-    void process(Instruction instruction) {
-        var box = boxes.computeIfAbsent(instruction.boxNumber(), z -> new Box(instruction.boxNumber()));
-        switch (instruction.action()) {
-            case INSERT -> box.insert(instruction.label(), instruction.focalLength());
-            case REMOVE -> box.remove(instruction.label());
+    private int probe(long label) {
+        int mask = indexSlots.length - 1;
+        long h = label * 0x9E3779B97F4A7C15L;
+        int i = (int) (h ^ h >>> 32) & mask;
+        while (indexSlots[i] != 0 && indexLabels[i] != label) {
+            i = (i + 1) & mask;
         }
+        return i;
     }
 
-    void process(Instructions instructions) {
-        instructions.instructions().forEach(this::process);
+    private int find(long label) {
+        int i = probe(label);
+        if (indexSlots[i] == 0) {
+            return -1;
+        }
+        int slot = indexSlots[i] - 1;
+        return focalLengths[slot] != TOMBSTONE ? slot : -1;
     }
 
-    int focusingPower() {
-        return boxes.values().stream().mapToInt(Box::focusingPower).sum();
+    void insert(long label, int focalLength) {
+        int slot = find(label);
+        if (slot != -1) {
+            focalLengths[slot] = focalLength;
+            return;
+        }
+        if (size == labels.length) {
+            if (live < size / 2) {
+                compact();
+            } else {
+                labels = Arrays.copyOf(labels, size * 2);
+                focalLengths = Arrays.copyOf(focalLengths, size * 2);
+                indexLabels = new long[labels.length * 2];
+                indexSlots = new int[labels.length * 2];
+            }
+            reindex();
+        }
+        labels[size] = label;
+        focalLengths[size] = focalLength;
+        int i = probe(label);
+        indexLabels[i] = label;
+        indexSlots[i] = ++size;
+        ++live;
     }
-}
 
-record Box(int number, Map<String, Integer> lenses) {
-    Box(int number) {
-        this(number, new LinkedHashMap<>());
+    void remove(long label) {
+        int slot = find(label);
+        if (slot != -1) {
+            focalLengths[slot] = TOMBSTONE;
+            --live;
+        }
     }
 
-    void insert(String label, int focalLength) {
-        lenses.put(label, focalLength);
+    private void compact() {
+        int to = 0;
+        for (int i = 0; i < size; i++) {
+            if (focalLengths[i] != TOMBSTONE) {
+                labels[to] = labels[i];
+                focalLengths[to++] = focalLengths[i];
+            }
+        }
+        size = to;
     }
 
-    void remove(String label) {
-        lenses.remove(label);
+    private void reindex() {
+        Arrays.fill(indexSlots, 0);
+        for (int slot = 0; slot < size; slot++) {
+            int i = probe(labels[slot]);
+            indexLabels[i] = labels[slot];
+            indexSlots[i] = slot + 1;
+        }
     }
 
-    int focusingPower() {
-        AtomicInteger i = new AtomicInteger();
-        return lenses.values().stream().mapToInt(l -> l * i.incrementAndGet()).sum() * (number + 1);
+    long focusingPower(int number) {
+        long power = 0;
+        int slot = 0;
+        for (int i = 0; i < size; i++) {
+            if (focalLengths[i] != TOMBSTONE) {
+                power += (long) (number + 1) * ++slot * focalLengths[i];
+            }
+        }
+        return power;
     }
 }
 
-record Instruction(String line) {
-    private static final Pattern PATTERN = Pattern.compile("(.*)(=\\d|-)");
+/**
+ * Runs the initialization sequence a byte at a time, so it can be fed from any number of buffers without holding the
+ * sequence in memory. Steps end at a comma or a line break. Labels of up to eight characters are packed into a long
+ * as they are; longer ones get a 63-bit hash with the top bit set, which never clashes with a packed label.
+ */
+class InitializationSequence {
+    private static final int LABEL = 0;
+    private static final int FOCAL_LENGTH = 1;
+    private static final int REMOVED = 2;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final int CHUNK = 1 << 16;
+    private final LensBox[] boxes = new LensBox[256];
+    private long hashSum;
+    private int state = LABEL;
+    private int stepLength;
+    private int stepHash;
+    private int box;
+    private long label;
+    private long labelHash;
+    private int labelLength;
+    private int focalLength;
 
-    static int hash(String line) {
-        int h = 0;
-        for (int i = 0; i < line.length(); i++) {
-            h += line.charAt(i);
-            h += h << 4;
-            h &= 0xff;
+    InitializationSequence() {
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = new LensBox();
         }
-        return h;
     }
 
-    int hash() {
-        return hash(line);
+    static int hash(int h, int b) {
+        return (h + b) * 17 & 0xff;
     }
 
-    Matcher matcher() {
-        var matcher = PATTERN.matcher(line);
-        if (!matcher.matches()) {
-            throw new IllegalStateException();
+    void process(ByteBuffer buffer) {
+        var chunk = new byte[CHUNK];
+        while (buffer.hasRemaining()) {
+            int length = Math.min(CHUNK, buffer.remaining());
+            buffer.get(chunk, 0, length);
+            for (int i = 0; i < length; i++) {
+                accept(chunk[i]);
+            }
         }
-        return matcher;
     }
 
-    String label() {
-        return matcher().group(1);
+    void accept(byte b) {
+        if (b == ',' || b == '\n' || b == '\r') {
+            endStep();
+            return;
+        }
+        ++stepLength;
+        stepHash = hash(stepHash, b);
+        switch (state) {
+            case LABEL -> {
+                if (b == '=') {
+                    state = FOCAL_LENGTH;
+                } else if (b == '-') {
+                    state = REMOVED;
+                } else {
+                    box = hash(box, b);
+                    label = label << 8 | b & 0xff;
+                    labelHash = (labelHash ^ b & 0xff) * FNV_PRIME;
+                    ++labelLength;
+                }
+            }
+            case FOCAL_LENGTH -> focalLength = focalLength * 10 + b - '0';
+            default -> throw new IllegalArgumentException("unexpected " + (char) b + " after -");
+        }
     }
 
-    int boxNumber() {
-        return hash(label());
+    private void endStep() {
+        if (stepLength == 0) {
+            return;
+        }
+        hashSum += stepHash;
+        long key = labelLength <= 8 ? label : labelHash | Long.MIN_VALUE;
+        switch (state) {
+            case FOCAL_LENGTH -> boxes[box].insert(key, focalLength);
+            case REMOVED -> boxes[box].remove(key);
+            default -> throw new IllegalArgumentException("step without an operation");
+        }
+        state = LABEL;
+        stepLength = 0;
+        stepHash = 0;
+        box = 0;
+        label = 0;
+        labelHash = 0;
+        labelLength = 0;
+        focalLength = 0;
     }
 
-    Action action() {
-        return matcher().group(2).equals("-") ? Action.REMOVE : Action.INSERT;
+    /**
+     * Maps the file in chunks of at most a gigabyte.
+     */
+    void process(Path path) throws IOException {
+        try (var channel = FileChannel.open(path)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += 1 << 30) {
+                process(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(1 << 30, size - position)));
+            }
+        }
+        endStep();
     }
 
-    int focalLength() {
-        return Integer.parseInt(matcher().group(2).replace("=", ""));
+    /**
+     * Reads the whole stream in fixed-size chunks, for input that is not a plain file, such as a resource in a jar.
+     */
+    void process(InputStream input) throws IOException {
+        var chunk = new byte[CHUNK];
+        for (int length; (length = input.read(chunk)) > 0; ) {
+            for (int i = 0; i < length; i++) {
+                accept(chunk[i]);
+            }
+        }
+        endStep();
     }
-}
 
-record Instructions(List<Instruction> instructions) {
-    static Instructions parse(Stream<String> lines) {
-        return new Instructions(lines.map(Instruction::new).toList());
+    long hashSum() {
+        return hashSum;
     }
 
-    int hash() {
-        return instructions.stream().mapToInt(Instruction::hash).sum();
+    long focusingPower() {
+        long power = 0;
+        for (int i = 0; i < boxes.length; i++) {
+            power += boxes[i].focusingPower(i);
+        }
+        return power;
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
-        try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day15/day15_input"))) {
-            var reader = new BufferedReader(new InputStreamReader(input));
-            var instructions = Instructions.parse(reader.lines());
-            System.out.println(instructions.hash());
-            var facility = new LavaProductionFacility();
-            facility.process(instructions);
-            System.out.println(facility.focusingPower());
+class Puzzle implements Solver {
+    static final String INPUT = "/year2023/day15/day15_input";
+
+    private final InitializationSequence sequence = new InitializationSequence();
+
+    Puzzle() throws IOException, URISyntaxException {
+        var url = Objects.requireNonNull(getClass().getResource(INPUT));
+        if ("file".equals(url.getProtocol())) {
+            sequence.process(Path.of(url.toURI()));
+        } else {
+            try (var input = Objects.requireNonNull(getClass().getResourceAsStream(INPUT))) {
+                sequence.process(input);
+            }
         }
     }
+
+    @Override
+    public Object part1() {
+        return sequence.hashSum();
+    }
+
+    @Override
+    public Object part2() {
+        return sequence.focusingPower();
+    }
 }
@@ -1,18 +1,27 @@
 package year2023.day16;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -166,13 +175,334 @@ record Grid(Map<Coordinate, Tile> tileMap, Set<CH> visitedCoordinateHeadings) {
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+/**
+ * The contraption compiled for many beams. Every mirror or splitter hit from one of four headings is a node, and
+ * every way out of a tile is a precomputed straight segment to the next tile or out of the grid. A beam is a walk over
+ * nodes that marks segment cells in a bitset, so only the tiles cost anything per beam. Strongly connected groups of
+ * nodes energise the same cells from wherever they are entered, so the cells reachable from each group with a cycle
+ * are computed once and shared by all beams.
+ * <p>
+ * A node's heading is the orthogonal grid direction halved, so that a node is four times its tile plus its heading.
+ */
+class BeamEngine {
+    static final int NORTH = DenseGrid.NORTH / 2;
+    static final int EAST = DenseGrid.EAST / 2;
+    static final int SOUTH = DenseGrid.SOUTH / 2;
+    static final int WEST = DenseGrid.WEST / 2;
+    private static final int BLOCK = 8;
+    private static final long MAX_CACHED_WORDS = 1L << 22;
+
+    private final ByteGrid grid;
+    private final int[] tileIds;
+    private final int[] tileCells;
+    private final byte[] outs;
+    private final int[] segmentLength;
+    private final int[] segmentNext;
+    private final int[] components;
+    private final long[][] reach;
+
+    BeamEngine(List<String> lines) {
+        grid = ByteGrid.parse(lines);
+        tileIds = new int[grid.size()];
+        var tileCells = new int[grid.size()];
+        int tiles = 0;
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (grid.at(cell) == '.') {
+                tileIds[cell] = -1;
+            } else {
+                tileIds[cell] = tiles;
+                tileCells[tiles++] = cell;
+            }
+        }
+        this.tileCells = Arrays.copyOf(tileCells, tiles);
+        outs = new byte[tiles * 4];
+        segmentLength = new int[tiles * 4];
+        segmentNext = new int[tiles * 4];
+        for (int tile = 0; tile < tiles; tile++) {
+            int cell = this.tileCells[tile];
+            for (int heading = 0; heading < 4; heading++) {
+                int node = tile * 4 + heading;
+                outs[node] = switch (grid.at(cell)) {
+                    case '/' -> (byte) (1 << (heading ^ 1));
+                    case '\\' -> (byte) (1 << (3 - heading));
+                    case '|' -> (byte) ((heading & 1) == 0 ? 1 << heading : 1 << NORTH | 1 << SOUTH);
+                    case '-' -> (byte) ((heading & 1) == 1 ? 1 << heading : 1 << EAST | 1 << WEST);
+                    default -> throw new IllegalArgumentException("unknown tile " + (char) grid.at(cell));
+                };
+                int length = 0;
+                int next = step(cell, heading);
+                for (; next != -1 && tileIds[next] == -1; next = step(next, heading)) {
+                    ++length;
+                }
+                segmentLength[node] = length;
+                segmentNext[node] = next == -1 ? -1 : tileIds[next] * 4 + heading;
+            }
+        }
+        components = components();
+        reach = reach();
+    }
+
+    private int step(int cell, int heading) {
+        return grid.neighbour(cell, heading * 2);
+    }
+
+    /**
+     * Strongly connected components of the node graph, numbered in the order Tarjan's algorithm completes them, which
+     * puts every component after the ones it leads to.
+     */
+    private int[] components() {
+        int nodes = outs.length;
+        var components = new int[nodes];
+        var index = new int[nodes];
+        var low = new int[nodes];
+        var onStack = new boolean[nodes];
+        var stack = new int[nodes];
+        var callNode = new int[nodes];
+        var callOut = new int[nodes];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int depth = 0;
+        int size = 0;
+        int component = 0;
+        for (int root = 0; root < nodes; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            callNode[0] = root;
+            callOut[0] = 0;
+            index[root] = low[root] = counter++;
+            stack[size++] = root;
+            onStack[root] = true;
+            depth = 1;
+            while (depth > 0) {
+                int node = callNode[depth - 1];
+                int heading = callOut[depth - 1]++;
+                if (heading < 4) {
+                    int next = (outs[node] & 1 << heading) != 0 ? segmentNext[node - (node & 3) + heading] : -1;
+                    if (next == -1) {
+                        continue;
+                    }
+                    if (index[next] == -1) {
+                        index[next] = low[next] = counter++;
+                        stack[size++] = next;
+                        onStack[next] = true;
+                        callNode[depth] = next;
+                        callOut[depth++] = 0;
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+                if (low[node] == index[node]) {
+                    int member;
+                    do {
+                        member = stack[--size];
+                        onStack[member] = false;
+                        components[member] = component;
+                    } while (member != node);
+                    ++component;
+                }
+                if (--depth > 0) {
+                    int parent = callNode[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Energised cells for every component that contains a cycle, as long as they fit in the memory budget.
+     */
+    private long[][] reach() {
+        int count = Arrays.stream(components).max().orElse(-1) + 1;
+        var sizes = new int[count];
+        for (int component : components) {
+            ++sizes[component];
+        }
+        var first = new int[count];
+        Arrays.fill(first, -1);
+        for (int node = outs.length - 1; node >= 0; node--) {
+            first[components[node]] = node;
+        }
+        var reach = new long[count][];
+        var beam = new Beam(reach);
+        long budget = MAX_CACHED_WORDS;
+        for (int component = 0; component < count && budget >= beam.cells.length; component++) {
+            if (sizes[component] > 1) {
+                beam.clear();
+                beam.walk(first[component]);
+                reach[component] = beam.cells.clone();
+                budget -= beam.cells.length;
+            }
+        }
+        return reach;
+    }
+
+    /**
+     * Per-thread state of a beam: energised cells, visited nodes, and the components whose cells were already added.
+     */
+    private class Beam {
+        final long[] cells = new long[(grid.size() + 63) >> 6];
+        final long[] visited = new long[(outs.length + 63) >> 6];
+        final long[] added;
+        final int[] stack = new int[outs.length];
+        final long[][] reach;
+        int size;
+
+        Beam(long[][] reach) {
+            this.reach = reach;
+            added = new long[(reach.length + 63) >> 6];
+        }
+
+        void clear() {
+            Arrays.fill(cells, 0);
+            Arrays.fill(visited, 0);
+            Arrays.fill(added, 0);
+        }
+
+        private void mark(int cell) {
+            cells[cell >> 6] |= 1L << cell;
+        }
+
+        /**
+         * Marks the {@code length} cells after {@code cell} in {@code heading}; a row is contiguous in the unpadded
+         * grid, so horizontal runs are set a word at a time.
+         */
+        private void mark(int cell, int heading, int length) {
+            if (heading == EAST || heading == WEST) {
+                int from = heading == EAST ? cell + 1 : cell - length;
+                int to = from + length;
+                for (int w = from >> 6; w <= (to - 1) >> 6 && length > 0; w++) {
+                    int low = Math.max(from - (w << 6), 0);
+                    int high = Math.min(to - (w << 6), 64);
+                    cells[w] |= high >= 64 ? -1L << low : (1L << high) - (1L << low);
+                }
+            } else {
+                int stride = grid.offset(heading * 2);
+                for (int i = 1; i <= length; i++) {
+                    mark(cell + i * stride);
+                }
+            }
+        }
+
+        private void push(int node) {
+            if ((visited[node >> 6] & 1L << node) == 0) {
+                visited[node >> 6] |= 1L << node;
+                stack[size++] = node;
+            }
+        }
+
+        void walk(int start) {
+            push(start);
+            while (size > 0) {
+                int node = stack[--size];
+                int component = components[node];
+                if (reach[component] != null) {
+                    if ((added[component >> 6] & 1L << component) == 0) {
+                        added[component >> 6] |= 1L << component;
+                        for (int i = 0; i < cells.length; i++) {
+                            cells[i] |= reach[component][i];
+                        }
+                    }
+                    continue;
+                }
+                int cell = tileCells[node >> 2];
+                mark(cell);
+                for (int heading = 0; heading < 4; heading++) {
+                    if ((outs[node] & 1 << heading) != 0) {
+                        int segment = node - (node & 3) + heading;
+                        mark(cell, heading, segmentLength[segment]);
+                        if (segmentNext[segment] != -1) {
+                            push(segmentNext[segment]);
+                        }
+                    }
+                }
+            }
+        }
+
+        int energised(int x, int y, int heading) {
+            clear();
+            int cell = grid.index(x, y);
+            while (cell != -1 && tileIds[cell] == -1) {
+                mark(cell);
+                cell = step(cell, heading);
+            }
+            if (cell != -1) {
+                walk(tileIds[cell] * 4 + heading);
+            }
+            int energised = 0;
+            for (long word : cells) {
+                energised += Long.bitCount(word);
+            }
+            return energised;
+        }
+    }
+
+    int energised(int x, int y, int heading) {
+        return new Beam(reach).energised(x, y, heading);
+    }
+
+    /**
+     * Most energised cells for a beam entering from any edge, with the entries handed out to the threads in blocks.
+     */
+    int maxEnergised(int parallelism) {
+        List<int[]> entries = new ArrayList<>();
+        for (int x = 0; x < grid.width(); x++) {
+            entries.add(new int[]{x, 0, SOUTH});
+            entries.add(new int[]{x, grid.height() - 1, NORTH});
+        }
+        for (int y = 0; y < grid.height(); y++) {
+            entries.add(new int[]{0, y, EAST});
+            entries.add(new int[]{grid.width() - 1, y, WEST});
+        }
+        var next = new AtomicInteger();
+        List<Callable<Integer>> workers = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(() -> {
+                var beam = new Beam(reach);
+                int max = 0;
+                for (int from = next.getAndAdd(BLOCK); from < entries.size(); from = next.getAndAdd(BLOCK)) {
+                    for (int j = from; j < Math.min(from + BLOCK, entries.size()); j++) {
+                        var entry = entries.get(j);
+                        max = Math.max(max, beam.energised(entry[0], entry[1], entry[2]));
+                    }
+                }
+                return max;
+            });
+        }
+        try (var pool = new ForkJoinPool(parallelism)) {
+            int max = 0;
+            for (var result : pool.invokeAll(workers)) {
+                max = Math.max(max, result.get());
+            }
+            return max;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
+
+class Puzzle implements Solver {
+    private final BeamEngine engine;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day16/day16_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var grid = Grid.parse(reader.lines());
-            System.out.println(grid.illuminatedTiles(0, 0, Heading.EAST));
-            System.out.println(grid.maxIllumination());
+            engine = new BeamEngine(reader.lines().toList());
         }
     }
+
+    @Override
+    public Object part1() {
+        return engine.energised(0, 0, BeamEngine.EAST);
+    }
+
+    @Override
+    public Object part2() {
+        return engine.maxEnergised(Runtime.getRuntime().availableProcessors());
+    }
 }
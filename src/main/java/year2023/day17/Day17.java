@@ -1,9 +1,15 @@
 package year2023.day17;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.PriorityQueue;
@@ -34,8 +40,7 @@ enum Heading {
 
 public class Day17 {
     public static void main(String[] args) throws IOException {
-        new Puzzle().solve(false);
-        new Puzzle().solve(true);
+        new Puzzle().solve();
     }
 }
 
@@ -156,12 +161,103 @@ record Grid(Map<Coordinate, Node> nodeMap, Queue<Target> queue, Node initial, No
     }
 }
 
-class Puzzle {
-    void solve(boolean ultra) throws IOException {
+/**
+ * Shortest path over states (cell, axis of the last run) with Dial's algorithm: heat losses are small integers, so a
+ * circular array of buckets, one per distance modulo the largest possible run cost, serves as the priority queue.
+ */
+class CrucibleRouter {
+    private static final int HORIZONTAL = 0;
+    private static final int VERTICAL = 1;
+    private static final byte BORDER = 0;
+    private final ByteGrid blocks;
+
+    CrucibleRouter(List<String> lines) {
+        blocks = ByteGrid.padded(lines, BORDER);
+    }
+
+    /**
+     * Least heat loss from the top left to the bottom right for a crucible that moves at least {@code minRun} and at
+     * most {@code maxRun} blocks before turning. A run stops at the border.
+     */
+    int minHeatLoss(int minRun, int maxRun) {
+        int maxHeatLoss = 0;
+        for (int y = 0; y < blocks.height(); y++) {
+            for (int x = 0; x < blocks.width(); x++) {
+                maxHeatLoss = Math.max(maxHeatLoss, blocks.get(x, y) - '0');
+            }
+        }
+        int bucketCount = maxHeatLoss * maxRun + 1;
+        var buckets = new int[bucketCount][];
+        var sizes = new int[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new int[16];
+        }
+        var distance = new int[blocks.size() * 2];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        int start = blocks.index(0, 0);
+        int destination = blocks.index(blocks.width() - 1, blocks.height() - 1);
+        distance[start << 1 | HORIZONTAL] = 0;
+        distance[start << 1 | VERTICAL] = 0;
+        buckets[0][sizes[0]++] = start << 1 | HORIZONTAL;
+        buckets[0][sizes[0]++] = start << 1 | VERTICAL;
+        int queued = 2;
+        for (int current = 0; queued > 0; current++) {
+            int bucket = current % bucketCount;
+            while (sizes[bucket] > 0) {
+                int state = buckets[bucket][--sizes[bucket]];
+                --queued;
+                if (distance[state] != current) {
+                    continue;
+                }
+                int cell = state >> 1;
+                if (cell == destination) {
+                    return current;
+                }
+                int axis = (state & 1) ^ 1;
+                for (int direction = axis == HORIZONTAL ? DenseGrid.EAST : DenseGrid.NORTH; direction < 8; direction += 4) {
+                    int loss = current;
+                    int next = cell;
+                    for (int run = 1; run <= maxRun; run++) {
+                        next = blocks.step(next, direction);
+                        if (blocks.at(next) == BORDER) {
+                            break;
+                        }
+                        loss += blocks.at(next) - '0';
+                        int nextState = next << 1 | axis;
+                        if (run >= minRun && loss < distance[nextState]) {
+                            distance[nextState] = loss;
+                            int target = loss % bucketCount;
+                            if (sizes[target] == buckets[target].length) {
+                                buckets[target] = Arrays.copyOf(buckets[target], sizes[target] * 2);
+                            }
+                            buckets[target][sizes[target]++] = nextState;
+                            ++queued;
+                        }
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("destination unreachable");
+    }
+}
+
+class Puzzle implements Solver {
+    private final CrucibleRouter router;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day17/day17_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var grid = Grid.parse(reader.lines(), ultra);
-            System.out.println(grid.solve());
+            router = new CrucibleRouter(reader.lines().toList());
         }
     }
+
+    @Override
+    public Object part1() {
+        return router.minHeatLoss(1, 3);
+    }
+
+    @Override
+    public Object part2() {
+        return router.minHeatLoss(4, 10);
+    }
 }
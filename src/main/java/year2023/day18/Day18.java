@@ -1,14 +1,14 @@
 package year2023.day18;
 
+import common.Polygon;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.function.Function;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 enum Heading {
@@ -30,19 +30,6 @@ enum Heading {
     }
 }
 
-enum Turn {
-    CLOCKWISE, COUNTERCLOCKWISE;
-
-    static Turn from(Heading from, Heading to) {
-        int d = to.ordinal() - from.ordinal() & 0x3;
-        return switch (d) {
-            case 1 -> CLOCKWISE;
-            case 3 -> COUNTERCLOCKWISE;
-            default -> throw new IllegalStateException();
-        };
-    }
-}
-
 @FunctionalInterface
 interface Mover<T> {
     T move(T movable, long units);
@@ -50,8 +37,7 @@ interface Mover<T> {
 
 public class Day18 {
     public static void main(String[] args) throws IOException {
-        new Puzzle().solve(false);
-        new Puzzle().solve(true);
+        new Puzzle().solve();
     }
 }
 
@@ -113,51 +99,37 @@ record DigPlan(List<Instruction> instructions) {
         return new DigPlan(lines.map(line -> Instruction.from(line, correct)).toList());
     }
 
-    static long area(List<Coordinate> path) {
-        List<Coordinate> loop = new ArrayList<>(path);
-        loop.add(path.get(0));
-        long doubleArea = 0;
-        //noinspection DuplicatedCode - copied from day 10
-        for (int i = 0; i + 1 < loop.size(); i++) {
-            var a = loop.get(i);
-            var b = loop.get(i + 1);
-            doubleArea += a.x() * b.y() - a.y() * b.x();
-        }
-        return Math.abs(doubleArea) / 2;
-    }
-
     List<Coordinate> coordinates() {
         var digger = new Digger();
         return instructions.stream().map(digger::follow).toList();
     }
 
-    List<Turn> turns() {
-        List<Turn> turns = new ArrayList<>();
-        var lastHeading = instructions.get(instructions.size() - 1).heading();
-        for (Instruction instruction : instructions) {
-            var heading = instruction.heading();
-            turns.add(Turn.from(lastHeading, heading));
-            lastHeading = heading;
-        }
-        return turns;
-    }
-
     long execute() {
-        var map = turns().stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-        var totalCounterclockwise = map.getOrDefault(Turn.COUNTERCLOCKWISE, 0L);
-        var totalClockwise = map.getOrDefault(Turn.CLOCKWISE, 0L);
-        long corners = totalCounterclockwise > totalClockwise ? totalClockwise + 3 * totalCounterclockwise : totalCounterclockwise + 3 * totalClockwise;
-        long edges = instructions.stream().mapToLong(i -> i.meters() - 1).sum();
-        return area(coordinates()) + (corners + 2 * edges) / 4;
+        var coordinates = coordinates();
+        return new Polygon(coordinates.stream().mapToLong(Coordinate::x).toArray(), coordinates.stream().mapToLong(Coordinate::y).toArray()).enclosed();
     }
 }
 
-class Puzzle {
-    void solve(boolean correct) throws IOException {
+class Puzzle implements Solver {
+    private final DigPlan plan;
+    private final DigPlan correctedPlan;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day18/day18_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var plan = DigPlan.parse(reader.lines(), correct);
-            System.out.println(plan.execute());
+            var lines = reader.lines().toList();
+            plan = DigPlan.parse(lines.stream(), false);
+            correctedPlan = DigPlan.parse(lines.stream(), true);
         }
     }
+
+    @Override
+    public Object part1() {
+        return plan.execute();
+    }
+
+    @Override
+    public Object part2() {
+        return correctedPlan.execute();
+    }
 }
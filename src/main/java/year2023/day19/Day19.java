@@ -1,20 +1,18 @@
 package year2023.day19;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.function.Function;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 enum Category {
     EXTREMELY_COOL_LOOKING('x'),
@@ -29,7 +27,17 @@ enum Category {
     }
 
     static Category from(String s) {
-        return Arrays.stream(values()).filter(c -> c.symbol == s.charAt(0)).findFirst().orElseThrow();
+        return from(s.charAt(0));
+    }
+
+    static Category from(char symbol) {
+        return switch (symbol) {
+            case 'x' -> EXTREMELY_COOL_LOOKING;
+            case 'm' -> MUSICAL;
+            case 'a' -> AERODYNAMIC;
+            case 's' -> SHINY;
+            default -> throw new IllegalArgumentException(String.valueOf(symbol));
+        };
     }
 }
 
@@ -39,123 +47,29 @@ public class Day19 {
     }
 }
 
-record Range(long from, long to) {
-    static final long MIN = 1L;
-    static final long MAX = 4001L;
-    static final Range ALL = new Range(MIN, MAX);
-
-    static Range lessThan(long to) {
-        return new Range(MIN, to);
-    }
-
-    static Range notLessThan(long to) {
-        return new Range(to, MAX);
-    }
-
-    static Range greaterThan(long from) {
-        return new Range(from + 1, MAX);
-    }
-
-    static Range notGreaterThan(long from) {
-        return new Range(MIN, from + 1);
-    }
-
-    static Range from(long value) {
-        return new Range(value, value + 1);
-    }
-
-    boolean intersects(Range other) {
-        return Long.max(from, other.from) < Long.min(to, other.to);
-    }
-
-    Range intersection(Range other) {
-        return new Range(Long.max(from, other.from), Long.min(to, other.to));
-    }
-
-    long size() {
-        return to - from;
-    }
-
-    @Override
-    public String toString() {
-        return "[" + from + "," + to + ")";
-    }
-}
-
-record Tesseract(Map<Category, Range> ranges) {
-    static final Tesseract ALL = new Tesseract(Map.of(
-            Category.EXTREMELY_COOL_LOOKING, Range.ALL,
-            Category.MUSICAL, Range.ALL,
-            Category.AERODYNAMIC, Range.ALL,
-            Category.SHINY, Range.ALL));
-
-    static Tesseract build(Category category, Function<Long, Range> f, long value) {
-        return new Tesseract(Arrays.stream(Category.values()).map(c -> new CR(c, c == category ? f.apply(value) : Range.ALL)).collect(Collectors.toMap(CR::category, CR::range)));
-    }
-
-    static Tesseract lessThan(Category category, long to) {
-        return build(category, Range::lessThan, to);
-    }
-
-    static Tesseract greaterThan(Category category, long from) {
-        return build(category, Range::greaterThan, from);
-    }
-
-    static Tesseract notLessThan(Category category, long to) {
-        return build(category, Range::notLessThan, to);
-    }
-
-    static Tesseract notGreaterThan(Category category, long from) {
-        return build(category, Range::notGreaterThan, from);
-    }
-
-    static Tesseract from(Part part) {
-        return new Tesseract(Arrays.stream(Category.values()).map(c -> new CR(c, Range.from(part.ratings().get(c)))).collect(Collectors.toMap(CR::category, CR::range)));
-    }
-
-    boolean intersects(Tesseract other) {
-        return Arrays.stream(Category.values()).allMatch(c -> ranges.get(c).intersects(other.ranges.get(c)));
-    }
-
-    Tesseract intersection(Tesseract other) {
-        return other == null ? null : new Tesseract(Arrays.stream(Category.values()).map(c -> new CR(c, ranges.get(c).intersection(other.ranges.get(c)))).collect(Collectors.toMap(CR::category, CR::range)));
-    }
-
-    long size() {
-        return ranges.values().stream().mapToLong(Range::size).reduce(1, (a, b) -> a * b);
-    }
-
-    @Override
-    public String toString() {
-        return Arrays.stream(Category.values()).map(c -> c.symbol + "=" + ranges.get(c)).collect(Collectors.joining(","));
-    }
-
-    record CR(Category category, Range range) {
-    }
-}
-
-record Rule(Tesseract tesseract, Tesseract complement, String next) {
+/**
+ * One step of a workflow. A conditional rule sends a part to {@code next} when the rating of {@code category} is less
+ * than {@code value} (or greater, if not {@code less}); an unconditional one has no category.
+ */
+record Rule(Category category, boolean less, int value, String next) {
     private static final Pattern PATTERN = Pattern.compile("(.)([<>])(\\d+):([a-z]+|A|R)");
     private static final Pattern SIMPLE_PATTERN = Pattern.compile("([a-z]+|A|R)");
 
     static Rule from(String s) {
         var m = PATTERN.matcher(s);
         if (m.matches()) {
-            var category = Category.from(m.group(1));
-            var value = Long.parseLong(m.group(3));
-            var tesseract = m.group(2).equals("<") ? Tesseract.lessThan(category, value) : Tesseract.greaterThan(category, value);
-            var complement = m.group(2).equals("<") ? Tesseract.notLessThan(category, value) : Tesseract.notGreaterThan(category, value);
-            return new Rule(tesseract, complement, m.group(4));
+            return new Rule(Category.from(m.group(1)), m.group(2).equals("<"), Integer.parseInt(m.group(3)), m.group(4));
         }
         var sm = SIMPLE_PATTERN.matcher(s);
         if (!sm.matches()) {
             throw new IllegalArgumentException();
         }
-        return new Rule(Tesseract.ALL, null, sm.group(1));
+        return new Rule(null, false, 0, sm.group(1));
     }
-}
 
-record TS(Tesseract tesseract, String next) {
+    boolean conditional() {
+        return category != null;
+    }
 }
 
 record Workflow(String name, List<Rule> rules) {
@@ -168,102 +82,263 @@ record Workflow(String name, List<Rule> rules) {
         }
         return new Workflow(m.group(1), Arrays.stream(m.group(2).split(",")).map(Rule::from).toList());
     }
+}
 
-    List<TS> process(Tesseract tesseract) {
-        List<TS> r = new ArrayList<>();
-        for (var rule : rules) {
-            if (tesseract.intersects(rule.tesseract())) {
-                r.add(new TS(tesseract.intersection(rule.tesseract()), rule.next()));
+/**
+ * All workflows flattened into one binary decision graph, starting at rule 0 of {@code in}. Every node tests whether
+ * a rating is below a threshold; the leaves are {@link #ACCEPT} and {@link #REJECT}. The node for a rule is shared by
+ * every path that reaches it, and tests that lead to the same place either way are dropped. A part follows exactly one
+ * path, so the boxes of ratings that end in the accepting leaf are disjoint and their volumes simply add up.
+ * <p>
+ * Neither compiling nor counting recurses, so chains of workflows of any length fit on the call stack.
+ */
+final class DecisionTree {
+    static final int ACCEPT = -1;
+    static final int REJECT = -2;
+    static final int MIN = 1;
+    static final int MAX = 4001;
+    private static final int UNSET = -3;
+    private static final int IN_PROGRESS = -4;
+    private static final int CATEGORIES = Category.values().length;
+
+    private final Map<String, Workflow> workflows;
+    private final Map<String, int[]> compiled = new HashMap<>();
+    private int[] categories = new int[16];
+    private int[] thresholds = new int[16];
+    private int[] below = new int[16];
+    private int[] notBelow = new int[16];
+    private int size = 0;
+    private final int root;
+
+    DecisionTree(Map<String, Workflow> workflows) {
+        this.workflows = workflows;
+        root = compile("in");
+    }
+
+    private record Step(String name, int index) {
+    }
+
+    private int[] ids(String name) {
+        return compiled.computeIfAbsent(name, n -> {
+            var workflow = workflows.get(n);
+            if (workflow == null) {
+                throw new IllegalStateException("unknown workflow " + n);
             }
-            tesseract = tesseract.intersection(rule.complement());
-        }
-        return r;
+            var array = new int[workflow.rules().size()];
+            Arrays.fill(array, UNSET);
+            return array;
+        });
     }
-}
 
-record Part(Map<Category, Long> ratings) {
-    private static final Pattern PATTERN = Pattern.compile("\\{(.*)}");
-    private static final Pattern P2 = Pattern.compile("(.)=(\\d+)");
-
-    static Part parse(String line) {
-        var m = PATTERN.matcher(line);
-        if (!m.matches()) {
-            throw new IllegalArgumentException();
-        }
-        Map<Category, Long> ratings = new HashMap<>();
-        Arrays.stream(m.group(1).split(",")).forEach(s -> {
-            var m2 = P2.matcher(s);
-            if (!m2.matches()) {
-                throw new IllegalArgumentException();
+    private int resolved(String next) {
+        return switch (next) {
+            case "A" -> ACCEPT;
+            case "R" -> REJECT;
+            default -> ids(next)[0];
+        };
+    }
+
+    /**
+     * Compiles a workflow depth first with an explicit stack. A rule is marked in progress on its first visit, when
+     * the rules it depends on are pushed, and gets its node on the second, once they are all done; a rule that is
+     * still in progress when it is needed again means a loop.
+     */
+    private int compile(String name) {
+        var stack = new ArrayDeque<Step>();
+        push(stack, name, 0);
+        while (!stack.isEmpty()) {
+            var step = stack.peek();
+            var ids = ids(step.name());
+            int index = step.index();
+            var rule = workflows.get(step.name()).rules().get(index);
+            if (ids[index] == UNSET) {
+                ids[index] = IN_PROGRESS;
+                if (rule.conditional()) {
+                    if (index + 1 == ids.length) {
+                        throw new IllegalStateException("workflow " + step.name() + " ends in a condition");
+                    }
+                    push(stack, step.name(), index + 1);
+                }
+                push(stack, rule.next(), 0);
+                continue;
             }
-            ratings.put(Category.from(m2.group(1)), Long.parseLong(m2.group(2)));
-        });
-        return new Part(ratings);
+            stack.pop();
+            if (ids[index] != IN_PROGRESS) {
+                continue;
+            }
+            int matched = resolved(rule.next());
+            if (!rule.conditional()) {
+                ids[index] = matched;
+            } else {
+                int rest = ids[index + 1];
+                ids[index] = rule.less() ? node(rule.category(), rule.value(), matched, rest) : node(rule.category(), rule.value() + 1, rest, matched);
+            }
+        }
+        return resolved(name);
     }
 
-    long sum() {
-        return ratings.values().stream().mapToLong(l -> l).sum();
+    private void push(Deque<Step> stack, String name, int index) {
+        if (name.equals("A") || name.equals("R")) {
+            return;
+        }
+        int id = ids(name)[index];
+        if (id == IN_PROGRESS) {
+            throw new IllegalStateException("workflow " + name + " loops back on itself");
+        }
+        if (id == UNSET) {
+            stack.push(new Step(name, index));
+        }
     }
-}
 
-record WorkflowsAndParts(Map<String, Workflow> workflows, List<Part> parts) {
-    static WorkflowsAndParts parse(Stream<String> lines) {
-        Map<String, Workflow> workflows = new HashMap<>();
-        List<Part> parts = new ArrayList<>();
-        class StateHolder {
-            boolean parts;
+    private int node(Category category, int threshold, int ifBelow, int ifNotBelow) {
+        if (ifBelow == ifNotBelow) {
+            return ifBelow;
         }
-        var state = new StateHolder();
-        lines.forEach(line -> {
-            if (line.isEmpty()) {
-                state.parts = true;
-            } else if (state.parts) {
-                parts.add(Part.parse(line));
-            } else {
-                var workflow = Workflow.parse(line);
-                workflows.put(workflow.name(), workflow);
-            }
-        });
-        return new WorkflowsAndParts(workflows, parts);
+        if (size == categories.length) {
+            categories = Arrays.copyOf(categories, size * 2);
+            thresholds = Arrays.copyOf(thresholds, size * 2);
+            below = Arrays.copyOf(below, size * 2);
+            notBelow = Arrays.copyOf(notBelow, size * 2);
+        }
+        categories[size] = category.ordinal();
+        thresholds[size] = threshold;
+        below[size] = ifBelow;
+        notBelow[size] = ifNotBelow;
+        return size++;
     }
 
-    Set<Tesseract> process(Workflow workflow, Tesseract tesseract) {
-        Set<Tesseract> tesseracts = new HashSet<>();
-        for (var ts : workflow.process(tesseract)) {
-            if (ts.next().equals("A")) {
-                tesseracts.add(ts.tesseract());
-            } else if (!ts.next().equals("R")) {
-                tesseracts.addAll(process(workflows.get(ts.next()), ts.tesseract()));
+    boolean accepts(int[] ratings) {
+        int node = root;
+        while (node >= 0) {
+            node = ratings[categories[node]] < thresholds[node] ? below[node] : notBelow[node];
+        }
+        return node == ACCEPT;
+    }
+
+    /**
+     * Number of rating combinations from {@link #MIN} up to but excluding {@link #MAX} that are accepted.
+     */
+    long acceptedCombinations() {
+        long volume = 0;
+        var boxes = accepted();
+        for (int b = 0; b < boxes.length; b += 2 * CATEGORIES) {
+            long box = 1;
+            for (int c = 0; c < CATEGORIES; c++) {
+                box *= boxes[b + 2 * c + 1] - boxes[b + 2 * c];
             }
+            volume += box;
+        }
+        return volume;
+    }
+
+    /**
+     * The accepted region of every node, memoised by node: disjoint boxes of ratings, each stored as a from and to per
+     * category. Children are always created before their parents, so one pass in node order fills them all in.
+     */
+    private int[] accepted() {
+        var full = new int[2 * CATEGORIES];
+        for (int c = 0; c < CATEGORIES; c++) {
+            full[2 * c] = MIN;
+            full[2 * c + 1] = MAX;
         }
-        return tesseracts;
+        var regions = new int[size][];
+        for (int node = 0; node < size; node++) {
+            var ifBelow = region(below[node], regions, full);
+            var ifNotBelow = region(notBelow[node], regions, full);
+            var region = new int[ifBelow.length + ifNotBelow.length];
+            int length = clip(ifBelow, categories[node], MIN, thresholds[node], region, 0);
+            length = clip(ifNotBelow, categories[node], thresholds[node], MAX, region, length);
+            regions[node] = Arrays.copyOf(region, length);
+        }
+        return region(root, regions, full);
+    }
+
+    private static int[] region(int node, int[][] regions, int[] full) {
+        return node == ACCEPT ? full : node == REJECT ? new int[0] : regions[node];
+    }
+
+    /**
+     * Copies the boxes of {@code region} into {@code into} at {@code length} with category {@code c} narrowed to
+     * {@code [from, to)}, dropping the ones that become empty, and returns the new length.
+     */
+    private static int clip(int[] region, int c, int from, int to, int[] into, int length) {
+        for (int b = 0; b < region.length; b += 2 * CATEGORIES) {
+            int low = Math.max(region[b + 2 * c], from);
+            int high = Math.min(region[b + 2 * c + 1], to);
+            if (low < high) {
+                System.arraycopy(region, b, into, length, 2 * CATEGORIES);
+                into[length + 2 * c] = low;
+                into[length + 2 * c + 1] = high;
+                length += 2 * CATEGORIES;
+            }
+        }
+        return length;
     }
+}
+
+/**
+ * Sums the ratings of accepted parts, reading {@code {x=..,m=..,a=..,s=..}} lines by hand into one reused array.
+ */
+class PartSorter {
+    private final DecisionTree tree;
+    private final int[] ratings = new int[Category.values().length];
+    private long sum = 0;
 
-    long process() {
-        var accepted = process(workflows.get("in"), Tesseract.ALL);
-        return parts.stream().filter(part -> accepted.stream().anyMatch(tesseract -> tesseract.intersects(Tesseract.from(part)))).mapToLong(Part::sum).sum();
+    PartSorter(DecisionTree tree) {
+        this.tree = tree;
     }
 
-    long totalSize() {
-        Set<Tesseract> all = process(workflows.get("in"), Tesseract.ALL);
-        Set<Tesseract> tmp = new HashSet<>(all);
-        Set<Tesseract> intersections = all.stream().flatMap(t1 -> {
-            tmp.remove(t1);
-            return tmp.stream().filter(t1::intersects).map(t1::intersection);
-        }).collect(Collectors.toSet());
-        // We don't have three different tesseracts with nonempty intersection, so we don't have
-        // to do complicated stuff with the inclusion/exclusion principle.
-        return all.stream().mapToLong(Tesseract::size).sum() - intersections.stream().mapToLong(Tesseract::size).sum();
+    void accept(String line) {
+        Arrays.fill(ratings, 0);
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) != '=') {
+                continue;
+            }
+            int category = Category.from(line.charAt(i - 1)).ordinal();
+            int value = 0;
+            char c;
+            while (++i < line.length() && (c = line.charAt(i)) >= '0' && c <= '9') {
+                value = value * 10 + c - '0';
+            }
+            ratings[category] = value;
+        }
+        if (tree.accepts(ratings)) {
+            for (int rating : ratings) {
+                sum += rating;
+            }
+        }
+    }
+
+    long sum() {
+        return sum;
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    private final DecisionTree tree;
+    private final PartSorter sorter;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day19/day19_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var workflowAndParts = WorkflowsAndParts.parse(reader.lines());
-            System.out.println(workflowAndParts.process());
-            System.out.println(workflowAndParts.totalSize());
+            Map<String, Workflow> workflows = new HashMap<>();
+            for (String line; !(line = reader.readLine()).isEmpty(); ) {
+                var workflow = Workflow.parse(line);
+                workflows.put(workflow.name(), workflow);
+            }
+            tree = new DecisionTree(workflows);
+            sorter = new PartSorter(tree);
+            reader.lines().forEach(sorter::accept);
         }
     }
+
+    @Override
+    public Object part1() {
+        return sorter.sum();
+    }
+
+    @Override
+    public Object part2() {
+        return tree.acceptedCombinations();
+    }
 }
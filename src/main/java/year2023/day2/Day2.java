@@ -1,5 +1,7 @@
 package year2023.day2;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -32,34 +34,28 @@ enum Ball {
 
 public class Day2 {
     public static void main(String[] args) throws IOException {
-        new Puzzle1().solve();
-        new Puzzle2().solve();
+        new Puzzle().solve();
     }
 }
 
-abstract class Puzzle {
-    abstract void solve(Game[] games);
+class Puzzle implements Solver {
+    private final Game[] games;
 
-    void solve() throws IOException {
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day2/day2_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var games = reader.lines().map(Game::from).toArray(Game[]::new);
-            solve(games);
+            games = reader.lines().map(Game::from).toArray(Game[]::new);
         }
     }
-}
 
-class Puzzle1 extends Puzzle {
     @Override
-    void solve(Game[] games) {
-        System.out.println(Arrays.stream(games).filter(Game::isPossible).mapToInt(Game::id).sum());
+    public Object part1() {
+        return Arrays.stream(games).filter(Game::isPossible).mapToInt(Game::id).sum();
     }
-}
 
-class Puzzle2 extends Puzzle {
     @Override
-    void solve(Game[] games) {
-        System.out.println(Arrays.stream(games).mapToInt(Game::power).sum());
+    public Object part2() {
+        return Arrays.stream(games).mapToInt(Game::power).sum();
     }
 }
 
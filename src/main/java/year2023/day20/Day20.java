@@ -1,268 +1,496 @@
 package year2023.day20;
 
+import common.Orbit;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.math.BigInteger;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-enum Signal {LOW, HIGH}
-
-interface Module {
-    String name();
-
-    void receive(Pulse pulse, Module sender);
-}
-
 public class Day20 {
     public static void main(String[] args) throws IOException {
         new Puzzle().solve();
     }
 }
 
-record Pulse(Signal signal, long id, Module sender, Module receiver) {
-}
-
-record Coordinator(AtomicLong lows, AtomicLong highs, Deque<Pulse> sendQueue, Deque<Pulse> processQueue,
-                   AtomicLong buttonPresses, Observer observer) {
-    Coordinator(Observer observer) {
-        this(new AtomicLong(), new AtomicLong(), new ArrayDeque<>(), new ArrayDeque<>(), new AtomicLong(), observer);
-    }
+/**
+ * The module network with names interned to ids and connections flattened into edge arrays. Edge 0 runs from the
+ * button to the broadcaster; the edges leaving a module are contiguous, from {@code outStart[m]} up to
+ * {@code outStart[m + 1]}.
+ */
+record Circuit(String[] names, byte[] types, int[] outStart, int[] sources, int[] targets, int[] inputCount) {
+    static final byte BUTTON = 0;
+    static final byte BROADCASTER = 1;
+    static final byte FLIP_FLOP = 2;
+    static final byte CONJUNCTION = 3;
+    static final byte OUTPUT = 4;
+    private static final Pattern PATTERN = Pattern.compile("([&%]?)([a-z]+) -> (.*)");
 
-    void queue(Pulse pulse) {
-        if (pulse.sender() instanceof Button) {
-            buttonPresses.incrementAndGet();
+    static Circuit parse(Stream<String> lines) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        List<Byte> types = new ArrayList<>();
+        List<List<String>> receivers = new ArrayList<>();
+        names.add("button");
+        types.add(BUTTON);
+        receivers.add(List.of("broadcaster"));
+        ids.put("button", 0);
+        lines.forEach(line -> {
+            var m = PATTERN.matcher(line);
+            if (!m.matches()) {
+                throw new IllegalArgumentException(line);
+            }
+            var name = m.group(2);
+            if (ids.putIfAbsent(name, names.size()) != null) {
+                throw new IllegalStateException("duplicate module " + name);
+            }
+            names.add(name);
+            types.add(switch (m.group(1)) {
+                case "" -> BROADCASTER;
+                case "%" -> FLIP_FLOP;
+                case "&" -> CONJUNCTION;
+                default -> throw new IllegalArgumentException();
+            });
+            receivers.add(Arrays.asList(m.group(3).split(", ")));
+        });
+        if (!ids.containsKey("broadcaster")) {
+            throw new IllegalStateException("no broadcaster");
+        }
+        for (int i = 0; i < names.size(); i++) {
+            for (var receiver : receivers.get(i)) {
+                if (ids.putIfAbsent(receiver, names.size()) == null) {
+                    names.add(receiver);
+                    types.add(OUTPUT);
+                    receivers.add(List.of());
+                }
+            }
         }
-        if (pulse.signal() == Signal.HIGH) {
-            observer.inspect(buttonPresses.get(), pulse.sender());
+        int n = names.size();
+        var outStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            outStart[i + 1] = outStart[i] + receivers.get(i).size();
         }
-        sendQueue.addFirst(pulse);
-    }
-
-    void sendLowPulse(Module sender, Module receiver) {
-        queue(new Pulse(Signal.LOW, lows.incrementAndGet(), sender, receiver));
-    }
-
-    void sendHighPulse(Module sender, Module receiver) {
-        queue(new Pulse(Signal.HIGH, highs.incrementAndGet(), sender, receiver));
+        var sources = new int[outStart[n]];
+        var targets = new int[outStart[n]];
+        var inputCount = new int[n];
+        for (int i = 0; i < n; i++) {
+            int e = outStart[i];
+            for (var receiver : receivers.get(i)) {
+                sources[e] = i;
+                targets[e] = ids.get(receiver);
+                ++inputCount[targets[e]];
+                ++e;
+            }
+        }
+        var typeArray = new byte[n];
+        for (int i = 0; i < n; i++) {
+            typeArray[i] = types.get(i);
+        }
+        return new Circuit(names.toArray(String[]::new), typeArray, outStart, sources, targets, inputCount);
     }
 
-    void runQueue() {
-        while (!sendQueue.isEmpty()) {
-            processQueue.addAll(sendQueue);
-            sendQueue.clear();
-            while (!processQueue.isEmpty()) {
-                Pulse pulse = processQueue.removeLast();
-                pulse.receiver().receive(pulse, pulse.sender());
+    int id(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
             }
         }
+        return -1;
     }
-}
 
-abstract class AbstractModule implements Module {
-    final Coordinator coordinator;
-    final List<Module> receivers = new ArrayList<>();
-    private final String name;
-
-    AbstractModule(String name, Coordinator coordinator) {
-        this.name = name;
-        this.coordinator = coordinator;
+    int modules() {
+        return names.length;
     }
 
-    @Override
-    public String name() {
-        return name;
+    int edges() {
+        return targets.length;
     }
 }
 
-class Dummy extends AbstractModule {
-    Dummy(String name, Coordinator coordinator) {
-        super(name, coordinator);
+/**
+ * Mutable state of a circuit: flip-flops as a bitset over modules, conjunction memory as a bitset over edges with a
+ * count of high inputs per conjunction, and pulses in flight in a ring of ints holding {@code edge << 1 | high}.
+ * <p>
+ * A sink module can be watched during a press. Its input edges are split into groups; a group is hit when all its
+ * edges are high at some point of the press, or, with {@code lowHits}, when any of them carries a low pulse.
+ */
+final class PulseEngine {
+    private final Circuit circuit;
+    private final long[] flipFlops;
+    private final long[] memory;
+    private final int[] highInputs;
+    private int[] ring = new int[1024];
+    private long lows = 0;
+    private long highs = 0;
+
+    private int sink = -1;
+    private boolean lowHits;
+    private int[] edgeGroup;
+    private int[] groupHigh;
+    private int[] groupSize;
+    private boolean[] hits;
+
+    PulseEngine(Circuit circuit) {
+        this.circuit = circuit;
+        flipFlops = new long[(circuit.modules() + 63) >> 6];
+        memory = new long[(circuit.edges() + 63) >> 6];
+        highInputs = new int[circuit.modules()];
     }
 
-    @Override
-    public void receive(Pulse pulse, Module sender) {
-        // do nothing
+    void watch(int sink, int[] edgeGroup, int groups, boolean lowHits) {
+        this.sink = sink;
+        this.edgeGroup = edgeGroup;
+        this.lowHits = lowHits;
+        groupHigh = new int[groups];
+        groupSize = new int[groups];
+        hits = new boolean[groups];
+        for (int e = 0; e < edgeGroup.length; e++) {
+            if (edgeGroup[e] >= 0) {
+                ++groupSize[edgeGroup[e]];
+            }
+        }
     }
-}
 
-class Button extends AbstractModule {
-    Button(String name, Coordinator coordinator) {
-        super(name, coordinator);
+    boolean[] hits() {
+        return hits;
     }
 
-    void push() {
-        coordinator.sendLowPulse(this, receivers.get(0));
+    long lows() {
+        return lows;
     }
 
-    @Override
-    public void receive(Pulse pulse, Module sender) {
-        throw new UnsupportedOperationException();
+    long highs() {
+        return highs;
     }
-}
 
-class Broadcaster extends AbstractModule {
-    Broadcaster(String name, Coordinator coordinator) {
-        super(name, coordinator);
+    boolean flipFlop(int module) {
+        return (flipFlops[module >> 6] & 1L << module) != 0;
     }
 
-    @Override
-    public void receive(Pulse pulse, Module sender) {
-        if (pulse.signal() == Signal.HIGH) {
-            throw new IllegalStateException();
+    boolean memory(int edge) {
+        return (memory[edge >> 6] & 1L << edge) != 0;
+    }
+
+    void press() {
+        if (sink >= 0) {
+            for (int g = 0; g < hits.length; g++) {
+                hits[g] = !lowHits && groupHigh[g] == groupSize[g];
+            }
+        }
+        var targets = circuit.targets();
+        var types = circuit.types();
+        var outStart = circuit.outStart();
+        int mask = ring.length - 1;
+        int head = 0;
+        int tail = 0;
+        ring[tail++] = 0;
+        while (head != tail) {
+            int pulse = ring[head++ & mask];
+            int edge = pulse >>> 1;
+            boolean high = (pulse & 1) != 0;
+            if (high) {
+                ++highs;
+            } else {
+                ++lows;
+            }
+            int module = targets[edge];
+            boolean send;
+            switch (types[module]) {
+                case Circuit.BROADCASTER -> send = high;
+                case Circuit.FLIP_FLOP -> {
+                    if (high) {
+                        continue;
+                    }
+                    flipFlops[module >> 6] ^= 1L << module;
+                    send = flipFlop(module);
+                }
+                case Circuit.CONJUNCTION -> {
+                    if (memory(edge) != high) {
+                        memory[edge >> 6] ^= 1L << edge;
+                        int delta = high ? 1 : -1;
+                        highInputs[module] += delta;
+                        if (module == sink && edgeGroup[edge] >= 0) {
+                            groupHigh[edgeGroup[edge]] += delta;
+                        }
+                    }
+                    send = highInputs[module] != circuit.inputCount()[module];
+                }
+                default -> send = false;
+            }
+            if (module == sink && edgeGroup[edge] >= 0) {
+                int g = edgeGroup[edge];
+                if (lowHits ? !high : groupHigh[g] == groupSize[g]) {
+                    hits[g] = true;
+                }
+            }
+            if (types[module] == Circuit.OUTPUT) {
+                continue;
+            }
+            int from = outStart[module];
+            int to = outStart[module + 1];
+            if (tail - head + to - from > ring.length) {
+                int[] grown = new int[Integer.highestOneBit(tail - head + to - from) << 1];
+                for (int i = head; i != tail; i++) {
+                    grown[i - head] = ring[i & mask];
+                }
+                tail -= head;
+                head = 0;
+                ring = grown;
+                mask = ring.length - 1;
+            }
+            int bit = send ? 1 : 0;
+            for (int e = from; e < to; e++) {
+                ring[tail++ & mask] = e << 1 | bit;
+            }
         }
-        receivers.forEach(m -> coordinator.sendLowPulse(this, m));
     }
 }
 
-class FlipFlop extends AbstractModule {
-    private final AtomicBoolean state = new AtomicBoolean();
-
-    FlipFlop(String name, Coordinator coordinator) {
-        super(name, coordinator);
+/**
+ * Finds the first press that sends a low pulse to a module. When that module is fed by a single conjunction that
+ * feeds nothing else, the rest of the network (without the button and broadcaster) falls apart into independent
+ * sub-circuits, each driving some of the conjunction's inputs. Each one is followed until its own state repeats, which
+ * gives its tail, period and the presses during which all its inputs to the conjunction are high; the first press on
+ * which every sub-circuit is hit is then found from those orbits. Inputs that go high during the same press are taken
+ * to be high together. Without such a split the whole network is a single group, watched for the low pulse itself;
+ * that only works for small networks, so a group that does not repeat within {@link #MAX_PRESSES} presses is taken to
+ * mean the input lacks the expected structure.
+ */
+final class PressAnalyser {
+    static final int MAX_PRESSES = 1 << 22;
+
+    private final Circuit circuit;
+
+    PressAnalyser(Circuit circuit) {
+        this.circuit = circuit;
     }
 
-    @Override
-    public void receive(Pulse pulse, Module sender) {
-        if (pulse.signal() == Signal.HIGH) {
-            return;
+    /**
+     * Number of presses until {@code target} first receives a low pulse, or null if it never does.
+     */
+    BigInteger firstLowPulse(String target) {
+        int module = circuit.id(target);
+        if (module < 0) {
+            return null;
         }
-        var newState = !state.get();
-        state.set(newState);
-        if (newState) {
-            receivers.forEach(m -> coordinator.sendHighPulse(this, m));
+        var engine = new PulseEngine(circuit);
+        var groups = split(module);
+        List<int[]> members = new ArrayList<>();
+        int[] edgeGroup = new int[circuit.edges()];
+        Arrays.fill(edgeGroup, -1);
+        int sink;
+        if (groups != null) {
+            sink = feeders(module)[0];
+            var index = new HashMap<Integer, Integer>();
+            for (int e = 0; e < circuit.edges(); e++) {
+                if (circuit.targets()[e] == sink) {
+                    int root = groups[circuit.sources()[e]];
+                    edgeGroup[e] = index.computeIfAbsent(root, r -> index.size());
+                }
+            }
+            for (int g = 0; g < index.size(); g++) {
+                members.add(null);
+            }
+            index.forEach((root, g) -> {
+                var list = new ArrayList<Integer>();
+                for (int m = 0; m < circuit.modules(); m++) {
+                    if (groups[m] == root) {
+                        list.add(m);
+                    }
+                }
+                members.set(g, list.stream().mapToInt(Integer::intValue).toArray());
+            });
+            engine.watch(sink, edgeGroup, index.size(), false);
         } else {
-            receivers.forEach(m -> coordinator.sendLowPulse(this, m));
+            sink = module;
+            for (int e = 0; e < circuit.edges(); e++) {
+                if (circuit.targets()[e] == sink) {
+                    edgeGroup[e] = 0;
+                }
+            }
+            var all = new int[circuit.modules()];
+            Arrays.setAll(all, i -> i);
+            members.add(all);
+            engine.watch(sink, edgeGroup, 1, true);
         }
+        var time = Orbit.firstCommonHit(orbits(engine, members, target, groups != null));
+        return time == null ? null : time.add(BigInteger.ONE);
     }
-}
 
-class Conjunction extends AbstractModule {
-    private final Map<Module, AtomicBoolean> state = new HashMap<>();
+    private int[] feeders(int module) {
+        return IntStream.range(0, circuit.edges()).filter(e -> circuit.targets()[e] == module)
+                .map(e -> circuit.sources()[e]).distinct().toArray();
+    }
 
-    Conjunction(String name, Coordinator coordinator) {
-        super(name, coordinator);
+    /**
+     * Component root of every module once the sink conjunction and everything upstream of the sub-circuits are taken
+     * out, or null if the network does not split that way.
+     */
+    private int[] split(int module) {
+        var feeders = feeders(module);
+        if (feeders.length != 1 || circuit.types()[feeders[0]] != Circuit.CONJUNCTION) {
+            return null;
+        }
+        int sink = feeders[0];
+        for (int e = circuit.outStart()[sink]; e < circuit.outStart()[sink + 1]; e++) {
+            if (circuit.types()[circuit.targets()[e]] != Circuit.OUTPUT) {
+                return null;
+            }
+        }
+        var parent = new int[circuit.modules()];
+        Arrays.setAll(parent, i -> i);
+        for (int e = 0; e < circuit.edges(); e++) {
+            int s = circuit.sources()[e];
+            int t = circuit.targets()[e];
+            if (inside(s, sink) && inside(t, sink)) {
+                parent[find(parent, s)] = find(parent, t);
+            }
+        }
+        var groups = new int[circuit.modules()];
+        for (int m = 0; m < groups.length; m++) {
+            groups[m] = inside(m, sink) ? find(parent, m) : -1;
+        }
+        for (int e = 0; e < circuit.edges(); e++) {
+            if (circuit.targets()[e] == sink && groups[circuit.sources()[e]] < 0) {
+                return null;
+            }
+        }
+        return groups;
     }
 
-    void addSender(Module sender) {
-        state.put(sender, new AtomicBoolean());
+    private boolean inside(int module, int sink) {
+        byte type = circuit.types()[module];
+        return module != sink && type != Circuit.BUTTON && type != Circuit.BROADCASTER;
     }
 
-    @Override
-    public void receive(Pulse pulse, Module sender) {
-        state.get(sender).set(pulse.signal() == Signal.HIGH);
-        if (state.values().stream().allMatch(AtomicBoolean::get)) {
-            receivers.forEach(m -> coordinator.sendLowPulse(this, m));
-        } else {
-            receivers.forEach(m -> coordinator.sendHighPulse(this, m));
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
         }
+        return i;
     }
-}
-
-record Modules(Coordinator coordinator, Button button) {
-    static final String BROADCASTER = "broadcaster";
-    static final String BUTTON = "button";
-    private static final Pattern PATTERN = Pattern.compile("([&%]?)([a-z]+) -> (.*)");
 
-    static Modules parse(Stream<String> lines) {
-        List<String> broadcastReceivers = new ArrayList<>();
-        Map<String, List<String>> flipFlopReceivers = new HashMap<>();
-        Map<String, List<String>> conjunctionReceivers = new HashMap<>();
-        Set<String> dummyNames = new HashSet<>();
-        lines.forEach(line -> {
-            var m = PATTERN.matcher(line);
-            if (!m.matches()) {
-                throw new IllegalArgumentException();
+    /**
+     * Presses until every group's state has repeated, recording the hits before each group's first repeat. Hit times
+     * are counted from 0, the state before the first press.
+     */
+    private List<Orbit> orbits(PulseEngine engine, List<int[]> members, String target, boolean split) {
+        int groups = members.size();
+        var edges = new ArrayList<int[]>();
+        for (var group : members) {
+            var inGroup = new boolean[circuit.modules()];
+            for (int m : group) {
+                inGroup[m] = circuit.types()[m] == Circuit.CONJUNCTION;
             }
-            var type = m.group(1);
-            var name = m.group(2);
-            var receivers = Arrays.stream(m.group(3).split(", ")).toList();
-            dummyNames.addAll(receivers);
-            switch (type) {
-                case "" -> broadcastReceivers.addAll(receivers);
-                case "%" -> flipFlopReceivers.put(name, receivers);
-                case "&" -> conjunctionReceivers.put(name, receivers);
-                default -> throw new IllegalArgumentException();
+            edges.add(IntStream.range(0, circuit.edges()).filter(e -> inGroup[circuit.targets()[e]]).toArray());
+        }
+        List<Map<State, Integer>> seen = new ArrayList<>();
+        List<List<Long>> hits = new ArrayList<>();
+        var orbits = new Orbit[groups];
+        for (int g = 0; g < groups; g++) {
+            seen.add(new HashMap<>());
+            hits.add(new ArrayList<>());
+        }
+        int open = groups;
+        for (int time = 0; open > 0; time++) {
+            if (time == MAX_PRESSES) {
+                throw new IllegalStateException(split
+                        ? open + " of the " + groups + " sub-circuits feeding " + target + " did not repeat within "
+                                + MAX_PRESSES + " presses"
+                        : target + " is not fed by a single conjunction over independent sub-circuits, and the whole "
+                                + "network did not repeat within " + MAX_PRESSES + " presses either");
             }
-        });
-        dummyNames.removeAll(flipFlopReceivers.keySet());
-        dummyNames.removeAll(conjunctionReceivers.keySet());
-        Map<String, AbstractModule> modules = new HashMap<>();
-        var observer = new Observer();
-        var coordinator = new Coordinator(observer);
-        dummyNames.forEach(n -> modules.put(n, new Dummy(n, coordinator)));
-        conjunctionReceivers.keySet().forEach(n -> modules.put(n, new Conjunction(n, coordinator)));
-        flipFlopReceivers.keySet().forEach(n -> modules.put(n, new FlipFlop(n, coordinator)));
-        var broadcaster = new Broadcaster(BROADCASTER, coordinator);
-        broadcaster.receivers.addAll(broadcastReceivers.stream().map(modules::get).toList());
-        flipFlopReceivers.forEach((key, value) -> modules.get(key).receivers.addAll(value.stream().map(modules::get).toList()));
-        conjunctionReceivers.forEach((key, value) -> modules.get(key).receivers.addAll(value.stream().map(modules::get).toList()));
-        modules.put(BROADCASTER, broadcaster);
-        var button = new Button(BUTTON, coordinator);
-        button.receivers.add(broadcaster);
-        modules.put(BUTTON, button);
-        modules.values().forEach(module -> module.receivers.forEach(receiver -> {
-            if (receiver instanceof Conjunction conjunction) {
-                conjunction.addSender(module);
+            for (int g = 0; g < groups; g++) {
+                if (orbits[g] != null) {
+                    continue;
+                }
+                var state = state(engine, members.get(g), edges.get(g));
+                Integer first = seen.get(g).putIfAbsent(state, time);
+                if (first != null) {
+                    orbits[g] = Orbit.of(first, time - first, hits.get(g).stream().mapToLong(Long::longValue).toArray());
+                    seen.set(g, null);
+                    --open;
+                }
             }
-        }));
-        Set<String> preRx = modules.values().stream().filter(m -> m.receivers.stream().anyMatch(r -> r.name().equals("rx"))).map(Module::name).collect(Collectors.toSet());
-        observer.watchThese().addAll(modules.values().stream().filter(m -> m.receivers.stream().anyMatch(r -> preRx.contains(r.name()))).map(Module::name).map(modules::get).collect(Collectors.toSet()));
-        return new Modules(coordinator, button);
-    }
-
-    void pushButton(int n) {
-        IntStream.range(0, n).forEach(i -> {
-            button.push();
-            coordinator.runQueue();
-        });
+            if (open == 0) {
+                break;
+            }
+            engine.press();
+            for (int g = 0; g < groups; g++) {
+                if (orbits[g] == null && engine.hits()[g]) {
+                    hits.get(g).add((long) time);
+                }
+            }
+        }
+        return List.of(orbits);
     }
-}
 
-record Observer(Set<Module> watchThese, Map<Module, Long> seen) {
-    Observer() {
-        this(new HashSet<>(), new HashMap<>());
+    private static State state(PulseEngine engine, int[] modules, int[] edges) {
+        var bits = new long[(modules.length + edges.length + 63) >> 6];
+        int i = 0;
+        for (int m : modules) {
+            if (engine.flipFlop(m)) {
+                bits[i >> 6] |= 1L << i;
+            }
+            ++i;
+        }
+        for (int e : edges) {
+            if (engine.memory(e)) {
+                bits[i >> 6] |= 1L << i;
+            }
+            ++i;
+        }
+        return new State(bits);
     }
 
-    BigInteger lcm(BigInteger a, BigInteger b) {
-        return a == null ? b : a.multiply(b).divide(a.gcd(b));
-    }
+    record State(long[] bits) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof State other && Arrays.equals(bits, other.bits);
+        }
 
-    void inspect(long buttonPresses, Module sender) {
-        if (watchThese.contains(sender)) {
-            seen.put(sender, buttonPresses);
-            watchThese.remove(sender);
-            if (watchThese.isEmpty()) {
-                System.out.println(seen.values().stream().map(l -> new BigInteger(String.valueOf(l))).reduce(null, this::lcm));
-            }
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bits);
         }
     }
 }
 
+class Puzzle implements Solver {
+    private final Circuit circuit;
 
-class Puzzle {
-    void solve() throws IOException {
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day20/day20_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var modules = Modules.parse(reader.lines());
-            modules.pushButton(1000);
-            System.out.println(modules.coordinator().highs().get() * modules.coordinator().lows().get());
-            modules.pushButton(3000);
+            circuit = Circuit.parse(reader.lines());
         }
     }
+
+    @Override
+    public Object part1() {
+        var engine = new PulseEngine(circuit);
+        for (int i = 0; i < 1000; i++) {
+            engine.press();
+        }
+        return engine.highs() * engine.lows();
+    }
+
+    /**
+     * Null when the circuit has no {@code rx} module, as in the examples.
+     */
+    @Override
+    public Object part2() {
+        return new PressAnalyser(circuit).firstLowPulse("rx");
+    }
 }
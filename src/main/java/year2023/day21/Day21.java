@@ -1,141 +1,255 @@
 package year2023.day21;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.LongSet;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
-enum Heading {
-    EAST(Coordinate::east), SOUTH(Coordinate::south), WEST(Coordinate::west), NORTH(Coordinate::north);
-    final Function<Coordinate, Coordinate> mover;
+/**
+ * A single tile of the garden, with the start taken as a plot.
+ */
+record Garden(ByteGrid plots, int startX, int startY) {
+    static final byte PLOT = '.';
+    static final byte ROCK = '#';
+    static final byte START = 'S';
 
-    Heading(Function<Coordinate, Coordinate> mover) {
-        this.mover = mover;
+    static Garden parse(List<String> lines) {
+        var plots = ByteGrid.parse(lines);
+        int start = plots.indexOf(START);
+        if (start < 0) {
+            throw new IllegalArgumentException("no start");
+        }
+        plots.put(start, PLOT);
+        if (plots.count(PLOT) + plots.count(ROCK) != plots.size()) {
+            throw new IllegalArgumentException("unexpected character in garden");
+        }
+        return new Garden(plots, plots.x(start), plots.y(start));
+    }
+
+    int width() {
+        return plots.width();
     }
-}
 
-record Coordinate(int x, int y) {
-    Coordinate north() {
-        return new Coordinate(x, y - 1);
+    int height() {
+        return plots.height();
     }
 
-    Coordinate south() {
-        return new Coordinate(x, y + 1);
+    boolean rock(long x, long y) {
+        return plots.get((int) Math.floorMod(x, width()), (int) Math.floorMod(y, height())) == ROCK;
     }
 
-    Coordinate west() {
-        return new Coordinate(x - 1, y);
+    /**
+     * Steps from {@code (x, y)} to every plot of a single tile, or -1 where it cannot be reached within the tile.
+     */
+    int[] distances(int x, int y) {
+        var distances = new int[plots.size()];
+        Arrays.fill(distances, -1);
+        var queue = new int[plots.size()];
+        var neighbours = new int[4];
+        int head = 0;
+        int tail = 0;
+        int first = plots.index(x, y);
+        distances[first] = 0;
+        queue[tail++] = first;
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = distances[cell] + 1;
+            for (int k = 0, n = plots.neighbours(cell, neighbours); k < n; k++) {
+                int neighbour = neighbours[k];
+                if (plots.at(neighbour) != ROCK && distances[neighbour] < 0) {
+                    distances[neighbour] = next;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return distances;
     }
 
-    Coordinate east() {
-        return new Coordinate(x + 1, y);
+    /**
+     * Whether the tiles are square with the start in the middle, and the start's row and column and the tile's border
+     * are free of rocks. Then every plot of another tile is reached fastest through the point of that tile nearest to
+     * the start: the middle of an edge for tiles in line with the start, a corner for the others.
+     */
+    boolean hasClearLanes() {
+        int width = width();
+        if (width != height() || (width & 1) == 0 || startX != width / 2 || startY != width / 2) {
+            return false;
+        }
+        for (int i = 0; i < width; i++) {
+            if (plots.get(i, startY) == ROCK || plots.get(startX, i) == ROCK || plots.get(i, 0) == ROCK
+                    || plots.get(i, width - 1) == ROCK || plots.get(0, i) == ROCK || plots.get(width - 1, i) == ROCK) {
+                return false;
+            }
+        }
+        return true;
     }
 }
 
-record Garden(Set<Coordinate> plots, Set<Coordinate> rocks, Set<Coordinate> reachable, Coordinate startPosition,
-              int width, int height) {
-    static Garden parse(Stream<String> lines) {
-        var plots = new HashSet<Coordinate>();
-        var rocks = new HashSet<Coordinate>();
-        var start = new AtomicReference<Coordinate>();
-        var yc = new AtomicInteger();
-        var width = lines.mapToInt(l -> {
-            var y = yc.getAndIncrement();
-            var xc = new AtomicInteger();
-            l.chars().forEach(c -> {
-                var x = xc.getAndIncrement();
-                var coordinate = new Coordinate(x, y);
-                switch (c) {
-                    case '.', 'S' -> {
-                        if (c == 'S') {
-                            start.getAndSet(coordinate);
-                        }
-                        plots.add(coordinate);
-                    }
-                    case '#' -> rocks.add(coordinate);
-                }
-            });
-            return xc.get();
-        }).max().orElseThrow();
-        return new Garden(plots, rocks, new HashSet<>(), start.get(), width, yc.get()).fill();
+/**
+ * How many plots of a tile are at most a given number of steps from an entry point with the same parity as that
+ * number, from a prefix sum over the distances taken two at a time.
+ */
+record DistanceField(long[] cumulative, int max) {
+    static DistanceField of(int[] distances) {
+        int max = Arrays.stream(distances).max().orElseThrow();
+        var cumulative = new long[max + 1];
+        for (int d : distances) {
+            if (d >= 0) {
+                ++cumulative[d];
+            }
+        }
+        for (int d = 2; d <= max; d++) {
+            cumulative[d] += cumulative[d - 2];
+        }
+        return new DistanceField(cumulative, max);
+    }
+
+    long count(long limit) {
+        if (limit < 0) {
+            return 0;
+        }
+        if (limit >= max) {
+            return full(limit);
+        }
+        return cumulative[(int) limit];
     }
 
-    static int mod(int a, int b) {
-        int r = a % b;
-        return r < 0 ? r + b : r;
+    long full(long limit) {
+        int d = (limit & 1) == (max & 1) ? max : max - 1;
+        return d < 0 ? 0 : cumulative[d];
     }
+}
 
-    long solve(int n) {
-        return IntStream.rangeClosed(-n, n)
-                .mapToLong(y -> IntStream.rangeClosed(-n, n)
-                        .filter(x -> (x + y & 1) == (n & 1))
-                        .filter(x -> Math.abs(x) + Math.abs(y) <= n)
-                        .filter(x -> reachable(x, y))
-                        .count())
-                .sum();
+/**
+ * Plots reachable in exactly {@code n} steps on the infinitely tiled garden. A plot is reachable when it is at most
+ * {@code n} steps away with matching parity, since any path can waste steps two at a time.
+ * <p>
+ * With clear lanes the count is a sum over tile classes, each with its own distance field: the start tile, the tiles
+ * in line with the start entered at the middle of their near edge, and the tiles in a quadrant entered at their near
+ * corner. Tiles that are reached completely contribute all their plots of one parity, so only the few tiles on the
+ * frontier are counted one by one and the rest is closed form. Otherwise a breadth-first search walks the plane,
+ * keeping only the last two frontiers since a grid is bipartite.
+ */
+class StepCounter {
+    private final Garden garden;
+    private final DistanceField start;
+    private final DistanceField[] edges;
+    private final DistanceField[] corners;
+
+    StepCounter(Garden garden) {
+        this.garden = garden;
+        if (garden.hasClearLanes()) {
+            int last = garden.width() - 1;
+            int half = garden.width() / 2;
+            start = DistanceField.of(garden.distances(half, half));
+            edges = new DistanceField[]{
+                    DistanceField.of(garden.distances(0, half)),
+                    DistanceField.of(garden.distances(last, half)),
+                    DistanceField.of(garden.distances(half, 0)),
+                    DistanceField.of(garden.distances(half, last))};
+            corners = new DistanceField[]{
+                    DistanceField.of(garden.distances(0, 0)),
+                    DistanceField.of(garden.distances(last, 0)),
+                    DistanceField.of(garden.distances(0, last)),
+                    DistanceField.of(garden.distances(last, last))};
+        } else {
+            start = null;
+            edges = null;
+            corners = null;
+        }
     }
 
-    private Coordinate warp(Coordinate coordinate) {
-        return new Coordinate(mod(coordinate.x(), width), mod(coordinate.y(), height));
+    long reachable(long n) {
+        if (start == null) {
+            return frontierSearch(n);
+        }
+        int width = garden.width();
+        int half = width / 2;
+        long total = start.count(n);
+        for (var edge : edges) {
+            total += line(edge, n - half - 1, width, false);
+        }
+        for (var corner : corners) {
+            total += line(corner, n - 2L * (half + 1), width, true);
+        }
+        return total;
     }
 
-    boolean reachable(int x, int y) {
-        var c = warp(new Coordinate(x + startPosition.x(), y + startPosition.y()));
-        if (rocks.contains(c)) {
-            return false;
+    /**
+     * Sum over the tiles {@code i = 1, 2, ...} at {@code (i - 1) * width} steps beyond the first one, which has
+     * {@code limit} steps left on entry. A quadrant has {@code i} tiles at each such distance.
+     */
+    private static long line(DistanceField field, long limit, int width, boolean weighted) {
+        if (limit < 0) {
+            return 0;
+        }
+        long tiles = limit / width + 1;
+        long full = limit < field.max() ? 0 : Math.min(tiles, (limit - field.max()) / width + 1);
+        long odd = (full + 1) / 2;
+        long even = full / 2;
+        long total = (weighted ? odd * odd : odd) * field.full(limit)
+                + (weighted ? even * (even + 1) : even) * field.full(limit - width);
+        for (long i = full + 1; i <= tiles; i++) {
+            total += (weighted ? i : 1) * field.count(limit - (i - 1) * width);
         }
-        return reachable.contains(c);
+        return total;
     }
 
-    private Garden fill() {
-        Deque<Coordinate> deque = new LinkedList<>();
-        deque.addLast(startPosition);
-        while (!deque.isEmpty()) {
-            var coordinate = deque.removeFirst();
-            reachable.add(coordinate);
-            Set<Coordinate> next = Arrays.stream(Heading.values())
-                    .map(h -> h.mover.apply(coordinate))
-                    .filter(c -> plots.contains(c) && !reachable.contains(c))
-                    .collect(Collectors.toSet());
-            reachable.addAll(next);
-            deque.addAll(next);
+    private long frontierSearch(long n) {
+        var previous = new LongSet();
+        var current = new LongSet();
+        current.add(LongSet.pack(garden.startX(), garden.startY()));
+        long total = (n & 1) == 0 ? 1 : 0;
+        for (long step = 1; step <= n; step++) {
+            var next = new LongSet();
+            for (long cell : current.values()) {
+                int x = (int) (cell >> 32);
+                int y = (int) cell;
+                for (int d = DenseGrid.NORTH; d < 8; d += 2) {
+                    int nx = x + DenseGrid.dx(d);
+                    int ny = y + DenseGrid.dy(d);
+                    long packed = LongSet.pack(nx, ny);
+                    if (!garden.rock(nx, ny) && !previous.contains(packed)) {
+                        next.add(packed);
+                    }
+                }
+            }
+            if (((n - step) & 1) == 0) {
+                total += next.size();
+            }
+            previous = current;
+            current = next;
         }
-        return this;
+        return total;
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    private final StepCounter counter;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day21/day21_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var garden = Garden.parse(reader.lines());
-            System.out.println(garden.solve(64));
-            var width = garden.width();
-            var halfWidth = width / 2;
-            long[] f = new long[3];
-            for (int i = 0; i < 3; i++) {
-                var m = halfWidth + 2 * i * width;
-                var j = garden.solve(m);
-                f[i] = j;
-            }
-            var a = (f[2] + f[0]) / 2 - f[1];
-            var b = (f[2] - f[0]) / 2;
-            var c = f[1];
-            Function<Long, Long> polynomial = x -> a * x * x + b * x + c;
-            System.out.println(polynomial.apply((26501365L - halfWidth) / (2L * width) - 1));
+            counter = new StepCounter(Garden.parse(reader.lines().toList()));
         }
     }
+
+    @Override
+    public Object part1() {
+        return counter.reachable(64);
+    }
+
+    @Override
+    public Object part2() {
+        return counter.reachable(26501365);
+    }
 }
 
 public class Day21 {
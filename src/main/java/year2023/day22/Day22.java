@@ -1,189 +1,232 @@
 package year2023.day22;
 
+import common.IntGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.LinkedList;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-record Coordinate2(int x, int y) implements Comparable<Coordinate2> {
-    private int[] toArray() {
-        return new int[]{y, x};
-    }
-
-    @Override
-    public int compareTo(Coordinate2 o) {
-        return Arrays.compare(toArray(), o.toArray());
-    }
-}
-
-record ClosedInterval(int from, int to) {
-    boolean intersects(ClosedInterval other) {
-        return Math.max(from, other.from) <= Math.min(to, other.to);
-    }
-}
-
-record Rectangle(Coordinate2 topLeft, Coordinate2 bottomRight) {
-    ClosedInterval projectX() {
-        return new ClosedInterval(topLeft.x(), bottomRight.x());
-    }
-
-    ClosedInterval projectY() {
-        return new ClosedInterval(topLeft.y(), bottomRight.y());
-    }
-
-    boolean intersects(Rectangle other) {
-        return projectX().intersects(other.projectX()) && projectY().intersects(other.projectY());
-    }
-}
-
-record Coordinate3(int x, int y, int z) implements Comparable<Coordinate3> {
-    static Coordinate3 parse(String s) {
-        int[] a = Arrays.stream(s.split(",")).mapToInt(Integer::parseInt).toArray();
-        return new Coordinate3(a[0], a[1], a[2]);
-    }
-
-    Coordinate2 flatten() {
-        return new Coordinate2(x, y);
-    }
-
-    private int[] toArray() {
-        return new int[]{z, y, x};
-    }
-
-    Coordinate3 moveDown(int positions) {
-        return new Coordinate3(x, y, z - positions);
-    }
+/**
+ * Bricks as flat coordinate arrays, with each brick's lower corner in {@code from} and upper corner in {@code to},
+ * three ints per brick.
+ */
+record Snapshot(int[] from, int[] to) {
+    static Snapshot parse(Stream<String> lines) {
+        var builder = new Builder();
+        lines.forEach(builder::add);
+        return builder.build();
+    }
+
+    int size() {
+        return from.length / 3;
+    }
+
+    static final class Builder {
+        private int[] from = new int[3 * 1024];
+        private int[] to = new int[3 * 1024];
+        private int size = 0;
+
+        void add(String line) {
+            var values = new int[6];
+            int v = 0;
+            int value = 0;
+            for (int i = 0; i <= line.length(); i++) {
+                char c = i < line.length() ? line.charAt(i) : ',';
+                if (c >= '0' && c <= '9') {
+                    value = value * 10 + c - '0';
+                } else if (c == ',' || c == '~') {
+                    values[v++] = value;
+                    value = 0;
+                } else {
+                    throw new IllegalArgumentException(line);
+                }
+            }
+            if (v != 6) {
+                throw new IllegalArgumentException(line);
+            }
+            if (3 * size + 3 > from.length) {
+                from = Arrays.copyOf(from, from.length * 2);
+                to = Arrays.copyOf(to, to.length * 2);
+            }
+            for (int axis = 0; axis < 3; axis++) {
+                from[3 * size + axis] = Math.min(values[axis], values[axis + 3]);
+                to[3 * size + axis] = Math.max(values[axis], values[axis + 3]);
+            }
+            ++size;
+        }
 
-    @Override
-    public int compareTo(Coordinate3 o) {
-        return Arrays.compare(toArray(), o.toArray());
+        Snapshot build() {
+            return new Snapshot(Arrays.copyOf(from, 3 * size), Arrays.copyOf(to, 3 * size));
+        }
     }
 }
 
-record Brick(Coordinate3 bottomBackLeft, Coordinate3 topFrontRight) implements Comparable<Brick> {
-    static Brick parse(String s) {
-        var split = s.split("~");
-        return new Brick(Coordinate3.parse(split[0]), Coordinate3.parse(split[1]));
-    }
-
-    int bottom() {
-        return bottomBackLeft.z();
-    }
-
-    int top() {
-        return topFrontRight.z();
-    }
-
-    Rectangle flatten() {
-        return new Rectangle(bottomBackLeft.flatten(), topFrontRight.flatten());
-    }
-
-    boolean isBelow(Brick other) {
-        return top() < other.bottom() && flatten().intersects(other.flatten());
-    }
-
-    boolean isDirectlyBelow(Brick other) {
-        return top() + 1 == other.bottom() && flatten().intersects(other.flatten());
-    }
-
-    Brick moveAbove(int top) {
-        var positions = bottom() - top - 1;
-        return new Brick(bottomBackLeft.moveDown(positions), topFrontRight.moveDown(positions));
-    }
-
-    @Override
-    public int compareTo(Brick o) {
-        return bottomBackLeft.compareTo(o.bottomBackLeft);
+/**
+ * Settles the bricks in order of their lower end on a height map that holds the top and the id of the highest brick
+ * for every (x, y), so each brick costs its footprint. The bricks it lands on are the ones whose top matches the
+ * highest point under it.
+ * <p>
+ * Settled bricks are numbered in landing order, which is a topological order of the support graph, so each brick's
+ * immediate dominator from the ground is the lowest common ancestor of its supporters in the dominator tree built so
+ * far. Ancestors are found through jump pointers, which give logarithmic queries with one extra int per brick. The
+ * bricks that fall when one is removed are exactly the ones it dominates.
+ */
+class BrickStack {
+    static final int GROUND = 0;
+
+    private final int size;
+    private final int[] supporterCount;
+    private final int[] parent;
+    private final int[] jump;
+    private final int[] depth;
+
+    BrickStack(Snapshot snapshot) {
+        size = snapshot.size();
+        var from = snapshot.from();
+        var to = snapshot.to();
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        var order = new long[size];
+        for (int b = 0; b < size; b++) {
+            minX = Math.min(minX, from[3 * b]);
+            minY = Math.min(minY, from[3 * b + 1]);
+            maxX = Math.max(maxX, to[3 * b]);
+            maxY = Math.max(maxY, to[3 * b + 1]);
+            order[b] = (long) from[3 * b + 2] << 32 | b;
+        }
+        Arrays.sort(order);
+        int width = size == 0 ? 0 : maxX - minX + 1;
+        int height = size == 0 ? 0 : maxY - minY + 1;
+        var heights = new IntGrid(width, height, 0, 0);
+        var tops = new IntGrid(width, height, 0, 0);
+        supporterCount = new int[size + 1];
+        parent = new int[size + 1];
+        jump = new int[size + 1];
+        depth = new int[size + 1];
+        var seen = new int[size + 1];
+        var supporters = new int[16];
+        for (int id = 1; id <= size; id++) {
+            int b = (int) order[id - 1];
+            int x1 = from[3 * b] - minX;
+            int x2 = to[3 * b] - minX;
+            int y1 = from[3 * b + 1] - minY;
+            int y2 = to[3 * b + 1] - minY;
+            int highest = 0;
+            for (int y = y1; y <= y2; y++) {
+                for (int x = x1; x <= x2; x++) {
+                    highest = Math.max(highest, heights.get(x, y));
+                }
+            }
+            int count = 0;
+            for (int y = y1; y <= y2; y++) {
+                for (int x = x1; x <= x2; x++) {
+                    int cell = heights.index(x, y);
+                    int top = tops.at(cell);
+                    if (highest > 0 && heights.at(cell) == highest && seen[top] != id) {
+                        seen[top] = id;
+                        if (count == supporters.length) {
+                            supporters = Arrays.copyOf(supporters, count * 2);
+                        }
+                        supporters[count++] = top;
+                    }
+                    heights.put(cell, highest + 1 + to[3 * b + 2] - from[3 * b + 2]);
+                    tops.put(cell, id);
+                }
+            }
+            supporterCount[id] = count;
+            int dominator = count == 0 ? GROUND : supporters[0];
+            for (int i = 1; i < count; i++) {
+                dominator = commonAncestor(dominator, supporters[i]);
+            }
+            attach(id, dominator);
+        }
     }
-}
 
-record Bricks(SortedMap<Coordinate3, Brick> initialPositions, SortedMap<Coordinate3, Brick> restingPositions,
-              Map<Brick, Set<Brick>> supports, Map<Brick, Set<Brick>> supportedBy) {
-    static Bricks parse(Stream<String> lines) {
-        SortedMap<Coordinate3, Brick> initialPositions = new TreeMap<>();
-        lines.map(Brick::parse).forEach(brick -> initialPositions.put(brick.bottomBackLeft(), brick));
-        return new Bricks(initialPositions, new TreeMap<>(), new TreeMap<>(), new TreeMap<>());
+    private void attach(int node, int dominator) {
+        parent[node] = dominator;
+        depth[node] = depth[dominator] + 1;
+        int j = jump[dominator];
+        jump[node] = depth[dominator] - depth[j] == depth[j] - depth[jump[j]] ? jump[j] : dominator;
     }
 
-    boolean canBeRemoved(Brick brick) {
-        if (!supports.containsKey(brick)) {
-            return true;
+    private int commonAncestor(int u, int v) {
+        if (depth[u] < depth[v]) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        while (depth[u] > depth[v]) {
+            u = depth[jump[u]] >= depth[v] ? jump[u] : parent[u];
         }
-        for (var supportedByThisBrick : supports.get(brick)) {
-            if (supportedBy.get(supportedByThisBrick).size() == 1) {
-                return false;
+        while (u != v) {
+            if (jump[u] != jump[v]) {
+                u = jump[u];
+                v = jump[v];
+            } else {
+                u = parent[u];
+                v = parent[v];
             }
         }
-        return true;
+        return u;
     }
 
-    long solve() {
-        var i = initialPositions.values().iterator();
-        while (i.hasNext()) {
-            var brick = i.next();
-            i.remove();
-            var top = restingPositions.values().stream().filter(b -> b.isBelow(brick)).mapToInt(Brick::top).max().orElse(0);
-            var restingBrick = brick.moveAbove(top);
-            restingPositions.values().stream().filter(b -> b.isDirectlyBelow(restingBrick)).forEach(supportingBrick -> {
-                supports.computeIfAbsent(supportingBrick, unused -> new TreeSet<>()).add(restingBrick);
-                supportedBy.computeIfAbsent(restingBrick, unused -> new TreeSet<>()).add(supportingBrick);
-            });
-            restingPositions.put(restingBrick.bottomBackLeft(), restingBrick);
+    /**
+     * Bricks that can be removed without any other brick falling: the ones that are no brick's only support.
+     */
+    long disintegrable() {
+        var needed = new boolean[size + 1];
+        for (int id = 1; id <= size; id++) {
+            if (supporterCount[id] == 1) {
+                needed[parent[id]] = true;
+            }
         }
-        return restingPositions.values().stream().filter(this::canBeRemoved).count();
-    }
-
-    boolean willFall(Brick brick, Set<Brick> removed) {
-        Set<Brick> remaining = new TreeSet<>(supportedBy.get(brick));
-        remaining.removeAll(removed);
-        return remaining.isEmpty();
-    }
-
-    void topple(Brick brick, Set<Brick> removed, Deque<Brick> queue) {
-        removed.add(brick);
-        if (!supports.containsKey(brick)) {
-            return;
+        long count = 0;
+        for (int id = 1; id <= size; id++) {
+            if (!needed[id]) {
+                ++count;
+            }
         }
-        var next = supports.get(brick).stream().filter(b -> willFall(b, removed)).collect(Collectors.toSet());
-        next.removeAll(removed);
-        removed.addAll(next);
-        queue.addAll(next);
+        return count;
     }
 
-    int topple(Brick brick) {
-        Set<Brick> removed = new TreeSet<>();
-        Deque<Brick> queue = new LinkedList<>();
-        queue.add(brick);
-        while (!queue.isEmpty()) {
-            topple(queue.removeFirst(), removed, queue);
+    /**
+     * Sum over all bricks of how many others fall when it is removed. Every brick falls for each of its dominators
+     * other than the ground, so this is the sum of depths below the first level.
+     */
+    long chainReactions() {
+        long total = 0;
+        for (int id = 1; id <= size; id++) {
+            total += depth[id] - 1;
         }
-        return removed.size() - 1;
-    }
-
-    int solve2() {
-        return supports.keySet().stream().mapToInt(this::topple).sum();
+        return total;
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    private final BrickStack stack;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day22/day22_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var bricks = Bricks.parse(reader.lines());
-            System.out.println(bricks.solve());
-            System.out.println(bricks.solve2());
+            stack = new BrickStack(Snapshot.parse(reader.lines()));
         }
     }
+
+    @Override
+    public Object part1() {
+        return stack.disintegrable();
+    }
+
+    @Override
+    public Object part2() {
+        return stack.chainReactions();
+    }
 }
 
 public class Day22 {
@@ -1,224 +1,318 @@
 package year2023.day23;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-enum Heading {
-    EAST(Coordinate::east), SOUTH(Coordinate::south), WEST(Coordinate::west), NORTH(Coordinate::north), NOWHERE(Function.identity());
-    final Function<Coordinate, Coordinate> mover;
+/**
+ * The trail map as a grid of its characters, padded with forest. The hike runs from the first open cell to the last
+ * one.
+ */
+record TrailMap(ByteGrid cells, int start, int end) {
+    static final byte FOREST = '#';
+    static final byte PATH = '.';
+    static final byte[] SLOPES = {'^', '>', 'v', '<'};
 
-    Heading(Function<Coordinate, Coordinate> mover) {
-        this.mover = mover;
+    static TrailMap parse(List<String> lines) {
+        var cells = ByteGrid.padded(lines, FOREST);
+        int start = -1;
+        int end = -1;
+        for (int y = 0; y < cells.height(); y++) {
+            for (int x = 0; x < cells.width(); x++) {
+                if (cells.get(x, y) != FOREST) {
+                    if (start < 0) {
+                        start = cells.index(x, y);
+                    }
+                    end = cells.index(x, y);
+                }
+            }
+        }
+        return new TrailMap(cells, start, end);
     }
 
-    static Heading from(int c) {
-        return switch (c) {
-            case '^' -> NORTH;
-            case 'v' -> SOUTH;
-            case '<' -> WEST;
-            case '>' -> EAST;
-            default -> throw new IllegalArgumentException();
-        };
+    /**
+     * The neighbour of {@code cell} in orthogonal direction {@code d}, or -1 if that is forest.
+     */
+    int step(int cell, int d) {
+        int next = cells.step(cell, d);
+        return cells.at(next) == FOREST ? -1 : next;
     }
 
-    Set<Heading> next() {
-        return switch (this) {
-            case NORTH -> Set.of(NORTH, EAST, WEST);
-            case SOUTH -> Set.of(SOUTH, EAST, WEST);
-            case EAST -> Set.of(EAST, NORTH, SOUTH);
-            case WEST -> Set.of(WEST, NORTH, SOUTH);
-            case NOWHERE -> Set.of(NORTH, SOUTH, EAST, WEST);
-        };
+    boolean canEnter(int cell, int d) {
+        byte c = cells.at(cell);
+        return c == PATH || c == SLOPES[d / 2];
     }
-}
 
-record Coordinate(long x, long y) implements Comparable<Coordinate> {
-    Coordinate north() {
-        return new Coordinate(x, y - 1L);
+    int exits(int cell) {
+        int exits = 0;
+        for (int d = DenseGrid.NORTH; d < 8; d += 2) {
+            if (step(cell, d) >= 0) {
+                ++exits;
+            }
+        }
+        return exits;
     }
+}
 
-    Coordinate south() {
-        return new Coordinate(x, y + 1L);
-    }
+/**
+ * The trails contracted to the junctions between them, plus the start and the end, numbered so that a set of them fits
+ * in a long. Every corridor is walked once from each end in a single pass, which gives the undirected dry graph and the
+ * directed slippery one, where a corridor can only be taken if all its slopes point along it.
+ */
+final class HikeGraph {
+    static final int MAX_NODES = Long.SIZE;
 
-    Coordinate west() {
-        return new Coordinate(x - 1L, y);
-    }
+    final int nodes;
+    final Edges slippery;
+    final Edges dry;
 
-    Coordinate east() {
-        return new Coordinate(x + 1L, y);
+    /**
+     * Edge lengths by (from, to), with each junction's successors as a mask and in order of decreasing length, and its
+     * edges in either direction for bounds.
+     */
+    record Edges(int[][] weights, long[] neighbours, int[][] order, int[][] incident, int[][] incidentWeights) {
     }
 
-    Set<Coordinate> neighbours() {
-        return Set.of(north(), south(), west(), east());
+    HikeGraph(TrailMap map) {
+        var index = new int[map.cells().size()];
+        var cells = new ArrayList<Integer>();
+        for (int cell = 0; cell < index.length; cell++) {
+            index[cell] = -1;
+            if (map.cells().at(cell) != TrailMap.FOREST && (cell == map.start() || cell == map.end() || map.exits(cell) > 2)) {
+                index[cell] = cells.size();
+                cells.add(cell);
+            }
+        }
+        nodes = cells.size();
+        if (nodes > MAX_NODES) {
+            throw new IllegalStateException(nodes + " junctions, at most " + MAX_NODES + " supported");
+        }
+        var slipperyWeights = new int[nodes][nodes];
+        var dryWeights = new int[nodes][nodes];
+        for (int u = 0; u < nodes; u++) {
+            for (int d = DenseGrid.NORTH; d < 8; d += 2) {
+                int previous = cells.get(u);
+                int cell = map.step(previous, d);
+                if (cell < 0) {
+                    continue;
+                }
+                boolean downhill = map.canEnter(cell, d);
+                int length = 1;
+                int heading = d;
+                while (index[cell] < 0) {
+                    int next = -1;
+                    for (int e = DenseGrid.NORTH; e < 8 && next < 0; e += 2) {
+                        int candidate = map.step(cell, e);
+                        if (candidate >= 0 && candidate != previous) {
+                            next = candidate;
+                            heading = e;
+                        }
+                    }
+                    if (next < 0) {
+                        break;
+                    }
+                    downhill &= map.canEnter(next, heading);
+                    previous = cell;
+                    cell = next;
+                    ++length;
+                }
+                int v = index[cell];
+                if (v < 0 || v == u) {
+                    continue;
+                }
+                dryWeights[u][v] = Math.max(dryWeights[u][v], length);
+                if (downhill) {
+                    slipperyWeights[u][v] = Math.max(slipperyWeights[u][v], length);
+                }
+            }
+        }
+        slippery = edges(slipperyWeights);
+        dry = edges(dryWeights);
     }
 
-    private long[] toArray() {
-        return new long[]{y, x};
+    private static Edges edges(int[][] weights) {
+        int n = weights.length;
+        var neighbours = new long[n];
+        var order = new int[n][];
+        var incident = new int[n][];
+        var incidentWeights = new int[n][];
+        for (int u = 0; u < n; u++) {
+            var successors = new ArrayList<Integer>();
+            var around = new ArrayList<Integer>();
+            for (int v = 0; v < n; v++) {
+                if (weights[u][v] > 0) {
+                    neighbours[u] |= 1L << v;
+                    successors.add(v);
+                }
+                if (weights[u][v] > 0 || weights[v][u] > 0) {
+                    around.add(v);
+                }
+            }
+            var row = weights[u];
+            int owner = u;
+            order[u] = successors.stream().sorted((a, b) -> row[b] - row[a]).mapToInt(Integer::intValue).toArray();
+            incident[u] = around.stream().mapToInt(Integer::intValue).toArray();
+            incidentWeights[u] = around.stream().mapToInt(v -> Math.max(row[v], weights[v][owner])).toArray();
+        }
+        return new Edges(weights, neighbours, order, incident, incidentWeights);
     }
+}
 
-    @Override
-    public int compareTo(Coordinate o) {
-        return Arrays.compare(toArray(), o.toArray());
-    }
+/**
+ * Longest simple path from the start to the end by depth-first search over the contracted graph, with the visited
+ * junctions in a long. A branch is cut when the end is no longer reachable around the visited junctions, or when it
+ * cannot beat the best path so far: the rest of the path enters and leaves every junction it passes, so it is at most
+ * half the sum of the two longest edges of every junction still reachable, plus the longest one at either end. Longer
+ * edges are tried first so that good paths are found early. With more than one thread the first few levels are
+ * expanded up front and the branches searched in a ForkJoinPool, sharing the best length for pruning.
+ */
+class HikeSolver {
+    static final int SPLIT_DEPTH = 6;
 
-    @Override
-    public String toString() {
-        return "(" + x + "," + y + ")";
+    private final int start;
+    private final int end;
+    private final HikeGraph.Edges edges;
+
+    HikeSolver(HikeGraph graph, boolean slippery, int start, int end) {
+        this.start = start;
+        this.end = end;
+        edges = slippery ? graph.slippery : graph.dry;
     }
-}
 
-record TrailMap(Set<Coordinate> paths, Map<Coordinate, Heading> slopes, Coordinate start, Coordinate end,
-                Set<Coordinate> nodes) {
-    static TrailMap parse(Stream<String> lines) {
-        var paths = new TreeSet<Coordinate>();
-        var slopes = new TreeMap<Coordinate, Heading>();
-        var yc = new AtomicLong();
-        lines.forEach(l -> {
-            var y = yc.getAndIncrement();
-            var xc = new AtomicLong();
-            l.chars().forEach(ch -> {
-                var x = xc.getAndIncrement();
-                if (ch != '#') {
-                    var c = new Coordinate(x, y);
-                    paths.add(c);
-                    if (ch != '.') {
-                        slopes.put(c, Heading.from(ch));
-                    }
-                }
-            });
-        });
-        return new TrailMap(paths, slopes, paths.first(), paths.last(), new TreeSet<>());
-    }
-
-    long walk() {
-        var queue = new LinkedList<CH>();
-        queue.add(new CH(start, Heading.NOWHERE, 0L));
-        var distances = new TreeSet<Long>();
-        while (!queue.isEmpty()) {
-            var ch = queue.removeFirst();
-            if (ch.coordinate.equals(end)) {
-                distances.add(ch.steps);
+    long longest(int parallelism) {
+        var best = new AtomicLong(-1);
+        if (parallelism <= 1) {
+            search(start, 1L << start, 0, best);
+        } else {
+            List<long[]> branches = new ArrayList<>();
+            expand(start, 1L << start, 0, SPLIT_DEPTH, branches, best);
+            List<Callable<Void>> workers = new ArrayList<>();
+            for (var branch : branches) {
+                workers.add(() -> {
+                    search((int) branch[0], branch[1], branch[2], best);
+                    return null;
+                });
             }
-            queue.addAll(ch.next()
-                    .filter(nch -> paths.contains(nch.coordinate))
-                    .filter(nch -> !slopes.containsKey(nch.coordinate) || slopes.get(nch.coordinate) == nch.heading)
-                    .collect(Collectors.toSet()));
-        }
-        return distances.last();
-    }
-
-    void findNodes() {
-        nodes.add(start);
-        nodes.add(end);
-        nodes.addAll(paths.stream()
-                .filter(p -> p.neighbours().stream()
-                        .filter(paths::contains).count() > 2)
-                .toList());
-    }
-
-    long directDistanceBetweenNodes(Coordinate from, Coordinate to) {
-        var queue = new LinkedList<CH>();
-        var visited = new TreeSet<Coordinate>();
-        queue.add(new CH(from, Heading.NOWHERE, 0L));
-        while (!queue.isEmpty()) {
-            var ch = queue.removeFirst();
-            visited.add(ch.coordinate);
-            if (ch.coordinate.equals(to)) {
-                return ch.steps;
+            try (var pool = new ForkJoinPool(parallelism)) {
+                for (var result : pool.invokeAll(workers)) {
+                    result.get();
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
             }
-            queue.addAll(ch.next()
-                    .filter(nch -> paths.contains(nch.coordinate))
-                    .filter(nch -> !visited.contains(nch.coordinate))
-                    .filter(nch -> nch.coordinate.equals(to) || !nodes.contains(nch.coordinate))
-                    .collect(Collectors.toSet()));
         }
-        return Long.MAX_VALUE;
+        if (best.get() < 0) {
+            throw new IllegalStateException("no path to the end");
+        }
+        return best.get();
     }
 
-    record NodeMap(Map<Coordinate, Map<Coordinate, Long>> map) {
-        NodeMap() {
-            this(new TreeMap<>());
+    private void expand(int node, long visited, long length, int depth, List<long[]> branches, AtomicLong best) {
+        if (depth == 0 || node == end) {
+            if (node == end) {
+                best.accumulateAndGet(length, Math::max);
+            } else {
+                branches.add(new long[]{node, visited, length});
+            }
+            return;
         }
-
-        void add(Coordinate from, Coordinate to, long distance) {
-            map.computeIfAbsent(from, l -> new TreeMap<>()).put(to, distance);
-            map.computeIfAbsent(to, l -> new TreeMap<>()).put(from, distance);
+        for (long next = edges.neighbours()[node] & ~visited; next != 0; next &= next - 1) {
+            int v = Long.numberOfTrailingZeros(next);
+            expand(v, visited | 1L << v, length + edges.weights()[node][v], depth - 1, branches, best);
         }
+    }
 
-        SortedSet<Long> distancesToEnd(Coordinate start, Coordinate end) {
-            return distancesToEnd(start, end, new TreeSet<>());
+    private void search(int node, long visited, long length, AtomicLong best) {
+        if (node == end) {
+            best.accumulateAndGet(length, Math::max);
+            return;
         }
-
-        private SortedSet<Long> distancesToEnd(Coordinate node, Coordinate end, Set<Coordinate> visited) {
-            Set<Coordinate> neighbors = new TreeSet<>(map.get(node).keySet());
-            neighbors.removeAll(visited);
-            SortedSet<Long> distances = new TreeSet<>();
-            Set<Coordinate> newVisited = new TreeSet<>(visited);
-            newVisited.add(node);
-            if (neighbors.isEmpty()) {
-                if (node.equals(end)) {
-                    distances.add(0L);
-                }
-            } else {
-                for (var neighbor : neighbors) {
-                    var distanceToNeighbor = map.get(node).get(neighbor);
-                    distances.addAll(distancesToEnd(neighbor, end, newVisited).stream().map(d -> d + distanceToNeighbor).collect(Collectors.toSet()));
-                }
-            }
-            return distances;
-        }
-    }
-
-    long walkDry() {
-        findNodes();
-        var queue = new LinkedList<Coordinate>();
-        queue.add(start);
-        Set<Coordinate> workingSet = new TreeSet<>(nodes);
-        var nodeMap = new NodeMap();
-        while (!queue.isEmpty()) {
-            var from = queue.removeFirst();
-            workingSet.remove(from);
-            for (Coordinate to : workingSet) {
-                long d = directDistanceBetweenNodes(from, to);
-                if (d != Long.MAX_VALUE) {
-                    nodeMap.add(from, to, d);
-                    queue.add(to);
-                }
+        var neighbours = edges.neighbours();
+        long reach = 0;
+        long frontier = neighbours[node] & ~visited;
+        while (frontier != 0) {
+            int v = Long.numberOfTrailingZeros(frontier);
+            frontier &= frontier - 1;
+            reach |= 1L << v;
+            frontier |= neighbours[v] & ~visited & ~reach;
+        }
+        if ((reach & 1L << end) == 0) {
+            return;
+        }
+        long usable = reach | 1L << node;
+        long twice = longest(node, usable, 1) + longest(end, usable, 1);
+        for (long rest = reach & ~(1L << end); rest != 0; rest &= rest - 1) {
+            twice += longest(Long.numberOfTrailingZeros(rest), usable, 2);
+        }
+        if (length + twice / 2 <= best.get()) {
+            return;
+        }
+        var order = edges.order()[node];
+        var weights = edges.weights()[node];
+        for (int v : order) {
+            if ((visited & 1L << v) == 0 && weights[v] > 0) {
+                search(v, visited | 1L << v, length + weights[v], best);
             }
         }
-        return nodeMap.distancesToEnd(start, end).last();
     }
 
-    record CH(Coordinate coordinate, Heading heading, long steps) {
-        Stream<CH> next() {
-            return heading.next().stream().map(h -> new CH(h.mover.apply(coordinate), h, steps + 1L));
+    /**
+     * Sum of the {@code count} longest edges between {@code node} and the junctions in {@code usable}, in either
+     * direction.
+     */
+    private int longest(int node, long usable, int count) {
+        int first = 0;
+        int second = 0;
+        var incident = edges.incident()[node];
+        var weights = edges.incidentWeights()[node];
+        for (int i = 0; i < incident.length; i++) {
+            if ((usable & 1L << incident[i]) != 0) {
+                int w = weights[i];
+                if (w > first) {
+                    second = first;
+                    first = w;
+                } else if (w > second) {
+                    second = w;
+                }
+            }
         }
+        return count == 1 ? first : first + second;
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    private final HikeGraph graph;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day23/day23_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var trailMap = TrailMap.parse(reader.lines());
-            System.out.println(trailMap.walk());
-            System.out.println(trailMap.walkDry());
+            graph = new HikeGraph(TrailMap.parse(reader.lines().toList()));
         }
     }
+
+    @Override
+    public Object part1() {
+        return new HikeSolver(graph, true, 0, graph.nodes - 1).longest(1);
+    }
+
+    @Override
+    public Object part2() {
+        return new HikeSolver(graph, false, 0, graph.nodes - 1).longest(Runtime.getRuntime().availableProcessors());
+    }
 }
 
 public class Day23 {
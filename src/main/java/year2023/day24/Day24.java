@@ -1,5 +1,7 @@
 package year2023.day24;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -123,8 +125,8 @@ record WeatherMap(List<Hailstone> hailstones) {
                     dc.y()
             ));
         }
-        var yz = new Solver().solve(rowsYZ);
-        var zx = new Solver().solve(rowsZX);
+        var yz = new EquationSolver().solve(rowsYZ);
+        var zx = new EquationSolver().solve(rowsZX);
         /*
          * The YZ solution has (py, pz, vy, vz)
          * The ZX solution has (pz, px, vz, vx)
@@ -133,18 +135,28 @@ record WeatherMap(List<Hailstone> hailstones) {
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    private final WeatherMap map;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day24/day24_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var map = WeatherMap.parse(reader.lines());
-            System.out.println(map.solve());
-            System.out.println(map.solve2());
+            map = WeatherMap.parse(reader.lines());
         }
     }
+
+    @Override
+    public Object part1() {
+        return map.solve();
+    }
+
+    @Override
+    public Object part2() {
+        return map.solve2();
+    }
 }
 
-class Solver {
+class EquationSolver {
     private void pivot(List<ArrayList<BigInteger>> matrix, int from, int to) {
         var cell = matrix.get(to).get(from);
         if (cell.equals(BigInteger.ZERO)) {
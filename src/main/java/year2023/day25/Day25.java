@@ -1,5 +1,7 @@
 package year2023.day25;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -72,7 +74,7 @@ record Apparatus(Map<String, Set<String>> connections) {
         return edges;
     }
 
-    void solve() {
+    int solve() {
         var top3 = connections.keySet().stream()
                 .flatMap(s1 -> edgesFrom(s1).stream())
                 .collect(Collectors.groupingBy(s1 -> s1, Collectors.counting()))
@@ -87,7 +89,7 @@ record Apparatus(Map<String, Set<String>> connections) {
             removeConnection(pair.first(), pair.last());
         }
         var topEdge = new TreeSet<>(top3.get(0));
-        System.out.println(edgesFrom(topEdge.first()).size() * edgesFrom(topEdge.last()).size());
+        return edgesFrom(topEdge.first()).size() * edgesFrom(topEdge.last()).size();
     }
 
     record ND(String node, int distance, ND previous) implements Comparable<ND> {
@@ -118,14 +120,25 @@ record Apparatus(Map<String, Set<String>> connections) {
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    private final Apparatus apparatus;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day25/day25_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var apparatus = Apparatus.parse(reader.lines());
-            apparatus.solve();
+            apparatus = Apparatus.parse(reader.lines());
         }
     }
+
+    @Override
+    public Object part1() {
+        return apparatus.solve();
+    }
+
+    @Override
+    public Object part2() {
+        return null;
+    }
 }
 
 public class Day25 {
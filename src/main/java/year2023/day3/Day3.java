@@ -1,5 +1,7 @@
 package year2023.day3;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -19,8 +21,7 @@ import java.util.stream.Stream;
 
 public class Day3 {
     public static void main(String[] args) throws IOException {
-        new Puzzle1().solve();
-        new Puzzle2().solve();
+        new Puzzle().solve();
     }
 }
 
@@ -96,31 +97,23 @@ class Schematic {
     }
 }
 
-abstract class Puzzle {
-    abstract void solve(Schematic schematic);
+class Puzzle implements Solver {
+    private final Schematic schematic = new Schematic();
 
-    void solve() throws IOException {
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day3/day3_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            Schematic schematic = new Schematic();
             schematic.parse(reader.lines());
-            solve(schematic);
         }
     }
-}
-
-class Puzzle1 extends Puzzle {
 
     @Override
-    void solve(Schematic schematic) {
-        System.out.println(schematic.solve());
+    public Object part1() {
+        return schematic.solve();
     }
-}
-
-class Puzzle2 extends Puzzle {
 
     @Override
-    void solve(Schematic schematic) {
-        System.out.println(schematic.gears());
+    public Object part2() {
+        return schematic.gears();
     }
 }
@@ -1,92 +1,123 @@
 package year2023.day4;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.function.Consumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.IntStream;
 
 public class Day4 {
     public static void main(String[] args) throws IOException {
-        new Puzzle().solve(ScratchCards::solve);
-        new Puzzle().solve(ScratchCards::solve2);
+        new Puzzle().solve();
     }
 }
 
-class Score {
-    int value = 0;
-    void increase() {
-        value = value == 0 ? 1 : value << 1;
-    }
-}
-
-record Card(int id, int matches, int instances) {
-    Card(int id, Set<Integer> winningNumbers, Set<Integer> numbers) {
-        this(id, matches(winningNumbers, numbers), 1);
-    }
+/**
+ * Points and card counts over a stream of cards in order. Each side of a card is a 128-bit presence mask, so the
+ * matches are the popcount of an AND. Won copies only reach the next 128 cards, so they cascade through a ring of
+ * differences: a card with {@code n} instances and {@code m} matches adds {@code n} to the next card and takes it off
+ * again after the {@code m}th, and the running sum of the differences is the number of copies of the current card.
+ * <p>
+ * A card with {@code m} matches is worth 2<sup>m-1</sup> points, so a card with more than {@link #MAX_MATCHES} is
+ * rejected rather than have its points overflow.
+ */
+class CardCounter {
+    static final int MAX_NUMBER = 127;
+    static final int MAX_MATCHES = Long.SIZE - 1;
+    private static final int RING = MAX_NUMBER + 2;
 
-    static int matches(Set<Integer> winningNumbers, Set<Integer> numbers) {
-        Set<Integer> copy = new HashSet<>(numbers);
-        copy.retainAll(winningNumbers);
-        return copy.size();
-    }
-
-    int score() {
-        var score = new Score();
-        IntStream.range(0, matches).forEach(z -> score.increase());
-        return score.value;
-    }
-}
+    private final long[] differences = new long[RING];
+    private int slot = 0;
+    private long copies = 0;
+    private long points = 0;
+    private long cards = 0;
 
-class ScratchCards {
-    private static final Pattern PATTERN = Pattern.compile("Card +(\\d+): (.+) \\| (.+)");
-    private static final Pattern DIGITS = Pattern.compile("(\\d+)");
-    private final Map<Integer, Card> cards = new TreeMap<>();
-
-    Set<Integer> numbers(String line) {
-        Set<Integer> numbers = new HashSet<>();
-        for (Matcher m = DIGITS.matcher(line); m.find(); ) {
-            numbers.add(Integer.parseInt(m.group(1)));
+    void accept(String line) {
+        int i = line.indexOf(':') + 1;
+        if (i == 0) {
+            throw new IllegalArgumentException(line);
+        }
+        long winningLow = 0;
+        long winningHigh = 0;
+        long low = 0;
+        long high = 0;
+        boolean winning = true;
+        int number = -1;
+        for (; i <= line.length(); i++) {
+            char c = i < line.length() ? line.charAt(i) : ' ';
+            if (c >= '0' && c <= '9') {
+                number = (number < 0 ? 0 : number * 10) + c - '0';
+                if (number > MAX_NUMBER) {
+                    throw new IllegalArgumentException("number too large in " + line);
+                }
+                continue;
+            }
+            if (number >= 0) {
+                if (winning) {
+                    if (number < 64) {
+                        winningLow |= 1L << number;
+                    } else {
+                        winningHigh |= 1L << number;
+                    }
+                } else {
+                    if (number < 64) {
+                        low |= 1L << number;
+                    } else {
+                        high |= 1L << number;
+                    }
+                }
+                number = -1;
+            }
+            if (c == '|') {
+                winning = false;
+            }
         }
-        return numbers;
+        add(Long.bitCount(winningLow & low) + Long.bitCount(winningHigh & high));
     }
 
-    void parse(String line) {
-        Matcher matcher = PATTERN.matcher(line);
-        if (!matcher.matches()) {
-            throw new IllegalArgumentException();
+    void add(int matches) {
+        copies += differences[slot];
+        differences[slot] = 0;
+        long instances = 1 + copies;
+        if (matches > MAX_MATCHES) {
+            throw new IllegalArgumentException(matches + " matches, at most " + MAX_MATCHES + " supported");
         }
-        int id = Integer.parseInt(matcher.group(1));
-        cards.put(id, new Card(id, numbers(matcher.group(2)), numbers(matcher.group(3))));
+        if (matches > 0) {
+            points = Math.addExact(points, 1L << (matches - 1));
+            differences[(slot + 1) % RING] += instances;
+            differences[(slot + matches + 1) % RING] -= instances;
+        }
+        cards += instances;
+        slot = (slot + 1) % RING;
     }
 
-    void solve() {
-        System.out.println(cards.values().stream().mapToInt(Card::score).sum());
+    long points() {
+        return points;
     }
 
-    void solve2() {
-        cards.values().stream().map(Card::id).forEach(i -> {
-            var card = cards.get(i);
-            IntStream.range(0, card.matches()).forEach(j -> cards.computeIfPresent(i + j + 1, (k, v) -> new Card(v.id(), v.matches(), v.instances() + card.instances())));
-        });
-        System.out.println(cards.values().stream().mapToInt(Card::instances).sum());
+    long cards() {
+        return cards;
     }
 }
 
-class Puzzle {
-    void solve(Consumer<ScratchCards> solver) throws IOException {
+class Puzzle implements Solver {
+    private final CardCounter counter = new CardCounter();
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day4/day4_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            ScratchCards cards = new ScratchCards();
-            reader.lines().forEach(cards::parse);
-            solver.accept(cards);
+            reader.lines().forEach(counter::accept);
         }
     }
+
+    @Override
+    public Object part1() {
+        return counter.points();
+    }
+
+    @Override
+    public Object part2() {
+        return counter.cards();
+    }
 }
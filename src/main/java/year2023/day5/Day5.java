@@ -1,5 +1,7 @@
 package year2023.day5;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -13,7 +15,6 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -127,11 +128,110 @@ record TMap(Category from, Category to, SortedSet<MapEntry> entries) {
         entries.add(new MapEntry(-1, Range.fromTo(-1, entries.first().range().start())));
         entries.add(new MapEntry(entries.last().range().end(), Range.fromTo(entries.last().range().end(), Long.MAX_VALUE)));
     }
+
+    PiecewiseMapping compile() {
+        return PiecewiseMapping.of(entries);
+    }
+}
+
+/**
+ * A mapping of longs that adds a constant offset per segment. Segment {@code i} covers {@code [starts[i],
+ * starts[i + 1])}, the first one starts at {@link Long#MIN_VALUE} and the last one runs up to {@link Long#MAX_VALUE}.
+ */
+record PiecewiseMapping(long[] starts, long[] offsets) {
+    static PiecewiseMapping of(SortedSet<MapEntry> entries) {
+        var builder = new Builder();
+        builder.add(Long.MIN_VALUE, 0);
+        long end = Long.MIN_VALUE;
+        for (MapEntry entry : entries) {
+            if (entry.range().start() > end) {
+                builder.add(end, 0);
+            }
+            builder.add(entry.range().start(), entry.destStart() - entry.range().start());
+            end = entry.range().end();
+        }
+        if (end < Long.MAX_VALUE) {
+            builder.add(end, 0);
+        }
+        return builder.build();
+    }
+
+    private int segment(long l) {
+        int i = Arrays.binarySearch(starts, l);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    long map(long l) {
+        return l + offsets[segment(l)];
+    }
+
+    /**
+     * The mapping that applies this one first and then {@code next}.
+     */
+    PiecewiseMapping andThen(PiecewiseMapping next) {
+        var builder = new Builder();
+        for (int i = 0; i < starts.length; i++) {
+            long offset = offsets[i];
+            long end = i + 1 < starts.length ? starts[i + 1] : Long.MAX_VALUE;
+            int j = next.segment(starts[i] + offset);
+            builder.add(starts[i], offset + next.offsets[j]);
+            while (++j < next.starts.length && next.starts[j] - offset < end) {
+                builder.add(next.starts[j] - offset, offset + next.offsets[j]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Lowest value any of the ranges maps to, sweeping the ranges and the segments together.
+     */
+    long min(SortedSet<Range> ranges) {
+        long min = Long.MAX_VALUE;
+        int i = 0;
+        for (Range range : ranges) {
+            if (range.start() < starts[i]) {
+                i = segment(range.start());
+            }
+            while (i + 1 < starts.length && starts[i + 1] <= range.start()) {
+                ++i;
+            }
+            min = Long.min(min, range.start() + offsets[i]);
+            for (int j = i + 1; j < starts.length && starts[j] < range.end(); j++) {
+                min = Long.min(min, starts[j] + offsets[j]);
+            }
+        }
+        return min;
+    }
+
+    private static class Builder {
+        private long[] starts = new long[16];
+        private long[] offsets = new long[16];
+        private int size;
+
+        void add(long start, long offset) {
+            if (size > 0 && starts[size - 1] == start) {
+                --size;
+            }
+            if (size > 0 && offsets[size - 1] == offset) {
+                return;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            starts[size] = start;
+            offsets[size++] = offset;
+        }
+
+        PiecewiseMapping build() {
+            return new PiecewiseMapping(Arrays.copyOf(starts, size), Arrays.copyOf(offsets, size));
+        }
+    }
 }
 
 public class Day5 {
     public static void main(String[] args) throws IOException {
-        new Puzzle().solve(LocationFinder::solve);
+        new Puzzle().solve();
     }
 }
 
@@ -203,22 +303,56 @@ class LocationFinder {
         tMap.entries().add(MapEntry.from(line));
     }
 
-    void solve() {
+    SortedSet<Range> ranges() {
+        return ranges;
+    }
+
+    void fillHoles() {
         maps.values().forEach(TMap::fillHoles);
-        System.out.println(seeds.stream().map(this::location).mapToLong(a -> a).min().orElseThrow());
-        System.out.println(location2(ranges));
+    }
+
+    /**
+     * All maps from seed to location composed into one.
+     */
+    PiecewiseMapping compile() {
+        PiecewiseMapping mapping = null;
+        for (Category c = Category.SEED; c != Category.LOCATION; c = maps.get(c).to()) {
+            var next = maps.get(c).compile();
+            mapping = mapping == null ? next : mapping.andThen(next);
+        }
+        return mapping;
+    }
+
+    long lowestLocation(PiecewiseMapping mapping) {
+        return seeds.stream().mapToLong(mapping::map).min().orElseThrow();
+    }
+
+    long lowestRangeLocation(PiecewiseMapping mapping) {
+        return mapping.min(ranges);
     }
 
     enum State {INIT, BLANK, DIGITS}
 }
 
-class Puzzle {
-    void solve(Consumer<LocationFinder> solver) throws IOException {
+class Puzzle implements Solver {
+    private final LocationFinder locationFinder = new LocationFinder();
+    private final PiecewiseMapping mapping;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day5/day5_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            LocationFinder locationFinder = new LocationFinder();
             reader.lines().forEach(locationFinder::parse);
-            solver.accept(locationFinder);
         }
+        mapping = locationFinder.compile();
+    }
+
+    @Override
+    public Object part1() {
+        return locationFinder.lowestLocation(mapping);
+    }
+
+    @Override
+    public Object part2() {
+        return locationFinder.lowestRangeLocation(mapping);
     }
 }
@@ -1,5 +1,7 @@
 package year2023.day6;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -11,8 +13,7 @@ import java.util.regex.Pattern;
 
 public class Day6 {
     public static void main(String[] args) throws IOException {
-        new Puzzle().solve(false);
-        new Puzzle().solve(true);
+        new Puzzle().solve();
     }
 }
 
@@ -45,18 +46,32 @@ record Races(Set<Record> records) {
         }
     }
 
-    void solve() {
-        System.out.println(records.stream().mapToLong(Record::waysToBeat).reduce(1L, (a, b) -> a * b));
+    long product() {
+        return records.stream().mapToLong(Record::waysToBeat).reduce(1L, (a, b) -> a * b);
     }
 }
 
-class Puzzle {
-    void solve(boolean badKerning) throws IOException {
+class Puzzle implements Solver {
+    private final Races races = new Races();
+    private final Races longRace = new Races();
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day6/day6_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var races = new Races();
-            races.parse(reader.readLine(), reader.readLine(), badKerning);
-            races.solve();
+            var times = reader.readLine();
+            var distances = reader.readLine();
+            races.parse(times, distances, false);
+            longRace.parse(times, distances, true);
         }
     }
+
+    @Override
+    public Object part1() {
+        return races.product();
+    }
+
+    @Override
+    public Object part2() {
+        return longRace.product();
+    }
 }
@@ -1,5 +1,7 @@
 package year2023.day7;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -32,8 +34,7 @@ enum Type {
 
 public class Day7 {
     public static void main(String[] args) throws IOException {
-        new Puzzle().solve(false);
-        new Puzzle().solve(true);
+        new Puzzle().solve();
     }
 }
 
@@ -95,19 +96,33 @@ record Game(List<Hand> hands, boolean jokers) {
         hands.add(Hand.from(line, jokers));
     }
 
-    void printWinnings() {
+    int winnings() {
         hands.sort(Comparator.reverseOrder());
-        System.out.println(IntStream.range(0, hands.size()).map(i -> hands.get(i).bid() * (i + 1)).sum());
+        return IntStream.range(0, hands.size()).map(i -> hands.get(i).bid() * (i + 1)).sum();
     }
 }
 
-class Puzzle {
-    void solve(boolean jokers) throws IOException {
+class Puzzle implements Solver {
+    private final Game game = new Game(false);
+    private final Game jokerGame = new Game(true);
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day7/day_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var game = new Game(jokers);
-            reader.lines().forEach(game::parse);
-            game.printWinnings();
+            reader.lines().forEach(line -> {
+                game.parse(line);
+                jokerGame.parse(line);
+            });
         }
     }
+
+    @Override
+    public Object part1() {
+        return game.winnings();
+    }
+
+    @Override
+    public Object part2() {
+        return jokerGame.winnings();
+    }
 }
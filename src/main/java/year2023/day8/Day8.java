@@ -1,10 +1,14 @@
 package year2023.day8;
 
+import common.Orbit;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,8 +30,7 @@ enum Instruction {
 
 public class Day8 {
     public static void main(String[] args) throws IOException {
-        System.out.println(new Puzzle().solve(false));
-        System.out.println(new Puzzle().solve(true));
+        new Puzzle().solve();
     }
 }
 
@@ -57,8 +60,8 @@ record Position(String label, String left, String right) {
 
 class DesertMap {
     private final List<Instruction> instructions = new ArrayList<>();
-    private final Map<String, Position> positions = new HashMap<>();
-    private int ip = 0;
+    private final List<Position> positions = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
 
     void readInstructions(String s) {
         instructions.addAll(s.chars().mapToObj(Instruction::from).toList());
@@ -66,50 +69,245 @@ class DesertMap {
 
     void readPosition(String s) {
         Position position = Position.from(s);
-        if (positions.containsKey(position.label())) {
+        if (ids.putIfAbsent(position.label(), positions.size()) != null) {
             throw new IllegalStateException();
         }
-        positions.put(position.label(), position);
+        positions.add(position);
     }
 
-    Position next(Position position) {
-        var nextLabel = position.nextLabel(instructions.get(ip));
-        ++ip;
-        if (ip >= instructions.size()) {
-            ip = 0;
+    int id(String label) {
+        Integer id = ids.get(label);
+        if (id == null) {
+            throw new IllegalStateException("unknown node " + label);
         }
-        return positions.get(nextLabel);
+        return id;
     }
 
-    int count(Position position, boolean ghost) {
-        int n = 0;
-        while (!position.isEnd(ghost)) {
-            position = next(position);
-            ++n;
+    Network compile(boolean ghost) {
+        int n = positions.size();
+        var left = new int[n];
+        var right = new int[n];
+        var end = new boolean[n];
+        var starts = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) {
+            var position = positions.get(i);
+            left[i] = id(position.left());
+            right[i] = id(position.right());
+            end[i] = position.isEnd(ghost);
+            if (position.isStart(ghost)) {
+                starts.add(i);
+            }
+        }
+        var moves = new boolean[instructions.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = instructions.get(i) == Instruction.R;
         }
-        return n;
+        return new Network(left, right, end, moves, starts.stream().mapToInt(Integer::intValue).toArray());
     }
 
-    BigInteger lcm(BigInteger a, BigInteger b) {
-        return a == null ? b : a.multiply(b).divide(a.gcd(b));
+    BigInteger solve(boolean ghost) {
+        var network = compile(ghost);
+        if (ghost) {
+            return network.allEnd();
+        }
+        long steps = network.firstEnd(id("AAA"));
+        if (steps < 0) {
+            throw new IllegalStateException("ZZZ is never reached");
+        }
+        return BigInteger.valueOf(steps);
     }
+}
 
-    BigInteger solve(boolean ghost) {
-        return positions.values().stream().filter(p -> p.isStart(ghost)).map(p -> new BigInteger(String.valueOf(count(p, ghost)))).reduce(null, this::lcm);
+/**
+ * Where a ghost is after every full pass of the instructions, as a function over node ids. The pass table and the
+ * nodes whose pass touches an end are computed for all nodes at once, one instruction at a time.
+ */
+final class Network {
+    private final int[] left;
+    private final int[] right;
+    private final boolean[] end;
+    private final boolean[] moves;
+    private final int[] starts;
+    private final int[] pass;
+    private final boolean[] passHits;
+    private int[][] jump;
+    private boolean[][] jumpHits;
+
+    Network(int[] left, int[] right, boolean[] end, boolean[] moves, int[] starts) {
+        this.left = left;
+        this.right = right;
+        this.end = end;
+        this.moves = moves;
+        this.starts = starts;
+        int n = left.length;
+        pass = new int[n];
+        passHits = end.clone();
+        for (int u = 0; u < n; u++) {
+            pass[u] = u;
+        }
+        for (int k = 0; k < moves.length; k++) {
+            var next = moves[k] ? right : left;
+            boolean last = k + 1 == moves.length;
+            for (int u = 0; u < n; u++) {
+                int v = next[pass[u]];
+                pass[u] = v;
+                if (!last) {
+                    passHits[u] |= end[v];
+                }
+            }
+        }
+    }
+
+    int[] starts() {
+        return starts;
+    }
+
+    /**
+     * Binary lifting over passes: level k jumps 2^k passes and records whether any of them touches an end. Enough
+     * levels are built to cover twice the node count, which is longer than any tail plus cycle.
+     */
+    private void lift() {
+        if (jump != null) {
+            return;
+        }
+        int levels = 64 - Long.numberOfLeadingZeros(2L * pass.length);
+        jump = new int[levels][];
+        jumpHits = new boolean[levels][];
+        jump[0] = pass;
+        jumpHits[0] = passHits;
+        for (int k = 1; k < levels; k++) {
+            var previous = jump[k - 1];
+            var previousHits = jumpHits[k - 1];
+            var current = new int[pass.length];
+            var currentHits = new boolean[pass.length];
+            for (int u = 0; u < pass.length; u++) {
+                int v = previous[u];
+                current[u] = previous[v];
+                currentHits[u] = previousHits[u] | previousHits[v];
+            }
+            jump[k] = current;
+            jumpHits[k] = currentHits;
+        }
+    }
+
+    /**
+     * Steps until a walk from {@code start} first stands on an end, or -1 if it never does.
+     */
+    long firstEnd(int start) {
+        lift();
+        int u = start;
+        long passes = 0;
+        for (int k = jump.length - 1; k >= 0; k--) {
+            if (!jumpHits[k][u]) {
+                u = jump[k][u];
+                passes += 1L << k;
+            }
+        }
+        if (!passHits[u]) {
+            return -1;
+        }
+        return passes * moves.length + hitOffsets(u)[0];
+    }
+
+    /**
+     * Offsets within a pass starting at {@code u} where the walk stands on an end.
+     */
+    private int[] hitOffsets(int u) {
+        var offsets = new int[4];
+        int count = 0;
+        for (int k = 0; k < moves.length; k++) {
+            if (end[u]) {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = k;
+            }
+            u = moves[k] ? right[u] : left[u];
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * The pass sequence from {@code start}, found with Brent's cycle detection, with every end hit on the way.
+     */
+    Orbit orbit(int start) {
+        int power = 1;
+        int period = 1;
+        int tortoise = start;
+        int hare = pass[start];
+        while (tortoise != hare) {
+            if (power == period) {
+                tortoise = hare;
+                power <<= 1;
+                period = 0;
+            }
+            hare = pass[hare];
+            ++period;
+        }
+        int tail = 0;
+        tortoise = start;
+        hare = start;
+        for (int i = 0; i < period; i++) {
+            hare = pass[hare];
+        }
+        while (tortoise != hare) {
+            tortoise = pass[tortoise];
+            hare = pass[hare];
+            ++tail;
+        }
+        var tailHits = new ArrayList<Long>();
+        var cycleHits = new ArrayList<Long>();
+        int u = start;
+        for (int p = 0; p < tail + period; p++) {
+            if (passHits[u]) {
+                for (int offset : hitOffsets(u)) {
+                    (p < tail ? tailHits : cycleHits).add((long) p * moves.length + offset);
+                }
+            }
+            u = pass[u];
+        }
+        return new Orbit((long) tail * moves.length, (long) period * moves.length,
+                tailHits.stream().mapToLong(Long::longValue).toArray(),
+                cycleHits.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * First step at which every ghost stands on an end at once.
+     */
+    BigInteger allEnd() {
+        var orbits = Arrays.stream(starts).mapToObj(this::orbit).toList();
+        if (orbits.stream().anyMatch(Orbit::isEmpty)) {
+            throw new IllegalStateException("some ghost never reaches an end");
+        }
+        var steps = Orbit.firstCommonHit(orbits);
+        if (steps == null) {
+            throw new IllegalStateException("ghosts never line up");
+        }
+        return steps;
     }
 }
 
-class Puzzle {
-    BigInteger solve(boolean ghost) throws IOException {
+class Puzzle implements Solver {
+    private final DesertMap map = new DesertMap();
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day8/day8_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
-            var map = new DesertMap();
             map.readInstructions(reader.readLine());
             if (!reader.readLine().isBlank()) {
                 throw new IllegalStateException();
             }
             reader.lines().forEach(map::readPosition);
-            return map.solve(ghost);
         }
     }
+
+    @Override
+    public Object part1() {
+        return map.solve(false);
+    }
+
+    @Override
+    public Object part2() {
+        return map.solve(true);
+    }
 }
@@ -1,5 +1,7 @@
 package year2023.day9;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -10,8 +12,7 @@ import java.util.Objects;
 
 public class Day9 {
     public static void main(String[] args) throws IOException {
-        new Puzzle().solve(false);
-        new Puzzle().solve(true);
+        new Puzzle().solve();
     }
 }
 
@@ -37,13 +38,27 @@ record Sequence(int[] numbers) {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     final List<Sequence> sequences = new ArrayList<>();
-    void solve(boolean backwards) throws IOException {
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("/year2023/day9/day9_input"))) {
             var reader = new BufferedReader(new InputStreamReader(input));
             sequences.addAll(reader.lines().map(Sequence::from).toList());
-            System.out.println((sequences.stream().mapToInt(s -> s.next(backwards)).sum()));
         }
     }
+
+    int sum(boolean backwards) {
+        return sequences.stream().mapToInt(s -> s.next(backwards)).sum();
+    }
+
+    @Override
+    public Object part1() {
+        return sum(false);
+    }
+
+    @Override
+    public Object part2() {
+        return sum(true);
+    }
 }
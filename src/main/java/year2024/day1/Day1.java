@@ -1,5 +1,7 @@
 package year2024.day1;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -15,14 +17,30 @@ public class Day1 {
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    final ListPair listPair;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("day1_input"))) {
-            var reader = new BufferedReader(new InputStreamReader(input));
-            var listPair = ListPair.parse(reader.lines());
-            listPair.print();
+            listPair = ListPair.parse(new BufferedReader(new InputStreamReader(input)).lines());
         }
     }
+
+    @Override
+    public Object part1() {
+        return listPair.difference();
+    }
+
+    @Override
+    public Object part2() {
+        return listPair.similarityScore();
+    }
+
+    @Override
+    public void solve() {
+        System.out.println("difference = " + part1());
+        System.out.println("similarity score = " + part2());
+    }
 }
 
 record Pair(int left, int right) {
@@ -62,9 +80,4 @@ record ListPair(List<Integer> left, List<Integer> right){
         }
         return similarityScore;
     }
-
-    void print() {
-        System.out.println("difference = " + difference());
-        System.out.println("similarity score = " + similarityScore());
-    }
 }
@@ -1,17 +1,13 @@
 package year2024.day10;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayDeque;
-import java.util.Collection;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class Day10 {
@@ -20,28 +16,23 @@ public class Day10 {
     }
 }
 
-class Puzzle {
-    final Grid grid;
+class Puzzle implements Solver {
+    final Pair trails;
 
     Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("day10_input"))) {
-            grid = Grid.from(new BufferedReader(new InputStreamReader(input)).lines());
+            trails = Grid.from(new BufferedReader(new InputStreamReader(input)).lines()).hike();
         }
     }
 
-    void solve() {
-        System.out.println(grid.hike());
+    @Override
+    public Object part1() {
+        return trails.score();
     }
-}
 
-record Coordinate(int x, int y) {
-    Collection<Coordinate> neighbours() {
-        return Set.of(
-                new Coordinate(x + 1, y),
-                new Coordinate(x, y + 1),
-                new Coordinate(x - 1, y),
-                new Coordinate(x, y - 1)
-        );
+    @Override
+    public Object part2() {
+        return trails.rating();
     }
 }
 
@@ -54,64 +45,54 @@ record Pair(int score, int rating) {
     }
 }
 
-record Grid(Map<Coordinate, Integer> heights, Set<Coordinate> trailHeads) {
+record Grid(ByteGrid heights) {
+    static final byte OUTSIDE = 0;
+
     static Grid from(Stream<String> lines) {
-        int y = 0;
-        Map<Coordinate, Integer> heights = new HashMap<>();
-        Set<Coordinate> trailHeads = new HashSet<>();
-        for (String line : lines.toList()) {
-            int x = 0;
-            for (int height : line.chars().filter(Character::isDigit).map(i -> i - '0').toArray()) {
-                var c = new Coordinate(x, y);
-                if (height == 0) {
-                    trailHeads.add(c);
-                }
-                heights.put(c, height);
-                ++x;
-            }
-            ++y;
-        }
-        return new Grid(heights, trailHeads);
+        return new Grid(ByteGrid.padded(lines.toList(), OUTSIDE));
     }
 
-    boolean canHike(Coordinate from, Coordinate to) {
-        var i = heights.get(from);
-        var j = heights.get(to);
-        return j != null && j == i + 1;
+    boolean canHike(int from, int to) {
+        return heights.at(to) == heights.at(from) + 1;
     }
 
     Pair hike() {
-        return trailHeads.stream().map(this::pair).reduce(Pair.ZERO(), Pair::add);
-    }
-
-    Pair pair(Coordinate trailHead) {
-        var trails = trails(trailHead);
-        int rating = trails.size();
-        int score = trails.stream().map(Deque::getLast).collect(Collectors.toSet()).size();
-        return new Pair(score, rating);
+        var seen = new int[heights.size()];
+        var stack = new int[64];
+        var total = Pair.ZERO();
+        int trailHead = 0;
+        for (int y = 0; y < heights.height(); y++) {
+            for (int c = heights.index(0, y), x = 0; x < heights.width(); x++, c++) {
+                if (heights.at(c) == '0') {
+                    total = total.add(pair(c, ++trailHead, seen, stack));
+                }
+            }
+        }
+        return total;
     }
 
-    Set<Deque<Coordinate>> trails(Coordinate trailHead) {
-        Set<Deque<Coordinate>> trails = new HashSet<>();
-        Deque<Deque<Coordinate>> deque = new ArrayDeque<>();
-        Deque<Coordinate> start = new ArrayDeque<>();
-        start.addLast(trailHead);
-        deque.addLast(start);
-        while (!deque.isEmpty()) {
-            var trail = deque.removeFirst();
-            Coordinate position = trail.getLast();
-            if (heights.get(position) == 9) {
-                trails.add(trail);
+    Pair pair(int trailHead, int stamp, int[] seen, int[] stack) {
+        int score = 0;
+        int rating = 0;
+        int top = 0;
+        stack[top++] = trailHead;
+        while (top > 0) {
+            var position = stack[--top];
+            if (heights.at(position) == '9') {
+                ++rating;
+                if (seen[position] != stamp) {
+                    seen[position] = stamp;
+                    ++score;
+                }
             } else {
-                for (Coordinate neighbour : position.neighbours()) {
+                for (int heading = DenseGrid.NORTH; heading < 8; heading += 2) {
+                    var neighbour = heights.step(position, heading);
                     if (canHike(position, neighbour)) {
-                        var xTrail = new ArrayDeque<>(trail);
-                        xTrail.addLast(neighbour);
-                        deque.addLast(xTrail);
+                        stack[top++] = neighbour;
                     }
                 }
             }
         }
-        return trails;
+        return new Pair(score, rating);
     }
 }
@@ -1,11 +1,12 @@
 package year2024.day11;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.stream.Stream;
 
 public class Day11 {
@@ -14,73 +15,249 @@ public class Day11 {
     }
 }
 
-class Puzzle {
-    private final Stones initialStones;
+class Puzzle implements Solver {
+    private final long[] initialStones;
+    private StoneCounter counter;
 
     Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("day11_input"))) {
-            initialStones = Stones.from(new BufferedReader(new InputStreamReader(input)).lines());
+            initialStones = StoneCounter.parse(new BufferedReader(new InputStreamReader(input)).lines());
         }
     }
 
-    void solve() {
-        var after25 = initialStones.blink(25);
-        System.out.println(after25.total());
-        var after75 = after25.blink(50);
-        System.out.println(after75.total());
+    @Override
+    public Object part1() {
+        counter = new StoneCounter(initialStones, false).blink(25);
+        return counter.total();
+    }
+
+    @Override
+    public Object part2() {
+        return counter.blink(50).total();
     }
 }
 
-class Stones {
-    private final SortedMap<Long, Long> stones = new TreeMap<>();
+/**
+ * Counts stones per number in two primitive tables that are swapped after every blink, with numbers split by
+ * arithmetic instead of through strings.
+ * <p>
+ * The set of distinct numbers stops growing after a hundred or so blinks, so each blink costs the same from then on.
+ * The counts overflow a long at around that point too, which throws an {@link ArithmeticException} rather than wrap.
+ */
+class StoneCounter {
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Transitions transitions;
+    private LongCounts current = new LongCounts(1024);
+    private LongCounts next = new LongCounts(1024);
 
-    static Stones from(Stream<String> lines) {
-        var stones = new Stones();
-        for (var line : lines.toList()) {
-            stones.parse(line);
+    StoneCounter(long[] stones, boolean cacheTransitions) {
+        for (long stone : stones) {
+            current.add(stone, 1);
         }
-        return stones;
+        transitions = cacheTransitions ? new Transitions() : null;
     }
 
-    void add(long number, long count) {
-        stones.compute(number, (k, v) -> v == null ? count : v + count);
+    static long[] parse(Stream<String> lines) {
+        return lines.flatMap(l -> Arrays.stream(l.trim().split(" +"))).filter(t -> !t.isEmpty()).mapToLong(Long::parseLong).toArray();
     }
 
-    void parse(String line) {
-        for (String number : line.split(" ")) {
-            add(Long.parseLong(number), 1);
+    static int digits(long number) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && number >= POWERS_OF_TEN[digits]) {
+            ++digits;
         }
+        return digits;
     }
 
-    Stones blink() {
-        var newStones = new Stones();
-        for (var stone : stones.keySet()) {
-            var count = stones.get(stone);
-            if (stone == 0) {
-                newStones.add(1, count);
-            } else {
-                var number = String.valueOf(stone);
-                var l = number.length();
-                if ((l & 1) == 0) {
-                    newStones.add(Long.parseLong(number.substring(0, l >> 1)), count);
-                    newStones.add(Long.parseLong(number.substring(l >> 1)), count);
+    /**
+     * Writes what a stone turns into to {@code into}: the second number is -1 when the stone doesn't split.
+     */
+    static void transition(long stone, long[] into) {
+        if (stone == 0) {
+            into[0] = 1;
+            into[1] = -1;
+            return;
+        }
+        int digits = digits(stone);
+        if ((digits & 1) == 0) {
+            long half = POWERS_OF_TEN[digits >> 1];
+            into[0] = stone / half;
+            into[1] = stone % half;
+        } else {
+            into[0] = stone * 2024;
+            into[1] = -1;
+        }
+    }
+
+    StoneCounter blink(long count) {
+        var into = new long[2];
+        for (long i = 0; i < count; i++) {
+            next.clear();
+            for (int slot = 0; slot < current.capacity(); slot++) {
+                long stone = current.keyAt(slot);
+                if (stone == LongCounts.EMPTY) {
+                    continue;
+                }
+                long n = current.valueAt(slot);
+                if (transitions == null) {
+                    transition(stone, into);
+                    next.add(into[0], n);
+                    if (into[1] != -1) {
+                        next.add(into[1], n);
+                    }
                 } else {
-                    newStones.add(stone * 2024L, count);
+                    int t = transitions.index(stone);
+                    next.add(transitions.first(t), n);
+                    if (transitions.second(t) != -1) {
+                        next.add(transitions.second(t), n);
+                    }
                 }
             }
+            var swap = current;
+            current = next;
+            next = swap;
+        }
+        return this;
+    }
+
+    long total() {
+        long total = 0;
+        for (int slot = 0; slot < current.capacity(); slot++) {
+            if (current.keyAt(slot) != LongCounts.EMPTY) {
+                total = Math.addExact(total, current.valueAt(slot));
+            }
         }
-        return newStones;
+        return total;
     }
 
-    Stones blink(int count) {
-        var result = this;
-        for (int i = 0; i < count ; i++) {
-            result = result.blink();
+    int distinct() {
+        return current.size();
+    }
+}
+
+/**
+ * Memoised {@link StoneCounter#transition}, indexed through a {@link LongCounts} from stone to slot.
+ */
+class Transitions {
+    private final LongCounts index = new LongCounts(1024);
+    private final long[] into = new long[2];
+    private long[] first = new long[1024];
+    private long[] second = new long[1024];
+    private int size;
+
+    int index(long stone) {
+        long i = index.get(stone);
+        if (i != LongCounts.EMPTY) {
+            return (int) i;
         }
-        return result;
+        if (size == first.length) {
+            first = Arrays.copyOf(first, size * 2);
+            second = Arrays.copyOf(second, size * 2);
+        }
+        StoneCounter.transition(stone, into);
+        first[size] = into[0];
+        second[size] = into[1];
+        index.add(stone, size);
+        return size++;
     }
 
-    long total() {
-        return stones.values().stream().mapToLong(l -> l).sum();
+    long first(int index) {
+        return first[index];
+    }
+
+    long second(int index) {
+        return second[index];
+    }
+}
+
+/**
+ * Open-addressing map from non-negative long to long with linear probing; {@link #EMPTY} marks a free slot.
+ */
+class LongCounts {
+    static final long EMPTY = -1;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    LongCounts(int capacity) {
+        allocate(Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int i = (int) (h ^ (h >>> 32)) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    void add(long key, long delta) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            values[i] = delta;
+            if (++size > (keys.length >> 1) + (keys.length >> 2)) {
+                grow();
+            }
+        } else {
+            values[i] = Math.addExact(values[i], delta);
+        }
+    }
+
+    long get(long key) {
+        int i = slot(key);
+        return keys[i] == EMPTY ? EMPTY : values[i];
+    }
+
+    private void grow() {
+        var oldKeys = keys;
+        var oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    long valueAt(int slot) {
+        return values[slot];
     }
 }
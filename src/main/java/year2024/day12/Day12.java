@@ -1,20 +1,15 @@
 package year2024.day12;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.stream.Stream;
 
 public class Day12 {
@@ -23,7 +18,7 @@ public class Day12 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
 
     private final Grid grid;
 
@@ -33,122 +28,77 @@ class Puzzle {
         }
     }
 
-    void solve() {
-        var regions = grid.regions();
-        System.out.println(regions.stream().mapToInt(Region::price).sum());
-        System.out.println(regions.stream().mapToLong(Region::betterPrice).sum());
-    }
-}
-
-record Coordinate(int x, int y) implements Comparable<Coordinate> {
-    Collection<Coordinate> neighbours() {
-        return Set.of(
-                new Coordinate(x + 1, y),
-                new Coordinate(x, y + 1),
-                new Coordinate(x - 1, y),
-                new Coordinate(x, y - 1)
-        );
-    }
-
-    Collection<Coordinate> edges() {
-        return Set.of(
-                new Coordinate(x, y),
-                new Coordinate(x, y + 1),
-                new Coordinate(x + 1, y),
-                new Coordinate(x + 1, y + 1)
-        );
-    }
-
-    boolean isNeighbor(Coordinate other) {
-        return x == other.x || y == other.y;
+    @Override
+    public Object part1() {
+        return grid.regions().stream().mapToInt(Region::price).sum();
     }
 
     @Override
-    public int compareTo(Coordinate o) {
-        return y == o.y ? Integer.compare(x, o.x) : Integer.compare(y, o.y);
+    public Object part2() {
+        return grid.regions().stream().mapToLong(Region::betterPrice).sum();
     }
 }
 
-record Region(Map<Coordinate, Integer> plots) {
-    int area() {
-        return plots.size();
-    }
-
-    int perimeter() {
-        return plots.values().stream().mapToInt(i -> i).sum();
-    }
-
+/**
+ * A region's area and perimeter, and its number of sides, which equals its number of corners.
+ */
+record Region(int area, int perimeter, int sides) {
     int price() {
-        return area() * perimeter();
-    }
-
-    long edges() {
-        Map<Coordinate, SortedSet<Coordinate>> edges = new HashMap<>();
-        for (Coordinate coordinate : plots.keySet()) {
-            for (Coordinate edge : coordinate.edges()) {
-                edges.computeIfAbsent(edge, c -> new TreeSet<>());
-                edges.get(edge).add(coordinate);
-            }
-
-        }
-        long hidden = 2 * edges.values().stream().filter(s -> s.size() == 2 && !s.first().isNeighbor(s.last())).count();
-        return edges.values().stream().filter(s -> (s.size() & 1) == 1).count() + hidden;
+        return area * perimeter;
     }
 
     long betterPrice() {
-        return area() * edges();
+        return (long) area * sides;
     }
 }
 
-record Grid(Map<Coordinate, Character> plots) {
+record Grid(ByteGrid plots) {
+    static final byte OUTSIDE = 0;
+
     static Grid from(Stream<String> lines) {
-        Map<Coordinate, Character> plots = new HashMap<>();
-        int y = 0;
-        for (String line : lines.toList()) {
-            int x = 0;
-            for (char c : line.toCharArray()) {
-                plots.put(new Coordinate(x, y), c);
-                x++;
-            }
-            y++;
-        }
-        return new Grid(plots);
+        return new Grid(ByteGrid.padded(lines.toList(), OUTSIDE));
     }
 
-    Region region(Coordinate coordinate, Set<Coordinate> visited) {
-        var thisPlant = plots.get(coordinate);
-        Map<Coordinate, Integer> bits = new HashMap<>();
-        Deque<Coordinate> queue = new ArrayDeque<>();
-        queue.addLast(coordinate);
-        while (!queue.isEmpty()) {
-            if (queue.size() > plots.size()) {
-                throw new IllegalStateException();
-            }
-            Coordinate c = queue.removeFirst();
-            visited.add(c);
-            int fences = 4;
-            for (Coordinate neighbour : c.neighbours()) {
-                var otherPlant = plots.get(neighbour);
-                if (Objects.equals(otherPlant, thisPlant)) {
-                    --fences;
-                    if (!visited.contains(neighbour)) {
-                        if (!queue.contains(neighbour)) {
-                            queue.addLast(neighbour);
-                        }
-                    }
+    Region region(int start, boolean[] visited, int[] queue) {
+        var plant = plots.at(start);
+        int area = 0;
+        int perimeter = 0;
+        int sides = 0;
+        int head = 0;
+        int tail = 0;
+        visited[start] = true;
+        queue[tail++] = start;
+        while (head < tail) {
+            int c = queue[head++];
+            ++area;
+            for (int d = DenseGrid.NORTH; d < 8; d += 2) {
+                int neighbour = plots.step(c, d);
+                boolean same = plots.at(neighbour) == plant;
+                boolean turned = plots.at(plots.step(c, DenseGrid.right(d))) == plant;
+                boolean diagonal = plots.at(plots.step(c, d + 1)) == plant;
+                if (same == turned && !(same && diagonal)) {
+                    ++sides;
+                }
+                if (!same) {
+                    ++perimeter;
+                } else if (!visited[neighbour]) {
+                    visited[neighbour] = true;
+                    queue[tail++] = neighbour;
                 }
             }
-            bits.put(c, fences);
         }
-        return new Region(bits);
+        return new Region(area, perimeter, sides);
     }
 
     List<Region> regions() {
         List<Region> regions = new ArrayList<>();
-        Set<Coordinate> visited = new HashSet<>();
-        for (Coordinate coordinate : plots.keySet()) {
-            if (!visited.contains(coordinate)) {
-                regions.add(region(coordinate, visited));
+        var visited = new boolean[plots.size()];
+        var queue = new int[plots.size()];
+        for (int y = 0; y < plots.height(); y++) {
+            for (int c = plots.index(0, y), x = 0; x < plots.width(); x++, c++) {
+                if (!visited[c]) {
+                    regions.add(region(c, visited, queue));
+                }
             }
         }
         return regions;
@@ -1,5 +1,7 @@
 package year2024.day13;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -13,7 +15,7 @@ public class Day13 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     final List<ClawMachine> clawMachines = new ArrayList<>();
 
     Puzzle() throws Exception {
@@ -23,9 +25,14 @@ class Puzzle {
         }
     }
 
-    void solve() {
-        System.out.println(clawMachines.stream().mapToLong(c -> c.tokens(0L)).sum());
-        System.out.println(clawMachines.stream().mapToLong(c -> c.tokens(10000000000000L)).sum());
+    @Override
+    public Object part1() {
+        return clawMachines.stream().mapToLong(c -> c.tokens(0L)).sum();
+    }
+
+    @Override
+    public Object part2() {
+        return clawMachines.stream().mapToLong(c -> c.tokens(10000000000000L)).sum();
     }
 }
 
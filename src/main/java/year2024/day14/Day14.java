@@ -1,5 +1,7 @@
 package year2024.day14;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -21,7 +23,7 @@ public class Day14 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     final Grid grid;
     final int width = 101;
     final int height = 103;
@@ -32,17 +34,25 @@ class Puzzle {
         }
     }
 
-    void solve() {
-        System.out.println(grid.move(100).safetyFactor());
+    @Override
+    public Object part1() {
+        return grid.move(100).safetyFactor();
+    }
+
+    /**
+     * Seconds until the robots first line up into the picture, recognised by a run of ten robots in one row. Null when
+     * no such run appears within one full period of the grid.
+     */
+    @Override
+    public Object part2() {
         Grid newGrid = grid;
         for (int i = 0; i <= width * height; i++) {
             if (newGrid.toString().matches("(?s).*\\*{10}.*")) {
-                System.out.println(i);
-                System.out.println(newGrid);
-                break;
+                return i;
             }
             newGrid = newGrid.move(1);
         }
+        return null;
     }
 }
 
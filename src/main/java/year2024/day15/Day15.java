@@ -1,231 +1,216 @@
 package year2024.day15;
 
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.ArrayDeque;
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Deque;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-
-enum Heading {
-    EAST('>', Coordinate::east),
-    SOUTH('v', Coordinate::south),
-    WEST('<', Coordinate::west),
-    NORTH('^', Coordinate::north);
-    final char c;
-    final Function<Coordinate, Coordinate> mover;
-
-    Heading(char c, Function<Coordinate, Coordinate> mover) {
-        this.c = c;
-        this.mover = mover;
-    }
-
-    static Heading from(char c) {
-        return Arrays.stream(values()).filter(t -> t.c == c).findFirst().orElseThrow();
-    }
-}
 
 public class Day15 {
-    public static void main(String[] args) throws Exception {
-        new Puzzle(false).solve();
-        new Puzzle(true).solve();
+    public static void main(String[] args) throws IOException {
+        new Puzzle().solve();
     }
 }
 
-class Puzzle {
-    final Grid initialGrid;
+class Puzzle implements Solver {
+    final String input;
 
-    Puzzle(boolean wide) throws Exception {
-        initialGrid = Grid.from(Files.readString(Paths.get(Objects.requireNonNull(getClass().getResource("day15_input")).toURI())), wide);
-    }
-
-    void solve() {
-        var grid = initialGrid;
-        while (true) {
-            //System.out.println(grid);
-            var newGrid = grid.move();
-            if (newGrid == null) {
-                break;
-            }
-            grid = newGrid;
+    Puzzle() throws IOException {
+        try (var stream = Objects.requireNonNull(getClass().getResourceAsStream("day15_input"))) {
+            input = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
         }
-        System.out.println(grid.gpsSum());
-    }
-}
-
-record Coordinate(int x, int y) {
-    Coordinate north() {
-        return new Coordinate(x, y - 1);
     }
 
-    Coordinate south() {
-        return new Coordinate(x, y + 1);
-    }
-
-    Coordinate west() {
-        return new Coordinate(x - 1, y);
+    long gpsSum(boolean wide) {
+        var warehouse = Warehouse.from(input, wide);
+        while (warehouse.move()) {
+            //System.out.println(warehouse);
+        }
+        return warehouse.gpsSum();
     }
 
-    Coordinate east() {
-        return new Coordinate(x + 1, y);
+    @Override
+    public Object part1() {
+        return gpsSum(false);
     }
 
-    Coordinate move(Heading heading) {
-        return heading.mover.apply(this);
+    @Override
+    public Object part2() {
+        return gpsSum(true);
     }
 }
 
-record Grid(Coordinate position, Set<Coordinate> boxes, Set<Coordinate> walls, List<Heading> headings,
-            int instructionPointer, boolean wide) {
-    static Grid from(String input, boolean wide) {
+/**
+ * The warehouse as a mutable grid of its characters, with boxes drawn as {@code O} or, when wide, as {@code []}. The
+ * map is walled in, so the robot and the boxes can step without bounds checks.
+ */
+final class Warehouse {
+    static final byte WALL = '#';
+    static final byte FLOOR = '.';
+    static final byte BOX = 'O';
+    static final byte LEFT = '[';
+    static final byte RIGHT = ']';
+
+    private final ByteGrid cells;
+    private final int[] headings;
+    private int robot;
+    private int instructionPointer = 0;
+    private int[] pushed = new int[64];
+    private final int[] seen;
+    private int stamp = 0;
+
+    private Warehouse(ByteGrid cells, int robot, int[] headings) {
+        this.cells = cells;
+        this.robot = robot;
+        this.headings = headings;
+        seen = new int[cells.size()];
+    }
+
+    static Warehouse from(String input, boolean wide) {
         var parts = input.split("\n\n");
-        int y = 0;
-        Coordinate position = null;
-        Set<Coordinate> boxes = new HashSet<>();
-        Set<Coordinate> walls = new HashSet<>();
+        List<String> lines = new ArrayList<>();
         for (String line : parts[0].split("\n")) {
-            int x = 0;
-            for (char c : line.toCharArray()) {
-                Coordinate coordinate = new Coordinate(x, y);
-                switch (c) {
-                    case '@' -> position = coordinate;
-                    case '#' -> walls.add(coordinate);
-                    case 'O' -> boxes.add(coordinate);
-                }
-                if (wide && c == '#') {
-                    walls.add(coordinate.east());
+            if (wide) {
+                var sb = new StringBuilder();
+                for (char c : line.toCharArray()) {
+                    sb.append(switch (c) {
+                        case '#' -> "##";
+                        case 'O' -> "[]";
+                        case '@' -> "@.";
+                        default -> "..";
+                    });
                 }
-                x += wide ? 2 : 1;
+                line = sb.toString();
             }
-            y++;
+            lines.add(line);
         }
-        List<Heading> headings = new ArrayList<>();
-        for (String line : parts[1].split("\n")) {
-            for (char c : line.toCharArray()) {
-                headings.add(Heading.from(c));
-            }
+        var cells = ByteGrid.parse(lines);
+        int robot = cells.indexOf((byte) '@');
+        if (robot < 0) {
+            throw new IllegalArgumentException("no robot");
         }
-        return new Grid(position, boxes, walls, headings, 0, wide);
-    }
-
-    boolean isBoxNextToWall(Coordinate box, Heading heading) {
-        return walls.contains(box.move(heading)) || wide && walls.contains(box.move(heading).east());
-    }
-
-    Set<Coordinate> movableBoxes(Coordinate initialPos, Heading heading) {
-        Set<Coordinate> visited = new HashSet<>();
-        Deque<Coordinate> queue = new ArrayDeque<>();
-        if (!boxes.contains(initialPos)) {
-            throw new IllegalStateException();
+        cells.put(robot, FLOOR);
+        var headings = parts[1].chars().filter(c -> c != '\n').map(Warehouse::heading).toArray();
+        return new Warehouse(cells, robot, headings);
+    }
+
+    static int heading(int c) {
+        return switch (c) {
+            case '^' -> DenseGrid.NORTH;
+            case '>' -> DenseGrid.EAST;
+            case 'v' -> DenseGrid.SOUTH;
+            case '<' -> DenseGrid.WEST;
+            default -> throw new IllegalArgumentException("bad heading " + (char) c);
+        };
+    }
+
+    /**
+     * Carries out the next instruction; returns false when there are none left.
+     */
+    boolean move() {
+        if (instructionPointer >= headings.length) {
+            return false;
         }
-        queue.addLast(initialPos);
-        while (!queue.isEmpty()) {
-            var pos = queue.removeFirst();
-            if (visited.contains(pos)) {
-                continue;
-            }
-            visited.add(pos);
-            var newPos = pos.move(heading);
-            if (boxes.contains(newPos)) {
-                queue.addLast(newPos);
-            }
-            if (wide) {
-                if (boxes.contains(newPos.west())) {
-                    queue.addLast(newPos.west());
-                }
-                if (boxes.contains(newPos.east())) {
-                    queue.addLast(newPos.east());
-                }
-            }
+        int heading = headings[instructionPointer++];
+        int next = cells.step(robot, heading);
+        byte c = cells.at(next);
+        if (c == FLOOR) {
+            robot = next;
+        } else if (c != WALL && ((c == BOX || heading == DenseGrid.EAST || heading == DenseGrid.WEST)
+                ? pushLine(next, heading) : pushWide(next, heading))) {
+            robot = next;
         }
-        return visited.stream().noneMatch(c -> isBoxNextToWall(c, heading)) ? visited : Collections.emptySet();
-    }
-
-    boolean isRobotNextToWall(Heading heading) {
-        return walls.contains(position.move(heading));
+        return true;
     }
 
-    Coordinate boxNextToRobot(Heading heading) {
-        Coordinate next = position.move(heading);
-        if (boxes.contains(next)) {
-            return next;
+    /**
+     * Shifts the run of box cells starting at {@code first} one step along {@code heading}, if it ends in floor.
+     */
+    private boolean pushLine(int first, int heading) {
+        int end = first;
+        while (cells.at(end) != FLOOR) {
+            if (cells.at(end) == WALL) {
+                return false;
+            }
+            end = cells.step(end, heading);
+        }
+        int back = cells.offset(heading);
+        for (int i = end; i != first; i -= back) {
+            cells.put(i, cells.at(i - back));
         }
-        if (wide) {
-            Coordinate west = next.west();
-            if (boxes.contains(west)) {
-                return west;
+        cells.put(first, FLOOR);
+        return true;
+    }
+
+    /**
+     * Pushes the wide box at {@code first} vertically, together with every box it touches, if none of them is blocked.
+     */
+    private boolean pushWide(int first, int heading) {
+        ++stamp;
+        int count = 0;
+        count = add(cells.at(first) == LEFT ? first : first - 1, count);
+        for (int head = 0; head < count; head++) {
+            int left = pushed[head];
+            for (int i = left; i <= left + 1; i++) {
+                int ahead = cells.step(i, heading);
+                switch (cells.at(ahead)) {
+                    case WALL -> {
+                        return false;
+                    }
+                    case LEFT -> count = add(ahead, count);
+                    case RIGHT -> count = add(ahead - 1, count);
+                    default -> {
+                    }
+                }
             }
         }
-        return null;
+        for (int i = count - 1; i >= 0; i--) {
+            int left = pushed[i];
+            int ahead = cells.step(left, heading);
+            cells.put(left, FLOOR);
+            cells.put(left + 1, FLOOR);
+            cells.put(ahead, LEFT);
+            cells.put(ahead + 1, RIGHT);
+        }
+        return true;
     }
 
-    Grid move() {
-        if (instructionPointer >= headings.size()) {
-            return null;
-        }
-        var heading = headings.get(instructionPointer);
-        boolean robotCanMove;
-        Set<Coordinate> movableBoxes;
-        if (isRobotNextToWall(heading)) {
-            robotCanMove = false;
-            movableBoxes = Collections.emptySet();
-        } else {
-            var possibleBox = boxNextToRobot(heading);
-            if (possibleBox == null) {
-                robotCanMove = true;
-                movableBoxes = Collections.emptySet();
-            } else {
-                movableBoxes = movableBoxes(possibleBox, heading);
-                robotCanMove = !movableBoxes.isEmpty();
+    private int add(int left, int count) {
+        if (seen[left] != stamp) {
+            seen[left] = stamp;
+            if (count == pushed.length) {
+                pushed = Arrays.copyOf(pushed, count * 2);
             }
+            pushed[count++] = left;
         }
-        Set<Coordinate> newBoxes;
-        if (movableBoxes.isEmpty()) {
-            newBoxes = boxes;
-        } else {
-            newBoxes = new HashSet<>();
-            newBoxes.addAll(boxes.stream().filter(Predicate.not(movableBoxes::contains)).collect(Collectors.toSet()));
-            newBoxes.addAll(boxes.stream().filter(movableBoxes::contains).map(c -> c.move(heading)).collect(Collectors.toSet()));
-        }
-        return new Grid(robotCanMove ? position.move(heading) : position, newBoxes, walls, headings, instructionPointer + 1, wide);
+        return count;
     }
 
     long gpsSum() {
-        return boxes.stream().mapToLong(c -> c.x() + 100L * c.y()).sum();
+        long sum = 0;
+        for (int y = 0; y < cells.height(); y++) {
+            for (int x = 0; x < cells.width(); x++) {
+                byte c = cells.get(x, y);
+                if (c == BOX || c == LEFT) {
+                    sum += x + 100L * y;
+                }
+            }
+        }
+        return sum;
     }
 
     @Override
     public String toString() {
-        int width = walls.stream().mapToInt(Coordinate::x).max().orElseThrow() + 1;
-        int height = walls.stream().mapToInt(Coordinate::y).max().orElseThrow() + 1;
         var sb = new StringBuilder();
-        for (int y = 0; y < height; y++) {
-            char[] chars = new char[width];
-            for (int x = 0; x < width; x++) {
-                var xy = new Coordinate(x, y);
-                char c;
-                if (xy.equals(position)) {
-                    c = '@';
-                } else if (walls.contains(xy)) {
-                    c = '#';
-                } else if (boxes.contains(xy)) {
-                    c = wide ? '[' : 'O';
-                } else if (wide && boxes.contains(xy.west())) {
-                    c = ']';
-                } else {
-                    c = '.';
-                }
-                chars[x] = c;
+        for (int y = 0; y < cells.height(); y++) {
+            for (int x = 0; x < cells.width(); x++) {
+                sb.append(cells.index(x, y) == robot ? '@' : (char) cells.get(x, y));
             }
-            sb.append(chars);
             sb.append('\n');
         }
         return sb.toString();
@@ -1,177 +1,138 @@
 package year2024.day16;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.PriorityQueue;
-import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Stream;
 
-enum Heading {
-    EAST(Coordinate::east), SOUTH(Coordinate::south), WEST(Coordinate::west), NORTH(Coordinate::north);
-    final Function<Coordinate, Coordinate> mover;
-
-    Heading(Function<Coordinate, Coordinate> mover) {
-        this.mover = mover;
-    }
-
-    Collection<Heading> rotate() {
-        return switch (this) {
-            case EAST, WEST -> Set.of(NORTH, SOUTH);
-            case NORTH, SOUTH -> Set.of(EAST, WEST);
-        };
-    }
-}
-
 public class Day16 {
     public static void main(String[] args) throws Exception {
         new Puzzle().solve();
     }
 }
 
-class Puzzle {
-    final Grid grid;
+class Puzzle implements Solver {
+    final BestPaths bestPaths;
 
     Puzzle() throws Exception {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("day16_input"))) {
-            grid = Grid.from(new BufferedReader(new InputStreamReader(input)).lines());
+            bestPaths = Grid.from(new BufferedReader(new InputStreamReader(input)).lines()).shortestPath();
         }
     }
 
-    void solve() {
-        System.out.println(grid.shortestPath());
-    }
-}
-
-record Coordinate(int x, int y) implements Comparable<Coordinate> {
-    Coordinate north() {
-        return new Coordinate(x, y - 1);
-    }
-
-    Coordinate south() {
-        return new Coordinate(x, y + 1);
-    }
-
-    Coordinate west() {
-        return new Coordinate(x - 1, y);
-    }
-
-    Coordinate east() {
-        return new Coordinate(x + 1, y);
-    }
-
-    Coordinate move(Heading heading) {
-        return heading.mover.apply(this);
-    }
-
     @Override
-    public int compareTo(Coordinate o) {
-        return y == o.y ? Integer.compare(x, o.x) : Integer.compare(y, o.y);
+    public Object part1() {
+        return bestPaths.lowestScore();
     }
-}
 
-record Reindeer(Coordinate position, Heading heading) implements Comparable<Reindeer> {
     @Override
-    public int compareTo(Reindeer o) {
-        return position.equals(o.position) ? Integer.compare(heading.ordinal(), o.heading.ordinal()) : position.compareTo(o.position);
+    public Object part2() {
+        return bestPaths.viewingSpots();
     }
 }
 
 record BestPaths(int lowestScore, int viewingSpots) {
 }
 
-record Grid(Set<Coordinate> walls, Coordinate start, Coordinate end) {
-    static Grid from(Stream<String> lines) {
-        Set<Coordinate> walls = new HashSet<>();
-        Coordinate start = null;
-        Coordinate end = null;
-        int y = 0;
-        for (String line : lines.toList()) {
-            int x = 0;
-            for (char c : line.toCharArray()) {
-                switch (c) {
-                    case '#' -> walls.add(new Coordinate(x, y));
-                    case 'S' -> start = new Coordinate(x, y);
-                    case 'E' -> end = new Coordinate(x, y);
-                }
-                x++;
-            }
-            y++;
-        }
-        return new Grid(walls, Objects.requireNonNull(start), Objects.requireNonNull(end));
-    }
+/**
+ * The maze as a padded grid. A reindeer's state is its cell and one of the four orthogonal headings, numbered
+ * {@code cell * 4 + heading / 2}.
+ */
+record Grid(ByteGrid maze, int start, int end) {
+    static final byte WALL = '#';
+    static final int TURN = 1000;
 
-    Collection<ND> neighbours(ND nd) {
-        Collection<ND> neighbours = new HashSet<>();
-        Reindeer reindeer = nd.node;
-        Heading currentHeading = reindeer.heading();
-        for (Heading heading : currentHeading.rotate()) {
-            neighbours.add(new ND(new Reindeer(reindeer.position(), heading), nd.distance + 1000, nd));
-        }
-        var nextPosition = reindeer.position().move(currentHeading);
-        if (!walls.contains(nextPosition)) {
-            neighbours.add(new ND(new Reindeer(nextPosition, currentHeading), nd.distance + 1, nd));
+    static Grid from(Stream<String> lines) {
+        var maze = ByteGrid.padded(lines.toList(), WALL);
+        int start = maze.indexOf((byte) 'S');
+        int end = maze.indexOf((byte) 'E');
+        if (start < 0 || end < 0) {
+            throw new IllegalArgumentException("no start or end");
         }
-        return neighbours;
+        return new Grid(maze, start, end);
     }
 
     BestPaths shortestPath() {
+        var distances = new int[maze.size() * 4];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        var queue = new PriorityQueue<Long>();
+        int first = start * 4 + DenseGrid.EAST / 2;
+        distances[first] = 0;
+        queue.add((long) first);
         int shortest = -1;
-        var queue = new PriorityQueue<ND>();
-        Set<Coordinate> viewingSpots = new HashSet<>();
-        Set<Reindeer> visited = new HashSet<>();
-        queue.add(new ND(new Reindeer(start, Heading.EAST), 0, null));
         while (!queue.isEmpty()) {
-            var current = queue.remove();
-            if (current.node.position().equals(end)) {
-                if (shortest == -1) {
-                    shortest = current.distance;
-                }
-                if (shortest == current.distance) {
-                    viewingSpots.addAll(current.path());
-                }
+            long entry = queue.remove();
+            int distance = (int) (entry >>> 32);
+            int state = (int) entry;
+            if (distance > distances[state]) {
+                continue;
             }
-            visited.add(current.node);
-            for (var next : neighbours(current)) {
-                if (!visited.contains(next.node)) {
-                    queue.add(next);
-                }
+            int cell = state / 4;
+            int heading = state % 4 * 2;
+            if (cell == end && shortest < 0) {
+                shortest = distance;
             }
+            int ahead = maze.step(cell, heading);
+            if (maze.at(ahead) != WALL) {
+                relax(ahead * 4 + heading / 2, distance + 1, distances, queue);
+            }
+            relax(cell * 4 + DenseGrid.right(heading) / 2, distance + TURN, distances, queue);
+            relax(cell * 4 + DenseGrid.left(heading) / 2, distance + TURN, distances, queue);
         }
-        return new BestPaths(shortest, viewingSpots.size());
+        return new BestPaths(shortest, shortest < 0 ? 0 : viewingSpots(distances, shortest));
     }
 
-    record ND(Reindeer node, int distance, ND previous) implements Comparable<ND> {
-
-        @Override
-        public int compareTo(ND o) {
-            return distance == o.distance ? node.compareTo(o.node) : Integer.compare(distance, o.distance);
+    private static void relax(int state, int distance, int[] distances, PriorityQueue<Long> queue) {
+        if (distance < distances[state]) {
+            distances[state] = distance;
+            queue.add((long) distance << 32 | state);
         }
+    }
 
-        Collection<Coordinate> path() {
-            Collection<Coordinate> path = new HashSet<>();
-            var nd = this;
-            while (nd != null) {
-                path.add(nd.node.position());
-                nd = nd.previous;
+    /**
+     * Cells on any lowest-scoring path, found by walking back from the end along moves that are tight in the distances.
+     */
+    private int viewingSpots(int[] distances, int shortest) {
+        var onPath = new boolean[distances.length];
+        var spots = new boolean[maze.size()];
+        var stack = new int[distances.length];
+        int top = 0;
+        for (int heading = DenseGrid.NORTH; heading < 8; heading += 2) {
+            int state = end * 4 + heading / 2;
+            if (distances[state] == shortest) {
+                onPath[state] = true;
+                stack[top++] = state;
             }
-            return path;
         }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            ND nd = (ND) o;
-            return distance == nd.distance && Objects.equals(node, nd.node);
+        int count = 0;
+        while (top > 0) {
+            int state = stack[--top];
+            int cell = state / 4;
+            int heading = state % 4 * 2;
+            if (!spots[cell]) {
+                spots[cell] = true;
+                ++count;
+            }
+            int distance = distances[state];
+            int behind = maze.step(cell, DenseGrid.opposite(heading));
+            top = back(behind * 4 + heading / 2, distance - 1, distances, onPath, stack, top);
+            top = back(cell * 4 + DenseGrid.right(heading) / 2, distance - TURN, distances, onPath, stack, top);
+            top = back(cell * 4 + DenseGrid.left(heading) / 2, distance - TURN, distances, onPath, stack, top);
         }
+        return count;
+    }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(node, distance);
+    private static int back(int state, int distance, int[] distances, boolean[] onPath, int[] stack, int top) {
+        if (distance >= 0 && distances[state] == distance && !onPath[state]) {
+            onPath[state] = true;
+            stack[top++] = state;
         }
+        return top;
     }
 }
@@ -1,5 +1,7 @@
 package year2024.day17;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -17,16 +19,21 @@ public class Day17 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     final Computer computer;
 
     Puzzle() throws Exception {
         computer = Computer.from(Files.readString(Paths.get(Objects.requireNonNull(getClass().getResource("day17_input")).toURI())));
     }
 
-    void solve() {
-        System.out.println(computer.run().stream().map(String::valueOf).collect(Collectors.joining(",")));
-        System.out.println(computer.selfReplicator());
+    @Override
+    public Object part1() {
+        return computer.run().stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    @Override
+    public Object part2() {
+        return computer.selfReplicator();
     }
 }
 
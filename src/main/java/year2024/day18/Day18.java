@@ -1,15 +1,12 @@
 package year2024.day18;
 
+import common.IntGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.PriorityQueue;
-import java.util.Set;
 import java.util.stream.Stream;
 
 public class Day18 {
@@ -18,7 +15,7 @@ public class Day18 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     final Grid grid;
 
     Puzzle() throws Exception {
@@ -28,99 +25,72 @@ class Puzzle {
         }
     }
 
-    void solve() {
-        System.out.println(grid.walk(Grid.BYTES));
-        int i = Grid.BYTES + 1;
-        while (grid.walk(i) != -1) {
-            ++i;
-        }
-        System.out.println(grid.badCell(i - 1));
-    }
-}
-
-record Coordinate(int x, int y) implements Comparable<Coordinate> {
-    static Coordinate from(String s) {
-        var split = s.split(",");
-        return new Coordinate(Integer.parseInt(split[0]), Integer.parseInt(split[1]));
-    }
-
-    Collection<Coordinate> neighbours() {
-        return Set.of(
-                new Coordinate(x, y - 1),
-                new Coordinate(x + 1, y),
-                new Coordinate(x, y + 1),
-                new Coordinate(x - 1, y)
-        );
-    }
-
     @Override
-    public int compareTo(Coordinate o) {
-        return y == o.y ? Integer.compare(x, o.x) : Integer.compare(y, o.y);
+    public Object part1() {
+        return grid.walk(Grid.BYTES);
     }
 
     @Override
-    public String toString() {
-        return x + "," + y;
-    }
-}
-
-record ND(Coordinate node, int distance) implements Comparable<ND> {
-    @Override
-    public int compareTo(ND o) {
-        return distance == o.distance ? node.compareTo(o.node) : Integer.compare(distance, o.distance);
+    public Object part2() {
+        int i = Grid.BYTES + 1;
+        while (grid.walk(i) != -1) {
+            ++i;
+        }
+        return grid.badCell(i - 1);
     }
 }
 
-record Grid(Map<Coordinate, Integer> badCells) {
+/**
+ * The memory space with, for every cell, the index of the byte that falls on it, or {@link #SAFE} if none does.
+ */
+record Grid(IntGrid fallTimes, int[] bytes) {
     static final int SIZE = 71; // width & height
     static final int BYTES = 1024;
-    static final Coordinate START = new Coordinate(0, 0);
-    static final Coordinate FINISH = new Coordinate(SIZE - 1, SIZE - 1);
+    static final int SAFE = Integer.MAX_VALUE;
 
     static Grid from(Stream<String> lines) {
-        Map<Coordinate, Integer> badCells = new HashMap<>();
-        int i = 0;
-        for (String line : lines.toList()) {
-            badCells.put(Coordinate.from(line), i);
-            ++i;
+        var fallTimes = new IntGrid(SIZE, SIZE, 0, SAFE);
+        var bytes = lines.mapToInt(line -> {
+            var split = line.split(",");
+            return fallTimes.index(Integer.parseInt(split[0]), Integer.parseInt(split[1]));
+        }).toArray();
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            fallTimes.put(bytes[i], i);
         }
-        return new Grid(badCells);
-    }
-
-    boolean isBadAt(Coordinate cell, int n) {
-        return Optional.ofNullable(badCells.get(cell)).map(i -> i < n).orElse(false);
+        return new Grid(fallTimes, bytes);
     }
 
+    /**
+     * Steps from the top left to the bottom right corner once {@code n} bytes have fallen, or -1 if it is cut off.
+     */
     int walk(int n) {
-        var queue = new PriorityQueue<ND>();
-        Set<Coordinate> visited = new HashSet<>();
-        queue.add(new ND(START, 0));
-        while (!queue.isEmpty()) {
-            var current = queue.remove();
-            Coordinate coordinate = current.node();
-            if (coordinate.equals(FINISH)) {
-                return current.distance();
+        int start = fallTimes.index(0, 0);
+        int finish = fallTimes.index(SIZE - 1, SIZE - 1);
+        var distances = new int[fallTimes.size()];
+        Arrays.fill(distances, -1);
+        var queue = new int[fallTimes.size()];
+        var neighbours = new int[4];
+        int head = 0;
+        int tail = 0;
+        distances[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            if (cell == finish) {
+                return distances[cell];
             }
-            visited.add(coordinate);
-            for (var neighbour : coordinate.neighbours()) {
-                if (neighbour.x() < 0 || neighbour.x() >= SIZE || neighbour.y() < 0 || neighbour.y() >= SIZE) {
-                    continue;
-                }
-                if (isBadAt(neighbour, n)) {
-                    continue;
-                }
-                if (!visited.contains(neighbour)) {
-                    ND next = new ND(neighbour, current.distance() + 1);
-                    if (!queue.contains(next)) {
-                        queue.add(next);
-                    }
+            for (int i = 0, count = fallTimes.neighbours(cell, neighbours); i < count; i++) {
+                int neighbour = neighbours[i];
+                if (distances[neighbour] < 0 && fallTimes.at(neighbour) >= n) {
+                    distances[neighbour] = distances[cell] + 1;
+                    queue[tail++] = neighbour;
                 }
             }
         }
         return -1;
     }
 
-    Coordinate badCell(int i) {
-        return badCells.entrySet().stream().filter(e -> e.getValue() == i).map(Map.Entry::getKey).findFirst().orElseThrow();
+    String badCell(int i) {
+        return fallTimes.x(bytes[i]) + "," + fallTimes.y(bytes[i]);
     }
 }
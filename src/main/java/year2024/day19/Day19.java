@@ -1,5 +1,7 @@
 package year2024.day19;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -16,7 +18,7 @@ public class Day19 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     final Set<String> towels;
     final List<String> patterns;
     final int maxLen;
@@ -47,8 +49,13 @@ class Puzzle {
         return total;
     }
 
-    void solve() {
-        System.out.println(patterns.stream().filter(p -> solutions(p) > 0).count());
-        System.out.println(patterns.stream().mapToLong(this::solutions).sum());
+    @Override
+    public Object part1() {
+        return patterns.stream().filter(p -> solutions(p) > 0).count();
+    }
+
+    @Override
+    public Object part2() {
+        return patterns.stream().mapToLong(this::solutions).sum();
     }
 }
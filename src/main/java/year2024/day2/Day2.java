@@ -1,5 +1,7 @@
 package year2024.day2;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -15,15 +17,24 @@ public class Day2 {
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
+class Puzzle implements Solver {
+    final Reports reports;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("day2_input"))) {
-            var reader = new BufferedReader(new InputStreamReader(input));
-            var reports = Reports.parse(reader.lines());
-            System.out.println(reports.numberOfSafeReports());
-            System.out.println(reports.numberOfSafeReportsAfterDiscardingOne());
+            reports = Reports.parse(new BufferedReader(new InputStreamReader(input)).lines());
         }
     }
+
+    @Override
+    public Object part1() {
+        return reports.numberOfSafeReports();
+    }
+
+    @Override
+    public Object part2() {
+        return reports.numberOfSafeReportsAfterDiscardingOne();
+    }
 }
 
 record Report(List<Integer> levels) {
@@ -1,16 +1,12 @@
 package year2024.day20;
 
+import common.ByteGrid;
+import common.IntGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 public class Day20 {
@@ -19,7 +15,7 @@ public class Day20 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     private final Grid grid;
 
     Puzzle() throws Exception {
@@ -28,90 +24,85 @@ class Puzzle {
         }
     }
 
-    void solve() {
-        var map = grid.distanceMap();
-        System.out.println(grid.countGoodCheats(map, 2));
-        System.out.println(grid.countGoodCheats(map, 20));
-    }
-}
-
-record Coordinate(int x, int y) implements Comparable<Coordinate> {
     @Override
-    public int compareTo(Coordinate o) {
-        return y == o.y ? Integer.compare(x, o.x) : Integer.compare(y, o.y);
+    public Object part1() {
+        return grid.countGoodCheats(grid.distanceMap(), 2);
     }
 
-    Collection<Coordinate> neighbours() {
-        return Set.of(
-                new Coordinate(x, y - 1),
-                new Coordinate(x + 1, y),
-                new Coordinate(x, y + 1),
-                new Coordinate(x - 1, y)
-        );
-    }
-
-    Collection<Coordinate> neighbours(int cheatDistance) {
-        Collection<Coordinate> neighbours = new TreeSet<>();
-        for (int i = 0; i < cheatDistance; i++) {
-            neighbours.add(new Coordinate(x + i, y - cheatDistance + i));
-            neighbours.add(new Coordinate(x + cheatDistance - i, y + i));
-            neighbours.add(new Coordinate(x - i, y + cheatDistance - i));
-            neighbours.add(new Coordinate(x - cheatDistance + i, y - i));
-        }
-        return neighbours;
+    @Override
+    public Object part2() {
+        return grid.countGoodCheats(grid.distanceMap(), 20);
     }
 }
 
-record Grid(int width, int height, Set<Coordinate> walls, Coordinate start, Coordinate finish) {
+/**
+ * The racetrack, with the distance along the track stored for every track cell and -1 for walls.
+ */
+record Grid(ByteGrid track, int start, int finish) {
+    static final byte WALL = '#';
+    static final int GOOD_SAVING = 100;
+
     static Grid from(Stream<String> lines) {
-        Set<Coordinate> walls = new HashSet<>();
-        Coordinate start = null;
-        Coordinate end = null;
-        int y = 0;
-        int x = 0;
-        for (String line : lines.toList()) {
-            x = 0;
-            for (char c : line.toCharArray()) {
-                switch (c) {
-                    case 'S' -> start = new Coordinate(x, y);
-                    case 'E' -> end = new Coordinate(x, y);
-                    case '#' -> walls.add(new Coordinate(x, y));
-                    case '.' -> {
+        var track = ByteGrid.parse(lines.toList());
+        for (int y = 0; y < track.height(); y++) {
+            for (int x = 0; x < track.width(); x++) {
+                switch (track.get(x, y)) {
+                    case 'S', 'E', '#', '.' -> {
                     }
                     default -> throw new IllegalArgumentException();
                 }
-                x++;
             }
-            ++y;
         }
-        return new Grid(x, y, walls, Objects.requireNonNull(start), Objects.requireNonNull(end));
+        int start = track.indexOf((byte) 'S');
+        int finish = track.indexOf((byte) 'E');
+        if (start < 0 || finish < 0) {
+            throw new IllegalArgumentException("no start or end");
+        }
+        return new Grid(track, start, finish);
     }
 
-    Map<Coordinate, Integer> distanceMap() {
-        Map<Coordinate, Integer> distanceMap = new HashMap<>();
-        Coordinate pos = start;
+    IntGrid distanceMap() {
+        var distances = new IntGrid(track.width(), track.height(), 0, -1);
+        var neighbours = new int[4];
+        int pos = start;
         int distance = 0;
         do {
-            distanceMap.put(pos, distance++);
-            pos = pos.neighbours().stream().filter(Predicate.not(walls::contains)).filter(Predicate.not(distanceMap::containsKey)).findFirst().orElse(null);
-        } while (pos != null);
-        return distanceMap;
+            distances.put(pos, distance++);
+            int next = -1;
+            for (int i = 0, count = track.neighbours(pos, neighbours); i < count && next < 0; i++) {
+                if (track.at(neighbours[i]) != WALL && distances.at(neighbours[i]) < 0) {
+                    next = neighbours[i];
+                }
+            }
+            pos = next;
+        } while (pos >= 0);
+        return distances;
     }
 
-    long countGoodCheats(Map<Coordinate, Integer> distances, int maxCheatDuration) {
-        Map<List<Coordinate>, Integer> cheats = new HashMap<>();
-        for (Map.Entry<Coordinate, Integer> e : distances.entrySet()) {
-            Coordinate cheatStart = e.getKey();
-            int distance = e.getValue();
-            for (int cheatDuration = 2; cheatDuration <= maxCheatDuration; cheatDuration++) {
-                for (var cheatEnd : cheatStart.neighbours(cheatDuration)) {
-                    Integer newDistance = distances.get(cheatEnd);
-                    if (newDistance != null) {
-                        cheats.put(List.of(cheatStart, cheatEnd), newDistance - distance - cheatDuration);
+    /**
+     * Cheats of at most {@code maxCheatDuration} steps that save at least {@link #GOOD_SAVING}, found by trying every
+     * track cell within that Manhattan distance of every other.
+     */
+    long countGoodCheats(IntGrid distances, int maxCheatDuration) {
+        long count = 0;
+        for (int y = 0; y < distances.height(); y++) {
+            for (int x = 0; x < distances.width(); x++) {
+                int distance = distances.get(x, y);
+                if (distance < 0) {
+                    continue;
+                }
+                for (int dy = -maxCheatDuration; dy <= maxCheatDuration; dy++) {
+                    int reach = maxCheatDuration - Math.abs(dy);
+                    for (int dx = -reach; dx <= reach; dx++) {
+                        int cheatDuration = Math.abs(dx) + Math.abs(dy);
+                        if (cheatDuration >= 2
+                                && distances.getOrDefault(x + dx, y + dy, -1) - distance - cheatDuration >= GOOD_SAVING) {
+                            ++count;
+                        }
                     }
                 }
             }
         }
-        return cheats.entrySet().stream().filter(e -> e.getValue() >= 100).count();
+        return count;
     }
 }
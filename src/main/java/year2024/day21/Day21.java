@@ -1,5 +1,7 @@
 package year2024.day21;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -64,13 +66,11 @@ enum Key {
 
 public class Day21 {
     public static void main(String[] args) throws Exception {
-        var puzzle = new Puzzle();
-        puzzle.solve(2);
-        puzzle.solve(25);
+        new Puzzle().solve();
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     private final List<String> sequences;
 
     Puzzle() throws Exception {
@@ -79,9 +79,19 @@ class Puzzle {
         }
     }
 
-    void solve(int repeats) {
+    long complexity(int repeats) {
         var keyPad = new KeyPad(repeats);
-        System.out.println(sequences.stream().mapToLong(keyPad::complexity).sum());
+        return sequences.stream().mapToLong(keyPad::complexity).sum();
+    }
+
+    @Override
+    public Object part1() {
+        return complexity(2);
+    }
+
+    @Override
+    public Object part2() {
+        return complexity(25);
     }
 }
 
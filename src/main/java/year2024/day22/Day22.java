@@ -1,5 +1,7 @@
 package year2024.day22;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -20,17 +22,23 @@ public class Day22 {
     }
 }
 
-class Puzzle {
-    final Market market;
+class Puzzle implements Solver {
+    final Pair result;
 
     Puzzle() throws Exception {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("day22_input"))) {
-            market = new Market(new BufferedReader(new InputStreamReader(input)).lines());
+            result = new Market(new BufferedReader(new InputStreamReader(input)).lines()).iterateAllBuyers();
         }
     }
 
-    void solve() {
-        System.out.println(market.iterateAllBuyers());
+    @Override
+    public Object part1() {
+        return result.sumSecrets();
+    }
+
+    @Override
+    public Object part2() {
+        return result.bestPrice();
     }
 }
 
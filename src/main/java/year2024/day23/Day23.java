@@ -1,5 +1,7 @@
 package year2024.day23;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.Arrays;
@@ -14,7 +16,7 @@ public class Day23 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     private final Set<Set<String>> computerPairs;
     private final Set<String> computers; // slight speedup, not really needed
 
@@ -49,12 +51,17 @@ class Puzzle {
         return embiggened;
     }
 
-    void solve() {
+    @Override
+    public Object part1() {
+        return countTripletsWithT(embiggen(computerPairs));
+    }
+
+    @Override
+    public Object part2() {
         var cliques = embiggen(computerPairs);
-        System.out.println(countTripletsWithT(cliques));
         for (var bigger = embiggen(cliques); !bigger.isEmpty(); bigger = embiggen(bigger)) {
             cliques = bigger;
         }
-        System.out.println(cliques.iterator().next().stream().sorted(String::compareTo).collect(Collectors.joining(",")));
+        return cliques.iterator().next().stream().sorted(String::compareTo).collect(Collectors.joining(","));
     }
 }
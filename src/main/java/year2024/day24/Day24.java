@@ -1,5 +1,7 @@
 package year2024.day24;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashMap;
@@ -36,17 +38,18 @@ public class Day24 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     final Map<String, Integer> initialValues = new HashMap<>();
     final Map<String, Wire> wires = new HashMap<>();
 
     Puzzle() throws Exception {
         var parts = Files.readString(Paths.get(Objects.requireNonNull(getClass().getResource("day24_input")).toURI())).split("\n\n");
-        part0(parts[0]);
-        part1(parts[1]);
+        parseInitialValues(parts[0]);
+        parseGates(parts[1]);
+        initialValues.forEach((k, v) -> wires.get(k).setValue(v));
     }
 
-    private void part0(String lines) {
+    private void parseInitialValues(String lines) {
         for (String initLine : lines.split("\n")) {
             var initSplit = initLine.split(": ");
             String name = initSplit[0];
@@ -54,7 +57,7 @@ class Puzzle {
         }
     }
 
-    private void part1(String lines) {
+    private void parseGates(String lines) {
         for (String gateLine : lines.split("\n")) {
             var split = gateLine.split(" ");
             var nameA = split[0];
@@ -88,13 +91,13 @@ class Puzzle {
         return value;
     }
 
-    void traceAll() {
+    String traceAll() {
         Set<String> swaps = new HashSet<>();
         int i = 0;
         do {
             ++i;
         } while (cell(i, swaps));
-        System.out.println(swaps.stream().sorted().collect(Collectors.joining(",")));
+        return swaps.stream().sorted().collect(Collectors.joining(","));
     }
 
     boolean cell(int i, Set<String> swaps) {
@@ -118,10 +121,14 @@ class Puzzle {
         return true;
     }
 
-    void solve() {
-        initialValues.forEach((k, v) -> wires.get(k).setValue(v));
-        System.out.println(getValue());
-        traceAll();
+    @Override
+    public Object part1() {
+        return getValue();
+    }
+
+    @Override
+    public Object part2() {
+        return traceAll();
     }
 }
 
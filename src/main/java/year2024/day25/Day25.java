@@ -1,5 +1,7 @@
 package year2024.day25;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -15,15 +17,21 @@ public class Day25 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     final List<Piece> pieces;
 
     Puzzle() throws Exception {
         pieces = Arrays.stream(Files.readString(Paths.get(Objects.requireNonNull(getClass().getResource("day25_input")).toURI())).split("\n\n")).map(Piece::from).toList();
     }
 
-    void solve() {
-        System.out.println(fittingPieces());
+    @Override
+    public Object part1() {
+        return fittingPieces();
+    }
+
+    @Override
+    public Object part2() {
+        return null;
     }
 
     long fittingPieces() {
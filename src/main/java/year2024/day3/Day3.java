@@ -1,9 +1,12 @@
 package year2024.day3;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -12,20 +15,29 @@ import java.util.stream.Stream;
 
 public class Day3 {
     public static void main(String[] args) throws IOException {
-        new Puzzle().solve(false);
-        new Puzzle().solve(true);
+        new Puzzle().solve();
     }
 }
 
-class Puzzle {
-    void solve(boolean withConditionals) throws IOException {
+class Puzzle implements Solver {
+    final List<String> lines;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("day3_input"))) {
-            var reader = new BufferedReader(new InputStreamReader(input));
-            Stream<String> bits = withConditionals ? wrap(reader.lines()) : reader.lines();
-            System.out.println(sum(bits));
+            lines = new BufferedReader(new InputStreamReader(input)).lines().toList();
         }
     }
 
+    @Override
+    public Object part1() {
+        return sum(lines.stream());
+    }
+
+    @Override
+    public Object part2() {
+        return sum(wrap(lines.stream()));
+    }
+
     long sum(Stream<String> bits) {
         var pattern = Pattern.compile("\\((\\d{1,3}),(\\d{1,3})\\).*");
         return bits
@@ -1,5 +1,7 @@
 package year2024.day5;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -17,15 +19,23 @@ public class Day5 {
     }
 }
 
-class Puzzle {
-    void solve() throws IOException {
-        var instructions = new Instructions();
+class Puzzle implements Solver {
+    final Instructions instructions = new Instructions();
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("day5_input"))) {
-            var reader = new BufferedReader(new InputStreamReader(input));
-            reader.lines().forEachOrdered(instructions::parse);
+            new BufferedReader(new InputStreamReader(input)).lines().forEachOrdered(instructions::parse);
         }
-        instructions.printSumOfMiddlePagesOfCorrectlyOrderedUpdates();
-        instructions.printSumOfMiddlePagesOfIncorrectlyOrderedUpdatesAfterRearranging();
+    }
+
+    @Override
+    public Object part1() {
+        return instructions.sumOfMiddlePagesOfCorrectlyOrderedUpdates();
+    }
+
+    @Override
+    public Object part2() {
+        return instructions.sumOfMiddlePagesOfIncorrectlyOrderedUpdatesAfterRearranging();
     }
 }
 
@@ -47,12 +57,12 @@ class Instructions {
         }
     }
 
-    void printSumOfMiddlePagesOfCorrectlyOrderedUpdates() {
-        System.out.println(manuals.stream().filter(m -> m.satisfies(orders)).mapToInt(Manual::middle).sum());
+    int sumOfMiddlePagesOfCorrectlyOrderedUpdates() {
+        return manuals.stream().filter(m -> m.satisfies(orders)).mapToInt(Manual::middle).sum();
     }
 
-    void printSumOfMiddlePagesOfIncorrectlyOrderedUpdatesAfterRearranging() {
-        System.out.println(manuals.stream().filter(m -> !m.satisfies(orders)).map(m -> m.rearrange(orders)).mapToInt(Manual::middle).sum());
+    int sumOfMiddlePagesOfIncorrectlyOrderedUpdatesAfterRearranging() {
+        return manuals.stream().filter(m -> !m.satisfies(orders)).map(m -> m.rearrange(orders)).mapToInt(Manual::middle).sum();
     }
 }
 
@@ -1,62 +1,29 @@
 package year2024.day6;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Function;
 import java.util.stream.Stream;
 
-enum Heading {
-    NORTH(Coordinate::north), EAST(Coordinate::east), SOUTH(Coordinate::south), WEST(Coordinate::west);
-    final Function<Coordinate, Coordinate> head;
-
-    Heading(Function<Coordinate, Coordinate> head) {
-        this.head = head;
-    }
-
-    Heading rotate() {
-        return switch (this) {
-            case NORTH -> EAST;
-            case EAST -> SOUTH;
-            case SOUTH -> WEST;
-            case WEST -> NORTH;
-        };
-    }
-}
-
-enum TileType {
-    GUARD('^'),
-    BLANK('.'),
-    OBSTACLE('#'),
-    NEW_OBSTACLE('O'),
-    VISITED('X');
-
-    final char character;
-
-    TileType(char c) {
-        character = c;
-    }
-
-    static TileType from(int character) {
-        return Arrays.stream(values()).filter(t -> t.character == character).findFirst().orElseThrow();
-    }
-}
-
 public class Day6 {
     public static void main(String[] args) throws IOException {
         new Puzzle().solve();
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
 
     final Grid grid;
 
@@ -66,116 +33,318 @@ class Puzzle {
         }
     }
 
-    void solve() {
-        System.out.println(grid.walk(true));
-        System.out.println(grid.loopCount());
+    @Override
+    public Object part1() {
+        return grid.walk(true);
     }
-}
 
-record Coordinate(int x, int y) implements Comparable<Coordinate> {
-    Coordinate north() {
-        return new Coordinate(x, y - 1);
+    @Override
+    public Object part2() {
+        return grid.parallelLoopCount(Runtime.getRuntime().availableProcessors());
     }
+}
+
+record Grid(ByteGrid tiles, int start) {
+    static final byte OUTSIDE = 0;
+    static final byte GUARD = '^';
+    static final byte BLANK = '.';
+    static final byte OBSTACLE = '#';
+    static final byte NEW_OBSTACLE = 'O';
+    static final byte VISITED = 'X';
 
-    Coordinate south() {
-        return new Coordinate(x, y + 1);
+    static Grid parse(Stream<String> lines) {
+        var tiles = ByteGrid.padded(lines.toList(), OUTSIDE);
+        return new Grid(tiles, tiles.indexOf(GUARD));
     }
 
-    Coordinate west() {
-        return new Coordinate(x - 1, y);
+    int walk(boolean mark) {
+        var loopDetect = new byte[tiles.size()];
+        var guard = start;
+        var heading = DenseGrid.NORTH;
+        int i = 1;
+        while (true) {
+            var bit = 1 << (heading >> 1);
+            if ((loopDetect[guard] & bit) != 0) {
+                return -1;
+            }
+            loopDetect[guard] |= (byte) bit;
+            var nextPosition = tiles.step(guard, heading);
+            switch (tiles.at(nextPosition)) {
+                case OUTSIDE -> {
+                    return i;
+                }
+                case BLANK, GUARD, VISITED -> {
+                    if (tiles.at(nextPosition) == BLANK) {
+                        ++i;
+                    }
+                    if (mark) {
+                        tiles.put(nextPosition, VISITED);
+                    }
+                    guard = nextPosition;
+                }
+                case OBSTACLE, NEW_OBSTACLE -> heading = DenseGrid.right(heading);
+                default -> throw new IllegalStateException();
+            }
+        }
     }
 
-    Coordinate east() {
-        return new Coordinate(x + 1, y);
+    int looped(int c) {
+        var orig = tiles.at(c);
+        tiles.put(c, NEW_OBSTACLE);
+        var l = walk(false);
+        tiles.put(c, orig);
+        return l == -1 ? 1 : 0;
     }
 
-    Coordinate move(Heading heading) {
-        return heading.head.apply(this);
+    int loopCount() {
+        int loops = 0;
+        for (int y = 0; y < tiles.height(); y++) {
+            for (int c = tiles.index(0, y), x = 0; x < tiles.width(); x++, c++) {
+                if (tiles.at(c) == VISITED) {
+                    loops += looped(c);
+                }
+            }
+        }
+        return loops;
     }
 
-    @Override
-    public int compareTo(Coordinate o) {
-        return y == o.y ? Integer.compare(x, o.x) : Integer.compare(y, o.y);
+    int[] candidates() {
+        var candidates = new int[tiles.count(VISITED)];
+        int n = 0;
+        for (int y = 0; y < tiles.height(); y++) {
+            for (int c = tiles.index(0, y), x = 0; x < tiles.width(); x++, c++) {
+                if (tiles.at(c) == VISITED) {
+                    candidates[n++] = c;
+                }
+            }
+        }
+        return candidates;
     }
-}
 
-record Tile(Coordinate coordinate, TileType type) {
-    static Tile at(int x, int y, int character) {
-        return new Tile(new Coordinate(x, y), TileType.from(character));
+    /**
+     * Same as {@link #loopCount()}, but leaves the tiles alone so that workers can share them.
+     */
+    int parallelLoopCount(int parallelism) {
+        var candidates = candidates();
+        var jumps = new JumpTable(tiles);
+        var next = new AtomicInteger();
+        List<Callable<Integer>> workers = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(() -> new LoopDetector(this, jumps).count(candidates, next));
+        }
+        try (var pool = new ForkJoinPool(parallelism)) {
+            int loops = 0;
+            for (var result : pool.invokeAll(workers)) {
+                loops += result.get();
+            }
+            return loops;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
     }
 }
 
-class Holder {
-    Coordinate coordinate;
+/**
+ * One worker's view of the grid: the shared jump table plus the one obstacle it is trying out, and its own record of
+ * the turns taken so far. A loop always repeats a turn, so only turns need to be recorded.
+ */
+class LoopDetector {
+    static final int BLOCK = 64;
+
+    private final Grid grid;
+    private final JumpTable jumps;
+    private final long[] turns;
+    private int[] touched = new int[256];
+    private int nTouched;
 
-    void put(final Coordinate coordinate) {
-        this.coordinate = coordinate;
+    LoopDetector(Grid grid, JumpTable jumps) {
+        this.grid = grid;
+        this.jumps = jumps;
+        turns = new long[(grid.tiles().size() * 4 + 63) >>> 6];
     }
-}
 
-record Grid(Map<Coordinate, TileType> tiles, Coordinate start) {
-    static void parse(Map<Coordinate, TileType> tiles, int y, String line, Holder holder) {
-        final AtomicInteger x = new AtomicInteger();
-        line.chars().mapToObj(c -> Tile.at(x.getAndIncrement(), y, c)).forEach(tile -> {
-            if (tile.type() == TileType.GUARD) {
-                holder.put(tile.coordinate());
+    int count(int[] candidates, AtomicInteger next) {
+        int loops = 0;
+        for (int from = next.getAndAdd(BLOCK); from < candidates.length; from = next.getAndAdd(BLOCK)) {
+            for (int i = from; i < Math.min(from + BLOCK, candidates.length); i++) {
+                if (loops(candidates[i])) {
+                    ++loops;
+                }
             }
-            tiles.put(tile.coordinate(), tile.type());
-        });
+        }
+        return loops;
     }
 
-    static Grid parse(Stream<String> lines) {
-        final AtomicInteger y = new AtomicInteger();
-        Map<Coordinate, TileType> tiles = new TreeMap<>();
-        var holder = new Holder();
-        lines.forEach(line -> parse(tiles, y.getAndIncrement(), line, holder));
-        return new Grid(tiles, holder.coordinate);
+    boolean loops(int obstacle) {
+        var tiles = grid.tiles();
+        int ox = tiles.x(obstacle);
+        int oy = tiles.y(obstacle);
+        int x = tiles.x(grid.start());
+        int y = tiles.y(grid.start());
+        var heading = DenseGrid.NORTH;
+        try {
+            while (true) {
+                switch (heading) {
+                    case DenseGrid.NORTH -> {
+                        int stop = jumps.north(x, y);
+                        if (x == ox && oy < y && oy > stop) {
+                            stop = oy;
+                        }
+                        if (stop < 0) {
+                            return false;
+                        }
+                        y = stop + 1;
+                    }
+                    case DenseGrid.EAST -> {
+                        int stop = jumps.east(x, y);
+                        if (y == oy && ox > x && ox < stop) {
+                            stop = ox;
+                        }
+                        if (stop >= tiles.width()) {
+                            return false;
+                        }
+                        x = stop - 1;
+                    }
+                    case DenseGrid.SOUTH -> {
+                        int stop = jumps.south(x, y);
+                        if (x == ox && oy > y && oy < stop) {
+                            stop = oy;
+                        }
+                        if (stop >= tiles.height()) {
+                            return false;
+                        }
+                        y = stop - 1;
+                    }
+                    default -> {
+                        int stop = jumps.west(x, y);
+                        if (y == oy && ox < x && ox > stop) {
+                            stop = ox;
+                        }
+                        if (stop < 0) {
+                            return false;
+                        }
+                        x = stop + 1;
+                    }
+                }
+                if (!record(tiles.index(x, y) * 4 + (heading >> 1))) {
+                    return true;
+                }
+                heading = DenseGrid.right(heading);
+            }
+        } finally {
+            clear();
+        }
     }
 
-    int walk(boolean mark) {
-        Map<Coordinate, Set<Heading>> loopDetect = new HashMap<>();
-        var guard = start();
-        var heading = Heading.NORTH;
-        int i = 1;
-        while (true) {
-            loopDetect.computeIfAbsent(guard, c -> new HashSet<>());
-            var set = loopDetect.get(guard);
-            if (set.contains(heading)) {
-                return -1;
+    private boolean record(int turn) {
+        int word = turn >>> 6;
+        long bit = 1L << turn;
+        if ((turns[word] & bit) != 0) {
+            return false;
+        }
+        if (turns[word] == 0) {
+            if (nTouched == touched.length) {
+                touched = Arrays.copyOf(touched, nTouched * 2);
             }
-            set.add(heading);
-            var nextPosition = guard.move(heading);
-            TileType next = tiles.get(nextPosition);
-            if (next == null) {
-                return i;
+            touched[nTouched++] = word;
+        }
+        turns[word] |= bit;
+        return true;
+    }
+
+    private void clear() {
+        for (int i = 0; i < nTouched; i++) {
+            turns[touched[i]] = 0;
+        }
+        nTouched = 0;
+    }
+}
+
+/**
+ * Obstacle positions per row and per column, sorted, so that the guard can move straight to the next obstacle in
+ * O(log n) instead of one tile at a time.
+ */
+class JumpTable {
+    private final int width;
+    private final int height;
+    private final int[] rowStart;
+    private final int[] rowX;
+    private final int[] columnStart;
+    private final int[] columnY;
+
+    JumpTable(ByteGrid tiles) {
+        width = tiles.width();
+        height = tiles.height();
+        rowStart = new int[height + 1];
+        columnStart = new int[width + 1];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (isObstacle(tiles.at(tiles.index(x, y)))) {
+                    ++rowStart[y + 1];
+                    ++columnStart[x + 1];
+                }
             }
-            switch (next) {
-                case BLANK, GUARD, VISITED -> {
-                    if (next == TileType.BLANK) {
-                        ++i;
-                    }
-                    if (mark) {
-                        tiles.put(nextPosition, TileType.VISITED);
-                    }
-                    guard = nextPosition;
+        }
+        for (int y = 0; y < height; y++) {
+            rowStart[y + 1] += rowStart[y];
+        }
+        for (int x = 0; x < width; x++) {
+            columnStart[x + 1] += columnStart[x];
+        }
+        rowX = new int[rowStart[height]];
+        columnY = new int[columnStart[width]];
+        var columnFill = Arrays.copyOf(columnStart, width);
+        for (int y = 0, r = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (isObstacle(tiles.at(tiles.index(x, y)))) {
+                    rowX[r++] = x;
+                    columnY[columnFill[x]++] = y;
                 }
-                case OBSTACLE, NEW_OBSTACLE -> heading = heading.rotate();
-                default -> throw new IllegalStateException();
             }
         }
     }
 
-    int looped(Coordinate c) {
-        TileType orig = tiles.put(c, TileType.NEW_OBSTACLE);
-        var l = walk(false);
-        tiles.put(c, orig);
-        return l == -1 ? 1 : 0;
+    private static boolean isObstacle(byte tile) {
+        return tile == Grid.OBSTACLE || tile == Grid.NEW_OBSTACLE;
     }
 
-    int loopCount() {
-        return tiles.keySet().stream()
-                .filter(c -> tiles.get(c) == TileType.VISITED)
-                .mapToInt(this::looped)
-                .sum();
+    private static int insertionPoint(int[] a, int from, int to, int key) {
+        int i = Arrays.binarySearch(a, from, to, key);
+        return i < 0 ? -i - 1 : i;
+    }
+
+    /**
+     * Column of the first obstacle east of (x, y), or the width if there is none.
+     */
+    int east(int x, int y) {
+        int i = insertionPoint(rowX, rowStart[y], rowStart[y + 1], x + 1);
+        return i < rowStart[y + 1] ? rowX[i] : width;
+    }
+
+    /**
+     * Column of the first obstacle west of (x, y), or -1 if there is none.
+     */
+    int west(int x, int y) {
+        int i = insertionPoint(rowX, rowStart[y], rowStart[y + 1], x);
+        return i > rowStart[y] ? rowX[i - 1] : -1;
+    }
+
+    /**
+     * Row of the first obstacle south of (x, y), or the height if there is none.
+     */
+    int south(int x, int y) {
+        int i = insertionPoint(columnY, columnStart[x], columnStart[x + 1], y + 1);
+        return i < columnStart[x + 1] ? columnY[i] : height;
+    }
+
+    /**
+     * Row of the first obstacle north of (x, y), or -1 if there is none.
+     */
+    int north(int x, int y) {
+        int i = insertionPoint(columnY, columnStart[x], columnStart[x + 1], y);
+        return i > columnStart[x] ? columnY[i - 1] : -1;
     }
 }
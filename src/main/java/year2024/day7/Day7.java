@@ -1,5 +1,7 @@
 package year2024.day7;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -14,7 +16,7 @@ public class Day7 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
     final List<Equation> equations = new ArrayList<>();
 
     Puzzle() throws IOException {
@@ -29,9 +31,14 @@ class Puzzle {
         return equations.stream().map(e -> new Pair(e, e.solvable(hiddenOperator))).filter(Pair::solvable).mapToLong(p -> p.equation.solution()).sum();
     }
 
-    void solve() {
-        System.out.println(solutions(false));
-        System.out.println(solutions(true));
+    @Override
+    public Object part1() {
+        return solutions(false);
+    }
+
+    @Override
+    public Object part2() {
+        return solutions(true);
     }
 
 }
@@ -1,13 +1,12 @@
 package year2024.day8;
 
+import common.ByteGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.stream.Stream;
 
 public class Day8 {
@@ -16,7 +15,7 @@ public class Day8 {
     }
 }
 
-class Puzzle {
+class Puzzle implements Solver {
 
     final Grid grid;
 
@@ -26,74 +25,84 @@ class Puzzle {
         }
     }
 
-    void solve() {
-        System.out.println(grid.antinodes(false).size());
-        System.out.println(grid.antinodes(true).size());
-    }
-}
-
-record Coordinate(int x, int y) {
-    Coordinate antinode(Coordinate other) {
-        return new Coordinate(2 * x() - other.x(), 2 * y() - other.y());
+    @Override
+    public Object part1() {
+        return grid.antinodes(false);
     }
 
-    Set<Coordinate> antinodes(Coordinate other, int width, int height, boolean resonant) {
-        Set<Coordinate> antinodes = new HashSet<>();
-        if (resonant) {
-            antinodes.add(this);
-        }
-        var a = this;
-        var b = other;
-        boolean within;
-        do {
-            var c = a.antinode(b);
-            within = c.x() >= 0 && c.x() < width && c.y() >= 0 && c.y() < height;
-            if (within) {
-                antinodes.add(c);
-            }
-            b = a;
-            a = c;
-        } while (within && resonant);
-        return antinodes;
+    @Override
+    public Object part2() {
+        return grid.antinodes(true);
     }
 }
 
-record Grid(Map<Integer, Set<Coordinate>> antennas, Map<Coordinate, Integer> coordinates, int width, int height) {
+record Grid(ByteGrid cells, int[][] antennas) {
+    static final byte EMPTY = '.';
 
     static Grid from(Stream<String> lines) {
-        int width = 0;
-        int y = 0;
-        Map<Integer, Set<Coordinate>> antennas = new HashMap<>();
-        Map<Coordinate, Integer> coordinates = new HashMap<>();
-        for (String line : lines.toList()) {
-            int x = 0;
-            for (int c : line.chars().toArray()) {
-                if (c != '.') {
-                    var coordinate = new Coordinate(x, y);
-                    antennas.computeIfAbsent(c, k -> new HashSet<>());
-                    antennas.get(c).add(coordinate);
-                    coordinates.put(coordinate, c);
+        var cells = ByteGrid.parse(lines.toList());
+        var counts = new int[256];
+        for (int y = 0; y < cells.height(); y++) {
+            for (int x = 0; x < cells.width(); x++) {
+                ++counts[cells.get(x, y) & 0xff];
+            }
+        }
+        var antennas = new int[256][];
+        for (int type = 0; type < 256; type++) {
+            antennas[type] = new int[type == EMPTY ? 0 : counts[type]];
+            counts[type] = 0;
+        }
+        for (int y = 0; y < cells.height(); y++) {
+            for (int x = 0; x < cells.width(); x++) {
+                int type = cells.get(x, y) & 0xff;
+                if (type != EMPTY) {
+                    antennas[type][counts[type]++] = cells.index(x, y);
                 }
-                x++;
             }
-            width = x;
-            y++;
         }
-        return new Grid(antennas, coordinates, width, y);
+        return new Grid(cells, antennas);
     }
 
-    Set<Coordinate> antinodes(boolean resonant) {
-        Set<Coordinate> antinodes = new HashSet<>();
-        for (Integer type : antennas.keySet()) {
-            var set = antennas.get(type);
-            for (var a : set) {
-                for (var b : set) {
-                    if (!a.equals(b)) {
-                        antinodes.addAll(a.antinodes(b, width, height, resonant));
+    int antinodes(boolean resonant) {
+        var antinodes = new boolean[cells.size()];
+        int count = 0;
+        for (var set : antennas) {
+            for (int a : set) {
+                for (int b : set) {
+                    if (a != b) {
+                        count += antinodes(a, b, resonant, antinodes);
                     }
                 }
             }
         }
-        return antinodes;
+        return count;
+    }
+
+    /**
+     * Marks the antinodes beyond {@code a} as seen from {@code b} and returns how many of them are new.
+     */
+    private int antinodes(int a, int b, boolean resonant, boolean[] antinodes) {
+        int dx = cells.x(a) - cells.x(b);
+        int dy = cells.y(a) - cells.y(b);
+        int x = cells.x(a);
+        int y = cells.y(a);
+        int count = 0;
+        if (!resonant) {
+            x += dx;
+            y += dy;
+        }
+        while (cells.contains(x, y)) {
+            int i = cells.index(x, y);
+            if (!antinodes[i]) {
+                antinodes[i] = true;
+                ++count;
+            }
+            if (!resonant) {
+                break;
+            }
+            x += dx;
+            y += dy;
+        }
+        return count;
     }
 }
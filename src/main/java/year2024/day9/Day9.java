@@ -1,9 +1,12 @@
 package year2024.day9;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -15,16 +18,27 @@ public class Day9 {
     }
 }
 
-class Puzzle {
-    Disk disk() throws IOException {
+class Puzzle implements Solver {
+    final List<String> lines;
+
+    Puzzle() throws IOException {
         try (var input = Objects.requireNonNull(getClass().getResourceAsStream("day9_input"))) {
-            return Disk.from(new BufferedReader(new InputStreamReader(input)).lines());
+            lines = new BufferedReader(new InputStreamReader(input)).lines().toList();
         }
     }
 
-    void solve() throws IOException {
-        System.out.println(disk().compress().checksum());
-        System.out.println(disk().compressBetter().checksum());
+    Disk disk() {
+        return Disk.from(lines.stream());
+    }
+
+    @Override
+    public Object part1() {
+        return disk().compress().checksum();
+    }
+
+    @Override
+    public Object part2() {
+        return disk().compressBetter().checksum();
     }
 }
 
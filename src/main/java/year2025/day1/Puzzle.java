@@ -1,26 +1,28 @@
 package year2025.day1;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.Objects;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final Dial dial = new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day1_input"))))
             .lines()
             .map(Instruction::parse)
             .reduce(Dial.INITIAL, Dial::operate, Dial::combine);
 
     public static void main(String[] args) {
-        var puzzle = new Puzzle();
-        System.out.println(puzzle.part1());
-        System.out.println(puzzle.part2());
+        new Puzzle().solve();
     }
 
-    int part1() {
+    @Override
+    public Object part1() {
         return dial.zeros();
     }
 
-    int part2() {
+    @Override
+    public Object part2() {
         return dial.totalZeros();
     }
 
@@ -1,5 +1,7 @@
 package year2025.day10;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -12,7 +14,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     private final List<Machine> machines = new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day10_input")))).lines().map(Machine::parse).toList();
 
@@ -20,16 +22,13 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    private void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    private int part1() {
+    @Override
+    public Object part1() {
         return machines.stream().mapToInt(Machine::fewestPresses).sum();
     }
 
-    private int part2() {
+    @Override
+    public Object part2() {
         return machines.stream().mapToInt(Machine::fewestPresses2).sum();
     }
 }
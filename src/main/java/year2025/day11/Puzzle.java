@@ -1,5 +1,7 @@
 package year2025.day11;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayDeque;
@@ -14,7 +16,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     static final String SVR = "svr";
     static final String FFT = "fft";
@@ -38,11 +40,6 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    private void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
     @SuppressWarnings("unused")
     void graphviz() {
         System.out.println("digraph test {");
@@ -54,11 +51,13 @@ public class Puzzle {
         System.out.println("}");
     }
 
-    private int part1() {
+    @Override
+    public Object part1() {
         return paths(YOU, OUT, Set.of());
     }
 
-    private long part2() {
+    @Override
+    public Object part2() {
         var routes = routes();
         var queue = new ArrayDeque<ND>();
         long total = 0;
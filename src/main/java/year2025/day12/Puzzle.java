@@ -1,5 +1,7 @@
 package year2025.day12;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
@@ -8,7 +10,7 @@ import java.util.Objects;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     private final List<Shape> shapes;
     private final List<Region> regions;
@@ -24,11 +26,8 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    private void solve() {
-        System.out.println(part1());
-    }
-
-    private int part1() {
+    @Override
+    public Object part1() {
         int n = 0;
         for (var region : regions) {
             List<Integer> shapeCounts = region.shapeCounts();
@@ -42,6 +41,11 @@ public class Puzzle {
         }
         return n;
     }
+
+    @Override
+    public Object part2() {
+        return null;
+    }
 }
 
 record Shape(int size) {
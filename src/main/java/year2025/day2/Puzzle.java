@@ -1,5 +1,7 @@
 package year2025.day2;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -8,7 +10,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.regex.Pattern;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     private final List<Range> ranges;
 
@@ -19,16 +21,16 @@ public class Puzzle {
     }
 
     public static void main(String[] args) throws Exception {
-        var puzzle = new Puzzle();
-        System.out.println(puzzle.part1());
-        System.out.println(puzzle.part2());
+        new Puzzle().solve();
     }
 
-    private long part1() {
+    @Override
+    public Object part1() {
         return sum(Pattern.compile("(.+)\\1"));
     }
 
-    private long part2() {
+    @Override
+    public Object part2() {
         return sum(Pattern.compile("(.+)\\1+"));
     }
 
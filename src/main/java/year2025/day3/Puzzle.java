@@ -1,11 +1,13 @@
 package year2025.day3;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.List;
 import java.util.Objects;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     private final List<Bank> banks = new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day3_input"))))
             .lines()
@@ -13,9 +15,17 @@ public class Puzzle {
             .toList();
 
     public static void main(String[] args) {
-        var puzzle = new Puzzle();
-        System.out.println(puzzle.joltage(2));
-        System.out.println(puzzle.joltage(12));
+        new Puzzle().solve();
+    }
+
+    @Override
+    public Object part1() {
+        return joltage(2);
+    }
+
+    @Override
+    public Object part2() {
+        return joltage(12);
     }
 
     long joltage(int picks) {
@@ -1,14 +1,15 @@
 package year2025.day4;
 
+import common.ByteGrid;
+import common.DenseGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.HashSet;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     private final Grid grid = Grid.parse(new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day4_input")))).lines());
 
@@ -16,42 +17,46 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    void solve() {
-        System.out.println(grid.accessibleRolls());
-        System.out.println(grid.bruteforceIt());
+    @Override
+    public Object part1() {
+        return grid.accessibleRolls();
+    }
+
+    @Override
+    public Object part2() {
+        return grid.bruteforceIt();
     }
 }
 
-record Grid(Set<Coordinate> rolls) {
+record Grid(ByteGrid rolls) {
+    static final byte ROLL = '@';
+    static final byte EMPTY = '.';
+
     static Grid parse(Stream<String> lines) {
-        Set<Coordinate> rolls = new HashSet<>();
-        final var y = new AtomicInteger();
-        lines.forEach(l -> {
-            final var x = new AtomicInteger();
-            l.chars().forEach(c -> {
-                if (c == '@') {
-                    rolls.add(new Coordinate(x.get(), y.get()));
-                }
-                x.incrementAndGet();
-            });
-            y.incrementAndGet();
-        });
-        return new Grid(rolls);
+        return new Grid(ByteGrid.padded(lines.toList(), EMPTY));
     }
 
     long accessibleRolls() {
-        return rolls.stream().filter(this::accessible).count();
+        long n = 0;
+        for (int y = 0; y < rolls.height(); y++) {
+            for (int c = rolls.index(0, y), x = 0; x < rolls.width(); x++, c++) {
+                if (rolls.at(c) == ROLL && accessible(c)) {
+                    ++n;
+                }
+            }
+        }
+        return n;
     }
 
     long removeAccessibleRolls() {
         long n = 0;
-        var i = rolls.iterator();
-        while (i.hasNext()) {
-            var roll = i.next();
-            if (accessible(roll)) {
-                // Yes, this works
-                i.remove();
-                ++n;
+        for (int y = 0; y < rolls.height(); y++) {
+            for (int c = rolls.index(0, y), x = 0; x < rolls.width(); x++, c++) {
+                if (rolls.at(c) == ROLL && accessible(c)) {
+                    // Yes, this works
+                    rolls.put(c, EMPTY);
+                    ++n;
+                }
             }
         }
         return n;
@@ -68,35 +73,13 @@ record Grid(Set<Coordinate> rolls) {
         } while (true);
     }
 
-    boolean accessible(Coordinate roll) {
-        return roll.neighbours().filter(rolls::contains).count() < 4;
-    }
-}
-
-record Coordinate(int p) {
-    static final int M = 1_000;
-
-    public Coordinate(int x, int y) {
-        this(x + M * y);
-    }
-
-    Coordinate north() {
-        return new Coordinate(p - M);
-    }
-
-    Coordinate south() {
-        return new Coordinate(p + M);
-    }
-
-    Coordinate east() {
-        return new Coordinate(p + 1);
-    }
-
-    Coordinate west() {
-        return new Coordinate(p - 1);
-    }
-
-    Stream<Coordinate> neighbours() {
-        return Stream.of(north(), north().east(), east(), south().east(), south(), south().west(), west(), north().west());
+    boolean accessible(int roll) {
+        int neighbours = 0;
+        for (int d = DenseGrid.NORTH; d < 8; d++) {
+            if (rolls.at(rolls.step(roll, d)) == ROLL) {
+                ++neighbours;
+            }
+        }
+        return neighbours < 4;
     }
 }
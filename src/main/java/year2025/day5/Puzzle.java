@@ -1,5 +1,7 @@
 package year2025.day5;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -8,7 +10,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     private final List<Range> ranges;
     private final List<Long> ingredients;
@@ -28,16 +30,13 @@ public class Puzzle {
         return ranges.stream().anyMatch(r -> r.contains(ingredient));
     }
 
-    private void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    private long part1() {
+    @Override
+    public Object part1() {
         return ingredients.stream().filter(this::fresh).count();
     }
 
-    private long part2() {
+    @Override
+    public Object part2() {
         return Range.combine(ranges).stream().mapToLong(Range::size).sum();
     }
 }
@@ -1,5 +1,7 @@
 package year2025.day6;
 
+import common.Solver;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -8,7 +10,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.function.BinaryOperator;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     private final List<Problem> problems;
     private final List<Problem> realProblems;
@@ -64,9 +66,14 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    private void solve() {
-        System.out.println(solve(problems));
-        System.out.println(solve(realProblems));
+    @Override
+    public Object part1() {
+        return solve(problems);
+    }
+
+    @Override
+    public Object part2() {
+        return solve(realProblems);
     }
 
     private static long solve(List<Problem> problems) {
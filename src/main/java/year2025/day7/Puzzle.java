@@ -1,18 +1,16 @@
 package year2025.day7;
 
+import common.ByteGrid;
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     private final Grid grid = Grid.parse(new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day7_input")))).lines());
 
@@ -20,16 +18,13 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    private void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    int part1() {
+    @Override
+    public Object part1() {
         return grid.splits();
     }
 
-    long part2() {
+    @Override
+    public Object part2() {
         return grid.timelines();
     }
 }
@@ -48,99 +43,66 @@ enum Symbol {
     }
 }
 
-record Grid(Set<Coordinate> splitters, Coordinate start, int height) {
+/**
+ * The manifold as a grid, swept one row at a time with the beams, or the timelines, per column. Beams split off the
+ * left or right edge keep falling in the columns just outside the grid.
+ */
+record Grid(ByteGrid cells, int startX, int startY) {
     static Grid parse(Stream<String> lines) {
-        var starts = new TreeSet<Coordinate>();
-        var splitters = new TreeSet<Coordinate>();
-        var yc = new AtomicInteger();
-        lines.forEach(l -> {
-            var y = yc.getAndIncrement();
-            var xc = new AtomicInteger();
-            l.chars().forEach(c -> {
-                var x = xc.getAndIncrement();
-                var coordinate = new Coordinate(x, y);
-                var symbol = Symbol.of((char) c);
-                switch (symbol) {
-                    case SPLITTER -> splitters.add(coordinate);
-                    case START -> starts.add(coordinate);
-                }
-            });
-        });
-        return new Grid(splitters, starts.first(), yc.get());
+        var cells = ByteGrid.parse(lines.toList());
+        for (int y = 0; y < cells.height(); y++) {
+            for (int x = 0; x < cells.width(); x++) {
+                Symbol.of((char) cells.get(x, y));
+            }
+        }
+        int start = cells.indexOf((byte) Symbol.START.value);
+        if (start < 0) {
+            throw new NoSuchElementException("no start");
+        }
+        return new Grid(cells, cells.x(start), cells.y(start));
+    }
+
+    private boolean isSplitter(int x, int y) {
+        return cells.getOrDefault(x, y, (byte) Symbol.FREE.value) == Symbol.SPLITTER.value;
     }
 
     int splits() {
-        var deque = new ArrayDeque<Coordinate>();
-        var visited = new TreeSet<Coordinate>();
-        deque.addLast(start);
-        visited.add(start);
+        var beams = new boolean[cells.width() + 2];
+        beams[startX + 1] = true;
         int splits = 0;
-        while (!deque.isEmpty()) {
-            var c = deque.removeFirst();
-            var south = c.south();
-            if (south.y() < height) {
-                if (splitters.contains(south)) {
-                    splits++;
-                    Stream.of(south.west(), south.east()).forEach(candidate -> {
-                        if (!visited.contains(candidate)) {
-                            visited.add(candidate);
-                            deque.addLast(candidate);
-                        }
-                    });
-                } else {
-                    if (!visited.contains(south)) {
-                        visited.add(south);
-                        deque.addLast(south);
+        for (int y = startY + 1; y < cells.height(); y++) {
+            var next = new boolean[beams.length];
+            for (int i = 0; i < beams.length; i++) {
+                if (beams[i]) {
+                    if (isSplitter(i - 1, y)) {
+                        splits++;
+                        next[i - 1] = true;
+                        next[i + 1] = true;
+                    } else {
+                        next[i] = true;
                     }
                 }
             }
+            beams = next;
         }
         return splits;
     }
 
     long timelines() {
-        return timelines(start, new TreeMap<>());
-    }
-
-    private long timelines(Coordinate c, SortedMap<Coordinate, Long> cache) {
-        if (cache.containsKey(c)) {
-            return cache.get(c);
-        }
-        var south = c.south();
-        if (south.y() >= height) {
-            return 1;
+        var timelines = new long[cells.width() + 2];
+        timelines[startX + 1] = 1;
+        for (int y = startY + 1; y < cells.height(); y++) {
+            var next = new long[timelines.length];
+            for (int i = 0; i < timelines.length; i++) {
+                if (isSplitter(i - 1, y)) {
+                    next[i - 1] += timelines[i];
+                    next[i + 1] += timelines[i];
+                } else {
+                    next[i] += timelines[i];
+                }
+            }
+            timelines = next;
         }
-        long timelines = splitters.contains(south) ? timelines(south.west(), cache) + timelines(south.east(), cache) : timelines(south, cache);
-        cache.put(c, timelines);
-        return timelines;
-    }
-}
-
-record Coordinate(int p) implements Comparable<Coordinate> {
-    static final int M = 1_000;
-
-    public Coordinate(int x, int y) {
-        this(x + M * y);
-    }
-
-    Coordinate south() {
-        return new Coordinate(p + M);
-    }
-
-    Coordinate east() {
-        return new Coordinate(p + 1);
-    }
-
-    Coordinate west() {
-        return new Coordinate(p - 1);
-    }
-
-    int y() {
-        return p / M;
-    }
-
-    @Override
-    public int compareTo(Coordinate o) {
-        return Integer.compare(p, o.p);
+        return Arrays.stream(timelines).sum();
     }
 }
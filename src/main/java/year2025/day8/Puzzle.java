@@ -1,5 +1,7 @@
 package year2025.day8;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -9,7 +11,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
-public class Puzzle {
+public class Puzzle implements Solver {
 
     static final int CONNECTIONS = 1000;
     private final int boxCount;
@@ -32,12 +34,8 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    private void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    private long part1() {
+    @Override
+    public Object part1() {
         for (int i = 0; i < CONNECTIONS && i < sorted.size(); i++) {
             connect(sorted.get(i));
         }
@@ -46,7 +44,8 @@ public class Puzzle {
         return sortedSizes[l - 1] * sortedSizes[l - 2] * sortedSizes[l - 3];
     }
 
-    private long part2() {
+    @Override
+    public Object part2() {
         for (int i = CONNECTIONS; ; i++) {
             var pair = sorted.get(i);
             connect(pair);
@@ -1,11 +1,13 @@
 package year2025.day9;
 
+import common.Solver;
+
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.List;
 import java.util.Objects;
 
-public class Puzzle {
+public class Puzzle implements Solver {
     private final List<Coordinate> redTiles = new BufferedReader(new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream("day9_input")))).lines().map(Coordinate::parse).toList();
     private final Coordinate magic1;
     private final Coordinate magic2;
@@ -33,16 +35,13 @@ public class Puzzle {
         new Puzzle().solve();
     }
 
-    private void solve() {
-        System.out.println(part1());
-        System.out.println(part2());
-    }
-
-    private long part1() {
+    @Override
+    public Object part1() {
         return maxArea(true);
     }
 
-    private long part2() {
+    @Override
+    public Object part2() {
         return maxArea(false);
     }
 